@@ -2,9 +2,12 @@ package com.kitchensaver.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 // This annotation marks the class as the main entry point for a Spring Boot application.
 @SpringBootApplication
+// Enables @Scheduled background tasks (e.g. the job stream heartbeat)
+@EnableScheduling
 public class BackendApplication {
 
     // This is the main method which is the entry point to run the Spring Boot application.
@@ -0,0 +1,93 @@
+package com.kitchensaver.backend.Config;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.ServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.apache.catalina.connector.CoyoteOutputStream;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+// Writes a ByteBuffer response body (the off-heap image cache) to the client.
+// On Tomcat the buffer is handed to the connector as it is, so cached images go from direct memory to the
+// socket without being copied into a byte[] first. Elsewhere it is copied out in small chunks.
+// Spring Boot registers it ahead of the default converters because it is a bean.
+@Component
+public class ByteBufferHttpMessageConverter extends AbstractHttpMessageConverter<ByteBuffer> {
+
+    private static final boolean TOMCAT_PRESENT = ClassUtils.isPresent(
+            "org.apache.catalina.connector.CoyoteOutputStream", ByteBufferHttpMessageConverter.class.getClassLoader());
+    private static final int COPY_CHUNK = 16384; // Heap chunk used when the buffer cannot be passed through
+
+    public ByteBufferHttpMessageConverter() {
+        super(MediaType.ALL);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ByteBuffer.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false; // Response bodies only
+    }
+
+    @Override
+    protected ByteBuffer readInternal(Class<? extends ByteBuffer> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("ByteBuffer request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(ByteBuffer buffer, MediaType contentType) {
+        return (long) buffer.remaining();
+    }
+
+    @Override
+    protected void writeInternal(ByteBuffer buffer, HttpOutputMessage outputMessage) throws IOException {
+        ByteBuffer data = buffer.duplicate(); // The cached buffer's position is never moved
+        OutputStream body = outputMessage.getBody(); // Writes the headers
+        body.flush(); // Commits the response through the wrappers, so filters (security headers) see it first
+
+        if (TOMCAT_PRESENT && Tomcat.write(outputMessage, data)) {
+            return;
+        }
+        byte[] chunk = new byte[Math.min(COPY_CHUNK, data.remaining())];
+        while (data.hasRemaining()) {
+            int n = Math.min(chunk.length, data.remaining());
+            data.get(chunk, 0, n);
+            body.write(chunk, 0, n);
+        }
+    }
+
+    // Tomcat classes are only touched in here, so the converter still loads on other servers
+    private static final class Tomcat {
+
+        // Passes the buffer to Tomcat's own output stream under all response wrappers; false if there is none
+        static boolean write(HttpOutputMessage outputMessage, ByteBuffer data) throws IOException {
+            if (!(outputMessage instanceof ServletServerHttpResponse servletResponse)) {
+                return false;
+            }
+            ServletResponse response = servletResponse.getServletResponse();
+            while (response instanceof ServletResponseWrapper wrapper) {
+                response = wrapper.getResponse();
+            }
+            ServletOutputStream stream = response.getOutputStream();
+            if (!(stream instanceof CoyoteOutputStream coyote)) {
+                return false;
+            }
+            coyote.write(data);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.kitchensaver.backend.Config;
+
+import com.kitchensaver.backend.model.Job;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Moves the job id generator (id_sequences row "job") past the ids already in the job table.
+// Jobs used to get AUTO_INCREMENT ids, so without this the pooled generator would start again at 1.
+// Runs once at startup, after Hibernate has created id_sequences and before any request is served.
+@Component
+public class JobIdInitializer {
+    private static final Logger logger = LoggerFactory.getLogger(JobIdInitializer.class); // Logger for debugging and monitoring
+
+    private final JdbcTemplate jdbcTemplate; // Plain JDBC, the generator row is not an entity
+
+    // Constructor injection; the EntityManagerFactory is only required so the schema exists first
+    public JobIdInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignJobIds() {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from job", Long.class);
+        if (maxId == null) {
+            return; // No jobs yet, Hibernate creates the row on the first insert
+        }
+
+        // The pooled generator hands out the ids up to the stored value, so store the end of the next block
+        long nextVal = maxId + Job.ID_ALLOCATION_SIZE;
+        int updated = jdbcTemplate.update(
+                "update id_sequences set next_val = ? where sequence_name = 'job' and next_val < ?", nextVal, nextVal);
+        if (updated == 0) {
+            Integer rows = jdbcTemplate.queryForObject(
+                    "select count(*) from id_sequences where sequence_name = 'job'", Integer.class);
+            if (rows == null || rows == 0) {
+                jdbcTemplate.update("insert into id_sequences (sequence_name, next_val) values ('job', ?)", nextVal);
+                updated = 1;
+            }
+        }
+        if (updated > 0) {
+            logger.info("Job ids continue after {}", maxId);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.kitchensaver.backend.Config;
+
+import com.kitchensaver.backend.Repo.JobImageRepo;
+
+import jakarta.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+// Gives jobs whose image was set before photo history existed a job_image row for it, so their photo list and
+// count include the cover. Runs once at startup; afterwards every job with a cover already has its row and the
+// statement finds nothing to do.
+@Component
+public class JobImageInitializer {
+    private static final Logger logger = LoggerFactory.getLogger(JobImageInitializer.class); // Logger for debugging and monitoring
+
+    private final JobImageRepo jobImageRepo; // Inserts the missing rows in one statement
+
+    // Constructor injection for the photo repository
+    public JobImageInitializer(JobImageRepo jobImageRepo) {
+        this.jobImageRepo = jobImageRepo;
+    }
+
+    @PostConstruct
+    public void backfillCovers() {
+        int added = jobImageRepo.backfillCovers();
+        if (added > 0) {
+            logger.info("Added {} job covers to the photo history", added);
+        }
+    }
+}
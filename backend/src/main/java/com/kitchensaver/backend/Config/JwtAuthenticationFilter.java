@@ -1,8 +1,8 @@
 package com.kitchensaver.backend.Config;
 
-import com.auth0.jwt.interfaces.DecodedJWT;
-import com.kitchensaver.backend.Service.UserService;
-import com.kitchensaver.backend.util.JwtUtil;
+import com.kitchensaver.backend.Service.FileUrlSigningService;
+import com.kitchensaver.backend.Service.TokenAuthenticationService;
+import com.kitchensaver.backend.Service.TokenAuthenticationService.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,7 +10,6 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -65,13 +64,34 @@ import java.io.IOException;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final UserService userService;  // Service for handling user details
-    private final JwtUtil jwtUtil;  // Utility class for JWT token operations
+    private final TokenAuthenticationService tokenAuthenticationService;  // Verifies tokens and caches the result
 
-    // Constructor to initialize JwtAuthenticationFilter with userService and jwtUtil
-    public JwtAuthenticationFilter(UserService userService, JwtUtil jwtUtil) {
-        this.userService = userService;
-        this.jwtUtil = jwtUtil;
+    // Constructor to initialize JwtAuthenticationFilter with the token authentication service
+    public JwtAuthenticationFilter(TokenAuthenticationService tokenAuthenticationService) {
+        this.tokenAuthenticationService = tokenAuthenticationService;
+    }
+
+    // Signed file URLs carry their own proof (checked in FileStorageController), so no token work is done for them.
+    // Only the path and the raw query string are looked at: getParameter would read (and spool) a form or
+    // multipart body before the caller is authenticated.
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + FileUrlSigningService.FILES_PATH)
+                && "GET".equals(request.getMethod())
+                && hasQueryParameter(request.getQueryString(), "sig");
+    }
+
+    // True if the raw query string has the parameter (with or without a value)
+    private static boolean hasQueryParameter(String queryString, String name) {
+        if (queryString == null) {
+            return false;
+        }
+        for (String pair : queryString.split("&")) {
+            if (pair.equals(name) || pair.startsWith(name + "=")) {
+                return true;
+            }
+        }
+        return false;
     }
 
     // Overridden method that filters each HTTP request and validates the JWT token
@@ -92,23 +112,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Extract the JWT token from the Authorization header (after "Bearer " prefix)
             final String jwt = authHeader.substring(7);
             
-            // Verify and decode the JWT token using the jwtUtil utility
-            final DecodedJWT decodedJWT = jwtUtil.verifyToken(jwt);
+            // Verify the token, or take the identity from the cache when this token was verified before
+            final VerifiedToken verified = tokenAuthenticationService.authenticate(jwt);
             
-            // Extract the user email (subject) from the decoded JWT token
-            final String userEmail = decodedJWT.getSubject();
-            
-            // If the userEmail is valid and the authentication context is not set, load user details
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Load the user details from the UserService
-                UserDetails userDetails = userService.loadUserByUsername(userEmail);
-                
-                // Create an authentication token for the user with the necessary details
+            // If the authentication context is not set yet, set it from the token
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Create an authentication token for the user; the authorities come from the signed role claim
                 UsernamePasswordAuthenticationToken authToken = 
                     new UsernamePasswordAuthenticationToken(
-                        userDetails,  // User details (username, roles, etc.)
-                        null,  // No credentials needed (JWT-based authentication)
-                        userDetails.getAuthorities()  // User's authorities (roles)
+                        verified.user(),  // Typed principal (id, email, role), injected with @AuthenticationPrincipal
+                        verified,  // The verified token itself (its id and expiry are needed to log it out)
+                        verified.authorities()  // User's authorities (roles)
                     );
                 
                 // Attach the HTTP request details to the authentication token
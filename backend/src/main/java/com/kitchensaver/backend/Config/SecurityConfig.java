@@ -1,9 +1,14 @@
 package com.kitchensaver.backend.Config;
 
+import com.kitchensaver.backend.Service.PasswordHashingService;
 import com.kitchensaver.backend.Service.UserService;
 
+import jakarta.servlet.DispatcherType;
+
 import java.util.Arrays;
 
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,10 +19,12 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.DispatcherTypeRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -30,13 +37,16 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthFilter; // JWT filter for authentication
     private final CustomAuthenticationEntryPoint unauthorizedHandler; // Custom handler for unauthorized access
     private final UserService userService; // User service to fetch user details
+    private final PasswordHashingService passwordHashingService; // Owns the calibrated password encoder
 
     // Constructor for initializing the SecurityConfig with the required components
     public SecurityConfig(JwtAuthenticationFilter jwtAuthFilter,
-            CustomAuthenticationEntryPoint unauthorizedHandler, UserService userService) {
+            CustomAuthenticationEntryPoint unauthorizedHandler, UserService userService,
+            PasswordHashingService passwordHashingService) {
         this.jwtAuthFilter = jwtAuthFilter;
         this.unauthorizedHandler = unauthorizedHandler;
         this.userService = userService;
+        this.passwordHashingService = passwordHashingService;
     }
 
     // Security filter chain configuration
@@ -47,8 +57,14 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable()) // Disable CSRF protection (as we are using JWT)
                 .exceptionHandling(exception -> exception
                         .authenticationEntryPoint(unauthorizedHandler)) // Handle unauthorized exceptions
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(new AndRequestMatcher(new DispatcherTypeRequestMatcher(DispatcherType.ASYNC),
+                                new OrRequestMatcher(antMatcher("/api/jobs/stream"), antMatcher("/api/jobs/export"))))
+                        .permitAll()) // Their async dispatches (stream end, export end) were authorized on the original request
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/user/register", "/api/user/login").permitAll()) // Allow registration and login without authentication
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/api/files/**").permitAll()) // Files check a signed URL or the caller themselves (FileStorageController)
                 .authorizeHttpRequests(auth3 -> auth3
                         .anyRequest().authenticated()) // All other requests require authentication
                 // .exceptionHandling(exception -> exception
@@ -67,14 +83,14 @@ public class SecurityConfig {
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(); // Dao authentication provider
         authProvider.setUserDetailsService(userService); // Set user details service to fetch user info
-        authProvider.setPasswordEncoder(passwordEncoder()); // Set password encoder (BCrypt)
+        authProvider.setPasswordEncoder(passwordEncoder()); // Set password encoder (calibrated BCrypt)
         return authProvider; // Return the configured authentication provider
     }
 
-    // Bean for password encoder (BCrypt password encoder used here)
+    // Bean for password encoder (the same calibrated BCrypt encoder UserService hashes with)
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(); // Return a BCrypt password encoder
+        return passwordHashingService.getPasswordEncoder(); // Return the delegating BCrypt encoder
     }
 
     // Bean for authentication manager (used for managing authentication requests)
@@ -91,8 +107,8 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:3001", "http://localhost:3000")); // Allow React app origins
 
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")); // Allow these HTTP methods
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Cache-Control", "Content-Type")); // Allowed headers
-        configuration.setExposedHeaders(Arrays.asList("Authorization")); // Expose authorization header
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Cache-Control", "Content-Type", "Last-Event-ID", "If-None-Match", "If-Match", "X-Chunk-SHA256")); // Allowed headers
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "ETag")); // Expose authorization and ETag headers
         configuration.setAllowCredentials(true); // Allow credentials (cookies, etc.)
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource(); // Create CORS configuration source
@@ -1,72 +1,198 @@
 package com.kitchensaver.backend.Controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 
-import org.apache.tomcat.util.http.fileupload.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.ResponseEntity;
+import com.kitchensaver.backend.DTO.ImageCacheStats;
+import com.kitchensaver.backend.DTO.UploadSessionRequest;
+import com.kitchensaver.backend.DTO.UploadSessionResponse;
+import com.kitchensaver.backend.Exceptions.InvalidRequestException;
+import com.kitchensaver.backend.Exceptions.NotFoundException;
+import com.kitchensaver.backend.Exceptions.TooManyRequestsException;
+import com.kitchensaver.backend.Service.ChunkedUploadService;
 import com.kitchensaver.backend.Service.FileStorageService;
+import com.kitchensaver.backend.Service.FileUrlSigningService;
+import com.kitchensaver.backend.Service.ImageCacheService;
+import com.kitchensaver.backend.Service.ImageRenditionService;
+import com.kitchensaver.backend.model.ImageRendition;
+import com.kitchensaver.backend.model.AuthenticatedUser;
 
 // Controller for handling file storage operations
 @RestController
 @RequestMapping("/api")
 public class FileStorageController {
 
-    // Path where uploaded files will be stored (configured in application.properties)
-    @Value("${file.upload-dir}")
-    private String uploadDir;
-    
     // Service to handle file storage operations
     @Autowired
     private FileStorageService fileStorageService;
 
+    // Service to check signed file URLs
+    @Autowired
+    private FileUrlSigningService fileUrlSigningService;
+
+    // Service that makes the resized copies of images
+    @Autowired
+    private ImageRenditionService imageRenditionService;
+
+    // Service for resumable chunked uploads
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    // Off-heap cache of the most requested images
+    @Autowired
+    private ImageCacheService imageCacheService;
+
     // Logger for logging information and errors
     private static final Logger logger = LoggerFactory.getLogger(JobController.class);
 
-    // Endpoint for serving files based on filename
+    // Cache lifetime for files whose name always means the same bytes
+    private static final Duration IMMUTABLE_MAX_AGE = Duration.ofDays(365);
+
+    // Endpoint for serving files based on filename.
+    // With expires and sig (the signed URL in JobResponse.image) no login is needed and the file may be cached
+    // until the URL expires; without them the caller must send a valid token as before.
+    // The file is streamed from disk (never read into memory whole). Range requests get 206 with only the
+    // requested bytes, and If-None-Match / If-Modified-Since get 304 from the file's ETag and modification time.
+    // size=thumb or size=medium selects a resized copy; until it has been made the original is sent (not cached for long).
+    // Plain GETs of popular images are answered from the off-heap image cache instead of the disk.
     @GetMapping("/files/{filename}")
-    public ResponseEntity<byte[]> serveFile(@PathVariable String filename) {
+    public ResponseEntity<?> serveFile(@PathVariable String filename,
+            @RequestParam(required = false) Long expires, @RequestParam(required = false) String sig,
+            @RequestParam(required = false) String size,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            @AuthenticationPrincipal AuthenticatedUser user, HttpServletRequest request) {
         try {
             // Log the filename being accessed
-            logger.info("here::: " + filename);
-            
-            // Resolve the file path based on the uploaded directory and the filename
-            Path filePath = Paths.get(uploadDir).resolve(filename).normalize();
-            
-            // Create a resource from the file path
-            Resource resource = new UrlResource(filePath.toUri());
+            logger.debug("here::: " + filename);
 
-            // Check if the resource exists and is readable, then return the file as a response
-            if (resource.exists() || resource.isReadable()) {
-                return ResponseEntity.ok().contentType(MediaType.IMAGE_JPEG).body(Files.readAllBytes(filePath));
+            // Check the signature, or that the caller is logged in
+            boolean immutable = fileStorageService.isImmutableName(filename);
+            CacheControl cacheControl;
+            if (sig != null) {
+                if (expires == null || !fileUrlSigningService.isValid(filename, expires, sig)) {
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN).build(); // Forged, altered or expired URL
+                }
+                long maxAge = Math.max(0, expires - System.currentTimeMillis() / 1000);
+                cacheControl = immutable
+                        ? CacheControl.maxAge(Duration.ofSeconds(maxAge)).cachePublic().immutable() // Cached until the URL expires
+                        : CacheControl.noCache().cachePublic();
+            } else if (user == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
             } else {
+                cacheControl = immutable
+                        ? CacheControl.maxAge(IMMUTABLE_MAX_AGE).cachePrivate().immutable()
+                        : CacheControl.noCache().cachePrivate();
+            }
+
+            // Resolve the file in the upload directory (null for names that point outside it)
+            Path filePath = fileStorageService.resolveStoredFile(filename);
+            if (filePath == null || !Files.isRegularFile(filePath) || !Files.isReadable(filePath)) {
                 // If the file does not exist or is not readable, return a 404 response
                 return ResponseEntity.notFound().build();
             }
+
+            // Pick the resized copy if one was asked for and has been made
+            if (size != null) {
+                ImageRendition rendition = ImageRendition.fromParam(size);
+                if (rendition == null) {
+                    return ResponseEntity.badRequest().build();
+                }
+                Path renditionPath = imageRenditionService.find(filename, rendition);
+                if (renditionPath != null) {
+                    filePath = renditionPath;
+                } else {
+                    // The original stands in for now; the client must ask again so it gets the copy once it exists
+                    cacheControl = sig != null ? CacheControl.noCache().cachePublic() : CacheControl.noCache().cachePrivate();
+                }
+            }
+
+            long length = Files.size(filePath);
+            long lastModified = Files.getLastModifiedTime(filePath).toMillis();
+            String etag = "\"" + Long.toString(length, 36) + "-" + Long.toString(lastModified, 36) + "\"";
+            MediaType contentType = MediaTypeFactory.getMediaType(filePath.getFileName().toString())
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM);
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .cacheControl(cacheControl)
+                    .eTag(etag) // Spring answers a matching If-None-Match / If-Modified-Since with 304
+                    .lastModified(lastModified)
+                    .contentType(contentType);
+            if (MediaType.valueOf("image/svg+xml").includes(contentType)) {
+                response.header("Content-Security-Policy", "default-src 'none'; style-src 'unsafe-inline'; sandbox"); // No scripts in SVGs
+            }
+
+            // A FileSystemResource is streamed and sliced by Spring for Range requests. When If-Range names an older
+            // version, the whole current file is sent instead (an InputStreamResource is never sliced).
+            if (ifRange != null && !rangeStillValid(ifRange, etag, lastModified)) {
+                return response.contentLength(length).body(new InputStreamResource(Files.newInputStream(filePath)));
+            }
+
+            // Whole-file GETs may come from memory; ranges and revalidations (mostly 304) keep the disk path
+            if ("GET".equals(request.getMethod()) && request.getHeader(HttpHeaders.RANGE) == null
+                    && request.getHeader(HttpHeaders.IF_NONE_MATCH) == null
+                    && request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) == null) {
+                ByteBuffer cached = imageCacheService.get(filePath, length, lastModified);
+                if (cached != null) {
+                    return response.header(HttpHeaders.ACCEPT_RANGES, "bytes").body(cached);
+                }
+            }
+            return response.body(new FileSystemResource(filePath));
         } catch (Exception e) {
             // If an error occurs, return a 500 internal server error
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    // Endpoint for the image cache figures (hit rate, bytes held, evictions)
+    @GetMapping("/imageCache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImageCacheStats> getImageCacheStats() {
+        return ResponseEntity.ok(imageCacheService.getStats());
+    }
+
+    // If-Range holds either the ETag or the Last-Modified date the client's partial copy came from
+    private static boolean rangeStillValid(String ifRange, String etag, long lastModified) {
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            long date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return date / 1000 == lastModified / 1000;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
     // Endpoint for uploading files
     @PostMapping("/upload")
     // Restrict access to users with specific roles: ADMIN, CABINET_MAKER, or INSTALLER
@@ -75,6 +201,7 @@ public class FileStorageController {
         try {
             // Store the file using the file storage service
             String fileName = fileStorageService.storeFile(file);
+            imageRenditionService.generate(fileName); // Make the previews in the background
             
             // Return the file access URL
             String fileDownloadUri = fileName;
@@ -84,4 +211,80 @@ public class FileStorageController {
             return ResponseEntity.badRequest().body("Failed to upload file: " + e.getMessage());
         }
     }
+
+    // Endpoint to start a resumable upload: body {fileName, size, chunkSize?}, returns the session with its chunk plan
+    @PostMapping("/uploads")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CABINET_MAKER', 'INSTALLER')")
+    public ResponseEntity<UploadSessionResponse> startUpload(@RequestBody UploadSessionRequest request,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.start(request, user.id()));
+        } catch (TooManyRequestsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds())).build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Endpoint to see which chunks of an upload are still missing (to resume after a lost connection)
+    @GetMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CABINET_MAKER', 'INSTALLER')")
+    public ResponseEntity<UploadSessionResponse> getUpload(@PathVariable String uploadId,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.status(uploadId, user.id()));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Endpoint to send one chunk: the raw bytes as the body and their SHA-256 (hex) in X-Chunk-SHA256
+    @PutMapping("/uploads/{uploadId}/chunks/{index}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CABINET_MAKER', 'INSTALLER')")
+    public ResponseEntity<UploadSessionResponse> putChunk(@PathVariable String uploadId, @PathVariable int index,
+            @RequestHeader(value = "X-Chunk-SHA256", required = false) String sha256,
+            @AuthenticationPrincipal AuthenticatedUser user, HttpServletRequest httpServletRequest) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.writeChunk(uploadId, user.id(), index, sha256,
+                    httpServletRequest.getInputStream()));
+        } catch (NotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (TooManyRequestsException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build(); // The same chunk is still being written
+        } catch (InvalidRequestException e) {
+            return ResponseEntity.badRequest().build(); // Wrong length or checksum, send the chunk again
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build(); // Usually the connection broke, send the chunk again
+        }
+    }
+
+    // Endpoint to finish an upload once every chunk has arrived; returns the stored file name like POST /api/upload
+    @PostMapping("/uploads/{uploadId}/complete")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CABINET_MAKER', 'INSTALLER')")
+    public ResponseEntity<String> completeUpload(@PathVariable String uploadId,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            String fileName = chunkedUploadService.complete(uploadId, user.id());
+            imageRenditionService.generate(fileName); // Make the previews in the background
+            return ResponseEntity.ok(fileName);
+        } catch (NotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Failed to upload file: " + e.getMessage());
+        }
+    }
+
+    // Endpoint to cancel an upload and discard what was received
+    @DeleteMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CABINET_MAKER', 'INSTALLER')")
+    public ResponseEntity<Void> abortUpload(@PathVariable String uploadId,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            chunkedUploadService.abort(uploadId, user.id());
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
 }
@@ -1,32 +1,70 @@
 package com.kitchensaver.backend.Controller;
 
-import com.auth0.jwt.interfaces.DecodedJWT;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kitchensaver.backend.DTO.JobImagePageResponse;
 import com.kitchensaver.backend.DTO.JobImageRequest;
+import com.kitchensaver.backend.DTO.JobChangesResponse;
+import com.kitchensaver.backend.DTO.JobFilterRequest;
+import com.kitchensaver.backend.DTO.JobImportResult;
+import com.kitchensaver.backend.DTO.JobMutationRequest;
+import com.kitchensaver.backend.DTO.JobMutationResult;
+import com.kitchensaver.backend.DTO.JobPageResponse;
 import com.kitchensaver.backend.DTO.JobRequest;
 import com.kitchensaver.backend.DTO.JobResponse;
+import com.kitchensaver.backend.Exceptions.InvalidRequestException;
+import com.kitchensaver.backend.Exceptions.NotFoundException;
+import com.kitchensaver.backend.Exceptions.VersionConflictException;
 import com.kitchensaver.backend.Service.JobService;
-import com.kitchensaver.backend.util.JwtUtil;
+import com.kitchensaver.backend.Service.JobStreamService;
+import com.kitchensaver.backend.Service.JobVersionService;
+import com.kitchensaver.backend.Service.ParallelUploadService;
+import com.kitchensaver.backend.model.AuthenticatedUser;
+import com.kitchensaver.backend.util.JobExportWriter;
+import com.kitchensaver.backend.util.JobImportReader;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.io.IOException;
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController // Marks this class as a REST controller
 @RequestMapping("/api/jobs") // Base URL mapping for all job-related endpoints
 public class JobController {
     private final JobService jobService; // Service layer for job operations
+    private final JobStreamService jobStreamService; // Live job change stream
+    private final JobVersionService jobVersionService; // Version counters behind the job ETags
+    private final ObjectMapper objectMapper; // Reads imported rows the same way request bodies are read
+    private final ParallelUploadService parallelUploadService; // Stores the files of a multi-photo upload
     private static final Logger logger = LoggerFactory.getLogger(JobController.class); // Logger for debugging and monitoring
 
-    // Constructor injection for JobService
-    public JobController(JobService jobService) {
+    // Clients may keep job responses but must revalidate them (If-None-Match) before each use
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    // Constructor injection for JobService, JobStreamService, JobVersionService, the ObjectMapper and ParallelUploadService
+    public JobController(JobService jobService, JobStreamService jobStreamService, JobVersionService jobVersionService,
+            ObjectMapper objectMapper, ParallelUploadService parallelUploadService) {
         this.jobService = jobService;
+        this.jobStreamService = jobStreamService;
+        this.jobVersionService = jobVersionService;
+        this.objectMapper = objectMapper;
+        this.parallelUploadService = parallelUploadService;
     }
 
     // ADMIN ENDPOINTS
@@ -43,13 +81,59 @@ public class JobController {
         }
     }
 
+    // Endpoint to create jobs in bulk, accessible only by ADMIN
+    // Body: text/csv (header row with JobRequest field names) or application/json (array of JobRequest).
+    // The body is read row by row while the jobs are written, rows that cannot be imported are listed in the response.
+    @PostMapping(value = "/import", consumes = { "text/csv", MediaType.APPLICATION_JSON_VALUE })
+    @PreAuthorize("hasRole('ADMIN')") // Restricts access to users with ADMIN role
+    public ResponseEntity<JobImportResult> importJobs(HttpServletRequest request) {
+        try (JobImportReader reader = JobImportReader.open(request.getInputStream(), request.getContentType(), objectMapper)) {
+            return ResponseEntity.ok(jobService.importJobs(reader)); // Calls service to import the rows
+        } catch (Exception e) {
+            logger.warn("Job import failed: {}", e.getMessage());
+            return ResponseEntity.badRequest().build(); // Returns 400 for a body that is not a CSV table or JSON array
+        }
+    }
+
+    // Endpoint to download every job, accessible only by ADMIN
+    // format=ndjson (default, one JSON job per line) or format=csv. Rows are written while they are read,
+    // so the download starts immediately and the server never holds the whole table in memory.
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')") // Restricts access to users with ADMIN role
+    public ResponseEntity<StreamingResponseBody> exportJobs(@RequestParam(defaultValue = "ndjson") String format) {
+        try {
+            String contentType = JobExportWriter.contentType(format); // Rejects an unknown format before streaming
+            StreamingResponseBody body = out -> {
+                try (JobExportWriter writer = JobExportWriter.open(out, format, objectMapper)) {
+                    jobService.exportJobs(writer); // Calls service to stream the jobs
+                } catch (IOException e) {
+                    throw e; // Client went away, nothing left to send
+                } catch (Exception e) {
+                    throw new IOException("Job export failed", e);
+                }
+            };
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_TYPE, contentType)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"jobs." + format.toLowerCase() + "\"")
+                    .body(body);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build(); // Returns 400 for an unknown format
+        }
+    }
+
     // Endpoint to update an existing job by ID, accessible only by ADMIN
+    // Send If-Match with the job's version (or its ETag) to make the update conditional (412 if someone changed it first)
     @PutMapping("/{jobId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'CABINET_MAKER', 'INSTALLER')") // Restricts access to users with ADMIN role
-    public ResponseEntity<JobResponse> updateJob(@PathVariable Long jobId, @RequestBody JobRequest request) {
+    public ResponseEntity<JobResponse> updateJob(@PathVariable Long jobId, @RequestBody JobRequest request,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
         try {
-            JobResponse response = jobService.updateJob(jobId, request); // Calls service to update job
+            JobResponse response = jobService.updateJob(jobId, request, parseIfMatch(ifMatch)); // Calls service to update job
             return ResponseEntity.ok(response); // Returns success response
+        } catch (VersionConflictException | ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build(); // Returns 412 if the version is outdated
+        } catch (InvalidRequestException e) {
+            return ResponseEntity.badRequest().build(); // Returns 400 for a malformed If-Match
         } catch (Exception e) {
             return ResponseEntity.notFound().build(); // Returns 404 if job not found
         }
@@ -67,72 +151,240 @@ public class JobController {
         }
     }
 
-    // Endpoint to get all jobs based on user role
+    // Endpoint to get jobs based on user role, one keyset page at a time
+    // sort: dueDate, id, status or office; direction: asc or desc; cursor: nextCursor from the previous page
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'CABINET_MAKER', 'INSTALLER')") // Allows access to all listed roles
-    public ResponseEntity<List<JobResponse>> getAllJobs(HttpServletRequest httpServletRequest) {
-        // Extracts JWT token from Authorization header
-        String token = httpServletRequest.getHeader("Authorization").replace("Bearer ", "");
-        DecodedJWT decodedJWT = JwtUtil.verifyToken(token); // Verifies and decodes token
-        String role = decodedJWT.getClaim("role").asString(); // Gets role from token
-        Long userId = decodedJWT.getClaim("id").asLong(); // Gets user ID from token
-        logger.info("fine here :: 111" );
-
-        List<JobResponse> jobs;
-        if ("ADMIN".equals(role)) {
-            jobs = jobService.getAllJobs(); // Admin gets all jobs
-        } else if ("CABINET_MAKER".equals(role)) {
-            jobs = jobService.getJobsByCabinetMakerId(userId); // Cabinet Maker gets their jobs
-        } else if ("INSTALLER".equals(role)) {
-            jobs = jobService.getJobsByInstallerId(userId); // Installer gets their jobs
-        } else {
-            logger.info("not fine :: 2");
-            return ResponseEntity.badRequest().build(); // Returns 400 if role is invalid
-        }
-        return ResponseEntity.ok(jobs); // Returns list of jobs
+    public ResponseEntity<JobPageResponse> getAllJobs(@AuthenticationPrincipal AuthenticatedUser user,
+            HttpServletRequest httpServletRequest, WebRequest webRequest,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        String role = user.role().name(); // Role from the token (verified once, by the filter)
+        Long userId = user.id(); // User ID from the token
+
+        // Answers 304 Not Modified if the client already has this version (no database work)
+        String etag = jobVersionService.listEtag(role, userId, httpServletRequest.getQueryString());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        try {
+            JobPageResponse jobs;
+            if ("ADMIN".equals(role)) {
+                jobs = jobService.getAllJobs(sort, direction, cursor, limit); // Admin gets all jobs
+            } else if ("CABINET_MAKER".equals(role)) {
+                jobs = jobService.getJobsByCabinetMakerId(userId, sort, direction, cursor, limit); // Cabinet Maker gets their jobs
+            } else if ("INSTALLER".equals(role)) {
+                jobs = jobService.getJobsByInstallerId(userId, sort, direction, cursor, limit); // Installer gets their jobs
+            } else {
+                logger.info("Invalid role for job listing: " + role);
+                return ResponseEntity.badRequest().build(); // Returns 400 if role is invalid
+            }
+            return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(jobs); // Returns one page of jobs
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build(); // Returns 400 for an invalid sort or cursor
+        }
+    }
+
+    // Endpoint to get the jobs that changed since the client's last sync token
+    // Call without "since" to get the current token, then pass the returned token on every refresh
+    @GetMapping("/changes")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CABINET_MAKER', 'INSTALLER')") // Allows access to all listed roles
+    public ResponseEntity<JobChangesResponse> getJobChanges(@AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit) {
+        String role = user.role().name(); // Role from the token (verified once, by the filter)
+        Long userId = user.id(); // User ID from the token
+
+        try {
+            return ResponseEntity.ok(jobService.getChanges(role, userId, since, limit)); // Changes visible to this user
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build(); // Returns 400 for an invalid token or role
+        }
+    }
+
+    // Endpoint that streams job changes (Server-Sent Events) to live dashboards
+    // Each "job-change" event carries {jobId, type} and its id is the delta-sync token;
+    // a reconnecting client sends Last-Event-ID and gets what it missed replayed
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'CABINET_MAKER', 'INSTALLER')") // Allows access to all listed roles
+    public SseEmitter streamJobChanges(@AuthenticationPrincipal AuthenticatedUser user,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        String role = user.role().name(); // Role from the token (verified once, by the filter)
+        Long userId = user.id(); // User ID from the token
+        return jobStreamService.subscribe(role, userId, lastEventId); // Changes visible to this user
+    }
+
+    // Endpoint to get a single job, with the same visibility rules and ETag handling as the list
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CABINET_MAKER', 'INSTALLER')") // Allows access to all listed roles
+    public ResponseEntity<JobResponse> getJob(@PathVariable Long jobId, @AuthenticationPrincipal AuthenticatedUser user,
+            WebRequest webRequest) {
+        String role = user.role().name(); // Role from the token (verified once, by the filter)
+        Long userId = user.id(); // User ID from the token
+
+        String etag = jobVersionService.jobEtag(jobId); // Taken before loading, a write in between only costs a refetch
+        String unchanged = JobVersionService.unchangedTag(etag, webRequest.getHeader(HttpHeaders.IF_NONE_MATCH));
+        if (unchanged != null) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(unchanged).cacheControl(REVALIDATE).build();
+        }
+
+        try {
+            JobResponse response = jobService.getJob(jobId, role, userId); // Calls service to load the job
+            return ResponseEntity.ok().eTag(JobVersionService.withVersion(etag, response.getVersion())) // Also the If-Match value
+                    .cacheControl(REVALIDATE).body(response);
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build(); // Returns 404 if job not found
+        }
     }
 
     // INSTALLER ENDPOINTS
 
     // Endpoint to update the status of a job, accessible by all listed roles
+    // Send If-Match with the job's version (or its ETag) to make the update conditional (412 if someone changed it first)
     @PatchMapping("/{jobId}/status")
     @PreAuthorize("hasAnyRole('ADMIN', 'CABINET_MAKER', 'INSTALLER')") // Allows access to all listed roles
     public ResponseEntity<JobResponse> updateJobStatus(
             @PathVariable Long jobId,
             @RequestParam String status,
             @RequestParam String materialOrderStatus,
-            @RequestParam String materialArrivalStatus) {
+            @RequestParam String materialArrivalStatus,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
         try {
             JobResponse response = jobService.updateJobStatus(jobId, status, materialOrderStatus,
-                    materialArrivalStatus); // Calls service to update job status
+                    materialArrivalStatus, parseIfMatch(ifMatch)); // Calls service to update job status
             return ResponseEntity.ok(response); // Returns updated job response
+        } catch (VersionConflictException | ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build(); // Returns 412 if the version is outdated
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new JobResponse(e.getMessage())); // Returns error message
         }
     }
 
     // Endpoint to upload an image to a job, accessible by all listed roles
+    // The image is added to the job's photos and becomes the cover; earlier photos are kept
     @PostMapping("/{jobId}/uploadImage")
     @PreAuthorize("hasAnyRole('ADMIN', 'CABINET_MAKER', 'INSTALLER')") // Allows access to all listed roles
-    public ResponseEntity<JobResponse> uploadJobImage(@PathVariable Long jobId, @RequestBody JobImageRequest request) {
+    public ResponseEntity<JobResponse> uploadJobImage(@PathVariable Long jobId, @RequestBody JobImageRequest request,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            JobResponse response = jobService.updateJobImage(jobId, request.getImageUrl()); // Calls service to update image
+            JobResponse response = jobService.updateJobImage(jobId, request.getImageUrl(), parseIfMatch(ifMatch),
+                    user.id()); // Calls service to add the image
             return ResponseEntity.ok(response); // Returns success response
+        } catch (VersionConflictException | ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build(); // Returns 412 if the version is outdated
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new JobResponse(e.getMessage())); // Returns error message
+        }
+    }
+
+    // Endpoint to upload several photos to a job in one request (multipart, one or more "files" parts).
+    // The photos are stored in parallel and attached in one transaction; the last one becomes the cover.
+    @PostMapping(value = "/{jobId}/images", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'CABINET_MAKER', 'INSTALLER')") // Allows access to all listed roles
+    public ResponseEntity<JobResponse> uploadJobImages(@PathVariable Long jobId,
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            Long expectedVersion = parseIfMatch(ifMatch);
+            List<String> fileNames = parallelUploadService.storeAll(files); // Stores the files side by side
+            return ResponseEntity.ok(jobService.attachImages(jobId, fileNames, expectedVersion, user.id()));
+        } catch (VersionConflictException | ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build(); // Returns 412 if the version is outdated
+        } catch (NotFoundException e) {
+            return ResponseEntity.notFound().build(); // Returns 404 if job not found
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new JobResponse(e.getMessage())); // Returns error message
         }
     }
 
+    // Endpoint to list a job's photos, newest first, one page at a time (cursor: nextCursor from the previous page)
+    @GetMapping("/{jobId}/images")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CABINET_MAKER', 'INSTALLER')") // Allows access to all listed roles
+    public ResponseEntity<JobImagePageResponse> getJobImages(@PathVariable Long jobId,
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(jobService.getJobImages(jobId, user.role().name(), user.id(), cursor, limit));
+        } catch (InvalidRequestException e) {
+            return ResponseEntity.badRequest().build(); // Returns 400 for an invalid cursor
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build(); // Returns 404 if job not found
+        }
+    }
+
+    // Endpoint to remove a photo from a job, by an admin or the user who attached it
+    @DeleteMapping("/{jobId}/images/{imageId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CABINET_MAKER', 'INSTALLER')") // Allows access to all listed roles
+    public ResponseEntity<JobResponse> deleteJobImage(@PathVariable Long jobId, @PathVariable Long imageId,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            return ResponseEntity.ok(jobService.deleteJobImage(jobId, imageId, user.role().name(), user.id()));
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build(); // Returns 403 for someone else's photo
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build(); // The job changed meanwhile, retry
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build(); // Returns 404 if the job or photo is not found
+        }
+    }
+
+    // Endpoint to apply a queue of status / material / image changes in one request and one transaction
+    // Body: [{jobId, expectedVersion, type: STATUS|IMAGE, status, materialOrderStatus, materialArrivalStatus, imageUrl}]
+    // Returns one result per mutation (OK, CONFLICT, NOT_FOUND or INVALID) in the same order
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CABINET_MAKER', 'INSTALLER')") // Allows access to all listed roles
+    public ResponseEntity<List<JobMutationResult>> applyMutations(@RequestBody List<JobMutationRequest> mutations,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            return ResponseEntity.ok(jobService.applyMutations(mutations, user.id())); // Calls service to apply the queue
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build(); // A job changed while the batch ran, retry it
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build(); // Returns 400 for an empty or oversized batch
+        }
+    }
+
     // Endpoint to filter jobs based on query parameters, accessible by all listed roles
+    // Filters: status, installerId, cabinetMakerId, installerName, materialOrderStatus, materialArrivalStatus,
+    // office, dueFrom and dueTo (yyyy-MM-dd). Paging works the same way as GET /api/jobs.
     @GetMapping("/filter")
     @PreAuthorize("hasAnyRole('ADMIN', 'CABINET_MAKER', 'INSTALLER')") // Allows access to all listed roles
-    public ResponseEntity<List<JobResponse>> filterJobs(
-            @RequestParam(required = false) String status,
-            @RequestParam(required = false) Long installerId,
-            @RequestParam(required = false) String materialOrderStatus,
-            @RequestParam(required = false) String materialArrivalStatus,
-            @RequestParam(required = false) String office) {
-        return ResponseEntity
-                .ok(jobService.filterJobs(status, installerId, materialOrderStatus, materialArrivalStatus, office)); // Calls service to filter jobs
-    }
-}
\ No newline at end of file
+    public ResponseEntity<JobPageResponse> filterJobs(HttpServletRequest httpServletRequest, WebRequest webRequest,
+            JobFilterRequest filter,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        // Filtering is not scoped to the caller, so it shares the all-jobs version
+        String etag = jobVersionService.listEtag("ADMIN", null, httpServletRequest.getQueryString());
+        if (webRequest.checkNotModified(etag)) {
+            return null; // 304 Not Modified
+        }
+
+        try {
+            JobPageResponse jobs = jobService.filterJobs(filter, sort, direction, cursor, limit); // Calls service to filter jobs
+            return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(jobs);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build(); // Returns 400 for an invalid sort or cursor
+        }
+    }
+
+    // Reads the expected job version from an If-Match header: the version ("3", 3 or W/"3") or the ETag of
+    // GET /api/jobs/{jobId}; null or * means unconditional
+    private static Long parseIfMatch(String ifMatch) throws InvalidRequestException {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        Long version = JobVersionService.versionOf(ifMatch);
+        if (version == null) {
+            throw new InvalidRequestException("If-Match must be the job version or its ETag");
+        }
+        return version;
+    }
+}
@@ -2,10 +2,16 @@ package com.kitchensaver.backend.Controller;
 
 import com.kitchensaver.backend.DTO.CreateEmployeeRequest;
 import com.kitchensaver.backend.DTO.LoginRequest;
+import com.kitchensaver.backend.DTO.PasswordHashingStats;
 import com.kitchensaver.backend.DTO.UserRequest;
 import com.kitchensaver.backend.DTO.UserResponse;
+import com.kitchensaver.backend.Exceptions.TooManyRequestsException;
 import com.kitchensaver.backend.Repo.UserRepo;
+import com.kitchensaver.backend.Service.PasswordHashingService;
+import com.kitchensaver.backend.Service.TokenAuthenticationService.VerifiedToken;
+import com.kitchensaver.backend.Service.TokenRevocationService;
 import com.kitchensaver.backend.Service.UserService;
+import com.kitchensaver.backend.model.AuthenticatedUser;
 import com.kitchensaver.backend.model.Users;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,8 +20,12 @@ import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -26,11 +36,16 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/user") // All API requests with "/api/user" will be handled here
 public class UserController {
     private final UserService userService;
+    private final TokenRevocationService tokenRevocationService; // Logout (token revocation)
+    private final PasswordHashingService passwordHashingService; // Password hashing figures
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
     // Constructor-based dependency injection
-    public UserController(UserService userService, UserRepo userRepo, PasswordEncoder passwordEncoder) {
+    public UserController(UserService userService, UserRepo userRepo, PasswordEncoder passwordEncoder,
+            TokenRevocationService tokenRevocationService, PasswordHashingService passwordHashingService) {
         this.userService = userService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.passwordHashingService = passwordHashingService;
     }
 
     /**
@@ -53,18 +68,85 @@ public class UserController {
      * Handles user login.
      *
      * @param request Contains login credentials (email & password).
-     * @return Response containing login details (e.g., authentication token).
+     * @param httpServletRequest The HTTP request (the client address is used to throttle attempts).
+     * @return Response containing login details (e.g., authentication token), or 429 with Retry-After when throttled.
      */
     @PostMapping("/login") // Handles POST requests to "/api/user/login"
-    public ResponseEntity<UserResponse> loginUser(@RequestBody LoginRequest request) {
+    public ResponseEntity<UserResponse> loginUser(@RequestBody LoginRequest request,
+            HttpServletRequest httpServletRequest) {
         try {
-            UserResponse response = userService.loginUser(request);
+            UserResponse response = userService.loginUser(request, httpServletRequest.getRemoteAddr());
             return ResponseEntity.ok(response);
+        } catch (TooManyRequestsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(new UserResponse(e.getMessage(), ""));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new UserResponse(e.getMessage(), ""));
         }
     }
 
+    /**
+     * Logs out the token used for this request; it is refused from now on.
+     *
+     * @param authentication The current authentication (its credentials are the verified token).
+     * @return Response confirming the logout.
+     */
+    @PostMapping("/logout") // Handles POST requests to "/api/user/logout"
+    public ResponseEntity<String> logout(Authentication authentication) {
+        try {
+            VerifiedToken token = (VerifiedToken) authentication.getCredentials();
+            tokenRevocationService.revokeToken(token.jti(), token.user().id(), token.expiresAt());
+            return ResponseEntity.ok("Logged out successfully");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Logs out every token of the current user (all devices).
+     *
+     * @param user The signed-in user (from the verified token).
+     * @return Response confirming the logout.
+     */
+    @PostMapping("/logoutAll") // Handles POST requests to "/api/user/logoutAll"
+    public ResponseEntity<String> logoutAll(@AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            tokenRevocationService.revokeAllForUser(user.id());
+            return ResponseEntity.ok("Logged out on all devices");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Revokes every token a user holds (Admin only), e.g. for a lost device.
+     *
+     * @param userId ID of the user whose tokens are revoked.
+     * @return Response confirming the revocation.
+     */
+    @PostMapping("/revokeTokens/{userId}") // Handles POST requests to "/api/user/revokeTokens/{userId}"
+    @PreAuthorize("hasRole('ADMIN')") // Only ADMIN users can access this endpoint
+    public ResponseEntity<String> revokeTokens(@PathVariable Long userId) {
+        try {
+            tokenRevocationService.revokeAllForUser(userId);
+            return ResponseEntity.ok("Tokens revoked successfully");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Password hashing figures (Admin only): the calibrated BCrypt cost and the time each hash takes.
+     *
+     * @return The current password hashing statistics.
+     */
+    @GetMapping("/passwordHashing") // Handles GET requests to "/api/user/passwordHashing"
+    @PreAuthorize("hasRole('ADMIN')") // Only ADMIN users can access this endpoint
+    public ResponseEntity<PasswordHashingStats> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHashingService.getStats());
+    }
+
     /**
      * Handles employee creation (Admin only).
      *
@@ -119,14 +201,14 @@ public class UserController {
      * Updates the profile of the currently logged-in user.
      *
      * @param request             Contains updated user details.
-     * @param httpServletRequest  The HTTP request containing authentication details.
+     * @param user                The signed-in user (from the verified token).
      * @return Response with updated profile information.
      */
     @PatchMapping("/updateProfile") // Handles PATCH requests to "/api/user/updateProfile"
     public ResponseEntity<UserResponse> updateProfile(@RequestBody UserRequest request,
-            HttpServletRequest httpServletRequest) {
+            @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            UserResponse response = userService.updateProfile(request, httpServletRequest);
+            UserResponse response = userService.updateProfile(request, user.email());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(new UserResponse(e.getMessage(), ""));
@@ -155,12 +237,12 @@ public class UserController {
     /**
      * Retrieves details of the currently logged-in user.
      *
-     * @param httpServletRequest The HTTP request containing authentication details.
+     * @param user The signed-in user (from the verified token).
      * @return Response with user details.
      */
     @GetMapping("/getSelf") // Handles GET requests to "/api/user/getSelf"
-    public ResponseEntity<UserResponse> getSelf(HttpServletRequest httpServletRequest) {
-        String email = userService.getEmailFromToken(httpServletRequest);
+    public ResponseEntity<UserResponse> getSelf(@AuthenticationPrincipal AuthenticatedUser user) {
+        String email = user.email();
         try {
             UserResponse response = userService.getSelf(email);
             return ResponseEntity.ok(response);
@@ -0,0 +1,96 @@
+package com.kitchensaver.backend.DTO;
+
+// Image cache figures for GET /api/imageCache: how full the off-heap cache is and how often it answers
+public class ImageCacheStats {
+    private long maxBytes; // Bytes the cache may hold
+    private long bytes; // Bytes held now (outside the Java heap)
+    private int entries; // Files held now
+    private long hits; // Requests answered from memory
+    private long misses; // Requests that went to disk
+    private double hitRate; // hits / (hits + misses), 0 before the first request
+    private long evictions; // Files dropped to make room for more popular ones
+    private long rejections; // Files not cached because everything they would displace is used more
+
+    // No-argument constructor
+    public ImageCacheStats() {
+    }
+
+    // Constructor with all figures
+    public ImageCacheStats(long maxBytes, long bytes, int entries, long hits, long misses, long evictions,
+            long rejections) {
+        this.maxBytes = maxBytes;
+        this.bytes = bytes;
+        this.entries = entries;
+        this.hits = hits;
+        this.misses = misses;
+        this.hitRate = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        this.evictions = evictions;
+        this.rejections = rejections;
+    }
+
+    // Getters
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getRejections() {
+        return rejections;
+    }
+
+    // Setters
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public void setEntries(int entries) {
+        this.entries = entries;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public void setHitRate(double hitRate) {
+        this.hitRate = hitRate;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    public void setRejections(long rejections) {
+        this.rejections = rejections;
+    }
+}
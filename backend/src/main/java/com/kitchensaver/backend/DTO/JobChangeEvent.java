@@ -0,0 +1,36 @@
+package com.kitchensaver.backend.DTO;
+
+// Compact payload pushed on the job stream. The SSE event id is the change token,
+// so a client can pull the full rows with GET /api/jobs/changes?since=<token> when it needs them.
+public class JobChangeEvent {
+    private Long jobId; // Job that changed
+    private String type; // UPSERT or DELETE
+
+    // No-argument constructor
+    public JobChangeEvent() {
+    }
+
+    // Constructor to initialize all fields
+    public JobChangeEvent(Long jobId, String type) {
+        this.jobId = jobId;
+        this.type = type;
+    }
+
+    // Getters
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    // Setters
+    public void setJobId(Long jobId) {
+        this.jobId = jobId;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+}
@@ -0,0 +1,62 @@
+package com.kitchensaver.backend.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// Response of GET /api/jobs/changes: what changed since the client's token.
+// Empty lists are left out, so an up-to-date client only receives the token.
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class JobChangesResponse {
+    private String token; // Token to send as "since" on the next call
+    private boolean hasMore; // True if more changes are waiting, call again right away
+    private List<JobResponse> upserted; // Jobs created or updated since the old token (current state)
+    private List<Long> deleted; // Ids of jobs deleted (or no longer visible) since the old token
+
+    // No-argument constructor
+    public JobChangesResponse() {
+    }
+
+    // Constructor to initialize all fields
+    public JobChangesResponse(String token, boolean hasMore, List<JobResponse> upserted, List<Long> deleted) {
+        this.token = token;
+        this.hasMore = hasMore;
+        this.upserted = upserted;
+        this.deleted = deleted;
+    }
+
+    // Getters
+    public String getToken() {
+        return token;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public List<JobResponse> getUpserted() {
+        return upserted;
+    }
+
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+
+    // Setters
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public void setUpserted(List<JobResponse> upserted) {
+        this.upserted = upserted;
+    }
+
+    public void setDeleted(List<Long> deleted) {
+        this.deleted = deleted;
+    }
+}
@@ -0,0 +1,96 @@
+package com.kitchensaver.backend.DTO;
+
+import java.util.Date;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+// Query parameters accepted by GET /api/jobs/filter. Every field is optional, only supplied ones are applied.
+public class JobFilterRequest {
+    private String status; // Exact job status
+    private Long installerId; // Installer assigned to the job
+    private Long cabinetMakerId; // Cabinet maker assigned to the job
+    private String installerName; // Part of the installer's full name (case-insensitive)
+    private String materialOrderStatus; // Exact material order status
+    private String materialArrivalStatus; // Exact material arrival status
+    private String office; // Exact office
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private Date dueFrom; // First due date to include (yyyy-MM-dd)
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private Date dueTo; // Last due date to include (yyyy-MM-dd, the whole day counts)
+
+    // Getters
+    public String getStatus() {
+        return status;
+    }
+
+    public Long getInstallerId() {
+        return installerId;
+    }
+
+    public Long getCabinetMakerId() {
+        return cabinetMakerId;
+    }
+
+    public String getInstallerName() {
+        return installerName;
+    }
+
+    public String getMaterialOrderStatus() {
+        return materialOrderStatus;
+    }
+
+    public String getMaterialArrivalStatus() {
+        return materialArrivalStatus;
+    }
+
+    public String getOffice() {
+        return office;
+    }
+
+    public Date getDueFrom() {
+        return dueFrom;
+    }
+
+    public Date getDueTo() {
+        return dueTo;
+    }
+
+    // Setters
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public void setInstallerId(Long installerId) {
+        this.installerId = installerId;
+    }
+
+    public void setCabinetMakerId(Long cabinetMakerId) {
+        this.cabinetMakerId = cabinetMakerId;
+    }
+
+    public void setInstallerName(String installerName) {
+        this.installerName = installerName;
+    }
+
+    public void setMaterialOrderStatus(String materialOrderStatus) {
+        this.materialOrderStatus = materialOrderStatus;
+    }
+
+    public void setMaterialArrivalStatus(String materialArrivalStatus) {
+        this.materialArrivalStatus = materialArrivalStatus;
+    }
+
+    public void setOffice(String office) {
+        this.office = office;
+    }
+
+    public void setDueFrom(Date dueFrom) {
+        this.dueFrom = dueFrom;
+    }
+
+    public void setDueTo(Date dueTo) {
+        this.dueTo = dueTo;
+    }
+}
@@ -0,0 +1,37 @@
+package com.kitchensaver.backend.DTO;
+
+import java.util.List;
+
+// One page of a job's photos (newest first) plus the cursor that fetches the next page
+public class JobImagePageResponse {
+    private List<JobImageResponse> images; // Photos on this page
+    private String nextCursor; // Token for the next page, null when this is the last page
+
+    // No-argument constructor
+    public JobImagePageResponse() {
+    }
+
+    // Constructor to initialize all fields
+    public JobImagePageResponse(List<JobImageResponse> images, String nextCursor) {
+        this.images = images;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<JobImageResponse> getImages() {
+        return images;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    // Setters
+    public void setImages(List<JobImageResponse> images) {
+        this.images = images;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,88 @@
+package com.kitchensaver.backend.DTO;
+
+import java.util.Date;
+
+// One photo of a job in GET /api/jobs/{jobId}/images
+public class JobImageResponse {
+    private Long id; // Photo id, used to delete it
+    private Long jobId; // Job the photo belongs to
+    private String image; // Short-lived signed URL of the file
+    private Long uploadedBy; // User who attached it (null for photos from before the history)
+    private Date uploadedAt; // When it was attached
+    private Integer width; // Pixels, null if unknown
+    private Integer height;
+
+    // No-argument constructor
+    public JobImageResponse() {
+    }
+
+    // Constructor with all fields
+    public JobImageResponse(Long id, Long jobId, String image, Long uploadedBy, Date uploadedAt, Integer width,
+            Integer height) {
+        this.id = id;
+        this.jobId = jobId;
+        this.image = image;
+        this.uploadedBy = uploadedBy;
+        this.uploadedAt = uploadedAt;
+        this.width = width;
+        this.height = height;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public String getImage() {
+        return image;
+    }
+
+    public Long getUploadedBy() {
+        return uploadedBy;
+    }
+
+    public Date getUploadedAt() {
+        return uploadedAt;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+
+    // Setters
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public void setJobId(Long jobId) {
+        this.jobId = jobId;
+    }
+
+    public void setImage(String image) {
+        this.image = image;
+    }
+
+    public void setUploadedBy(Long uploadedBy) {
+        this.uploadedBy = uploadedBy;
+    }
+
+    public void setUploadedAt(Date uploadedAt) {
+        this.uploadedAt = uploadedAt;
+    }
+
+    public void setWidth(Integer width) {
+        this.width = width;
+    }
+
+    public void setHeight(Integer height) {
+        this.height = height;
+    }
+}
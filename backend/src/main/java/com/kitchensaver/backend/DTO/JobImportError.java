@@ -0,0 +1,58 @@
+package com.kitchensaver.backend.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One row of a POST /api/jobs/import that was not imported
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobImportError {
+    private int row; // Data row in the import (the CSV header and empty lines are not counted)
+    private String jobNumber; // Job number on the row, if it could be read
+    private String result; // DUPLICATE or INVALID
+    private String message; // Why the row was skipped
+
+    // No-argument constructor
+    public JobImportError() {
+    }
+
+    // Constructor for a skipped row
+    public JobImportError(int row, String jobNumber, String result, String message) {
+        this.row = row;
+        this.jobNumber = jobNumber;
+        this.result = result;
+        this.message = message;
+    }
+
+    // Getters
+    public int getRow() {
+        return row;
+    }
+
+    public String getJobNumber() {
+        return jobNumber;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    // Setters
+    public void setRow(int row) {
+        this.row = row;
+    }
+
+    public void setJobNumber(String jobNumber) {
+        this.jobNumber = jobNumber;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
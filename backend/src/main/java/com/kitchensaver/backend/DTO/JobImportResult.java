@@ -0,0 +1,43 @@
+package com.kitchensaver.backend.DTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Response of POST /api/jobs/import: how many jobs were created and which rows were skipped
+public class JobImportResult {
+    private int imported; // Jobs created
+    private int failed; // Rows skipped (listed in errors)
+    private List<JobImportError> errors = new ArrayList<>(); // Skipped rows in input order
+
+    // Records a skipped row
+    public void addError(JobImportError error) {
+        errors.add(error);
+        failed++;
+    }
+
+    // Getters
+    public int getImported() {
+        return imported;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<JobImportError> getErrors() {
+        return errors;
+    }
+
+    // Setters
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public void setErrors(List<JobImportError> errors) {
+        this.errors = errors;
+    }
+}
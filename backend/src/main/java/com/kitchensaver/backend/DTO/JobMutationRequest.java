@@ -0,0 +1,70 @@
+package com.kitchensaver.backend.DTO;
+
+// One queued change in a POST /api/jobs/batch request
+public class JobMutationRequest {
+    private Long jobId; // Job to change
+    private Long expectedVersion; // Version the change was made against (optional, like If-Match)
+    private String type; // STATUS or IMAGE
+    private String status; // New job status (STATUS, optional)
+    private String materialOrderStatus; // New material order status (STATUS, optional)
+    private String materialArrivalStatus; // New material arrival status (STATUS, optional)
+    private String imageUrl; // New image (IMAGE)
+
+    // Getters
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getMaterialOrderStatus() {
+        return materialOrderStatus;
+    }
+
+    public String getMaterialArrivalStatus() {
+        return materialArrivalStatus;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    // Setters
+    public void setJobId(Long jobId) {
+        this.jobId = jobId;
+    }
+
+    public void setExpectedVersion(Long expectedVersion) {
+        this.expectedVersion = expectedVersion;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public void setMaterialOrderStatus(String materialOrderStatus) {
+        this.materialOrderStatus = materialOrderStatus;
+    }
+
+    public void setMaterialArrivalStatus(String materialArrivalStatus) {
+        this.materialArrivalStatus = materialArrivalStatus;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+}
@@ -0,0 +1,76 @@
+package com.kitchensaver.backend.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Outcome of one mutation in a POST /api/jobs/batch request (same order as the request)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobMutationResult {
+    private int index; // Position of the mutation in the request
+    private Long jobId; // Job the mutation targeted
+    private String result; // OK, CONFLICT, NOT_FOUND or INVALID
+    private String message; // Why the mutation was not applied
+    private Long currentVersion; // Current version of the job on CONFLICT
+    private JobResponse job; // Job after the batch on OK
+
+    // No-argument constructor
+    public JobMutationResult() {
+    }
+
+    // Constructor for the outcome of one mutation
+    public JobMutationResult(int index, Long jobId, String result, String message) {
+        this.index = index;
+        this.jobId = jobId;
+        this.result = result;
+        this.message = message;
+    }
+
+    // Getters
+    public int getIndex() {
+        return index;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+
+    public JobResponse getJob() {
+        return job;
+    }
+
+    // Setters
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public void setJobId(Long jobId) {
+        this.jobId = jobId;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public void setCurrentVersion(Long currentVersion) {
+        this.currentVersion = currentVersion;
+    }
+
+    public void setJob(JobResponse job) {
+        this.job = job;
+    }
+}
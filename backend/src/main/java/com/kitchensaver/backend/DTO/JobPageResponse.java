@@ -0,0 +1,37 @@
+package com.kitchensaver.backend.DTO;
+
+import java.util.List;
+
+// One page of jobs plus the cursor that fetches the next page
+public class JobPageResponse {
+    private List<JobResponse> jobs; // Jobs on this page
+    private String nextCursor; // Token for the next page, null when this is the last page
+
+    // No-argument constructor
+    public JobPageResponse() {
+    }
+
+    // Constructor to initialize all fields
+    public JobPageResponse(List<JobResponse> jobs, String nextCursor) {
+        this.jobs = jobs;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<JobResponse> getJobs() {
+        return jobs;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    // Setters
+    public void setJobs(List<JobResponse> jobs) {
+        this.jobs = jobs;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -5,6 +5,7 @@ import java.util.Date;
 public class JobResponse {
     // Fields to store job details
     private Long id;  // Unique identifier for the job
+    private Long version;  // Version of the job, send it back in If-Match when updating
     private String jobNumber;  // Job number
     private String jobName;  // Name of the job
     private String status;  // Current status of the job
@@ -21,6 +22,7 @@ public class JobResponse {
     private String office;  // Office location or department associated with the job
     private String jobColor;  // Color scheme for the job
     private String image;  // Image related to the job (could be a link to the image)
+    private Integer imageCount;  // Number of photos of the job (GET /api/jobs/{id}/images), null in exports
 
     // No-argument constructor
     public JobResponse() {
@@ -60,6 +62,10 @@ public class JobResponse {
         return id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public String getJobNumber() {
         return jobNumber;
     }
@@ -124,11 +130,19 @@ public class JobResponse {
         return image;
     }
 
+    public Integer getImageCount() {
+        return imageCount;
+    }
+
     // Setters for each field to set the values
     public void setId(Long id) {
         this.id = id;
     }
 
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public void setJobNumber(String jobNumber) {
         this.jobNumber = jobNumber;
     }
@@ -193,4 +207,8 @@ public class JobResponse {
         this.image = image;
     }
 
+    public void setImageCount(Integer imageCount) {
+        this.imageCount = imageCount;
+    }
+
 }
@@ -0,0 +1,76 @@
+package com.kitchensaver.backend.DTO;
+
+// Password hashing figures for GET /api/user/passwordHashing: the BCrypt cost in use and what it costs per login
+public class PasswordHashingStats {
+    private int strength; // BCrypt cost (work factor) in use
+    private double calibratedMillis; // Time of one hash measured at startup
+    private long hashes; // Hashes and checks done since startup
+    private double averageMillis; // Their average time, including contention with other requests
+    private int queued; // Hashes waiting for a thread now
+    private int active; // Hashes running now
+
+    // No-argument constructor
+    public PasswordHashingStats() {
+    }
+
+    // Constructor with all figures
+    public PasswordHashingStats(int strength, double calibratedMillis, long hashes, double averageMillis, int queued,
+            int active) {
+        this.strength = strength;
+        this.calibratedMillis = calibratedMillis;
+        this.hashes = hashes;
+        this.averageMillis = averageMillis;
+        this.queued = queued;
+        this.active = active;
+    }
+
+    // Getters
+    public int getStrength() {
+        return strength;
+    }
+
+    public double getCalibratedMillis() {
+        return calibratedMillis;
+    }
+
+    public long getHashes() {
+        return hashes;
+    }
+
+    public double getAverageMillis() {
+        return averageMillis;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    // Setters
+    public void setStrength(int strength) {
+        this.strength = strength;
+    }
+
+    public void setCalibratedMillis(double calibratedMillis) {
+        this.calibratedMillis = calibratedMillis;
+    }
+
+    public void setHashes(long hashes) {
+        this.hashes = hashes;
+    }
+
+    public void setAverageMillis(double averageMillis) {
+        this.averageMillis = averageMillis;
+    }
+
+    public void setQueued(int queued) {
+        this.queued = queued;
+    }
+
+    public void setActive(int active) {
+        this.active = active;
+    }
+}
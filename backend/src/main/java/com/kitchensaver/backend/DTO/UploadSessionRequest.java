@@ -0,0 +1,34 @@
+package com.kitchensaver.backend.DTO;
+
+// Body of POST /api/uploads: the file about to be sent in chunks
+public class UploadSessionRequest {
+    private String fileName; // Original file name (its extension is kept)
+    private Long size; // Total bytes
+    private Integer chunkSize; // Preferred bytes per chunk (optional, the server may adjust it)
+
+    // Getters
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    // Setters
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public void setChunkSize(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+}
@@ -0,0 +1,79 @@
+package com.kitchensaver.backend.DTO;
+
+import java.util.List;
+
+// State of a chunked upload: chunk i covers bytes [i * chunkSize, min(size, (i + 1) * chunkSize)).
+// A client that lost its connection asks for this and sends only the missing chunks.
+public class UploadSessionResponse {
+    private String uploadId; // Session id used in the chunk URLs
+    private String fileName; // Original file name
+    private long size; // Total bytes
+    private int chunkSize; // Bytes per chunk (the last one may be shorter)
+    private int chunkCount; // Number of chunks
+    private List<Integer> missingChunks; // Chunks not received (or failed their checksum) yet
+
+    // No-argument constructor
+    public UploadSessionResponse() {
+    }
+
+    // Constructor to initialize all fields
+    public UploadSessionResponse(String uploadId, String fileName, long size, int chunkSize, int chunkCount,
+            List<Integer> missingChunks) {
+        this.uploadId = uploadId;
+        this.fileName = fileName;
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.chunkCount = chunkCount;
+        this.missingChunks = missingChunks;
+    }
+
+    // Getters
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public List<Integer> getMissingChunks() {
+        return missingChunks;
+    }
+
+    // Setters
+    public void setUploadId(String uploadId) {
+        this.uploadId = uploadId;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public void setChunkCount(int chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+
+    public void setMissingChunks(List<Integer> missingChunks) {
+        this.missingChunks = missingChunks;
+    }
+}
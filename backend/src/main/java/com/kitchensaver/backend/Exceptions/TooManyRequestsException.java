@@ -0,0 +1,16 @@
+package com.kitchensaver.backend.Exceptions; // Package declaration for exceptions
+
+// Custom exception class for requests refused because of rate limits or overload (HTTP 429)
+public class TooManyRequestsException extends Exception {
+    private final long retryAfterSeconds; // How long the client should wait before trying again
+
+    // Constructor that takes a message and the suggested wait time
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message); // Call the superclass constructor with the provided message
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
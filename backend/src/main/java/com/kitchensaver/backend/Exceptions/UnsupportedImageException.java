@@ -0,0 +1,13 @@
+package com.kitchensaver.backend.Exceptions; // Package for exception handling
+
+import java.io.IOException;
+
+// Custom exception class for files that no image decoder can read (not an image, a format ImageIO lacks, or
+// damaged data). Unlike other IOExceptions it is permanent: trying the same file again gives the same result.
+public class UnsupportedImageException extends IOException {
+
+    // Constructor that takes a message and passes it to the parent IOException class
+    public UnsupportedImageException(String message) {
+        super(message); // Call the parent constructor with the provided message
+    }
+}
@@ -0,0 +1,10 @@
+package com.kitchensaver.backend.Exceptions; // Package declaration for exceptions
+
+// Custom exception class for writes based on an outdated version of a record (answered with 412)
+public class VersionConflictException extends Exception {
+    
+    // Constructor that takes a message as a parameter and passes it to the superclass (Exception)
+    public VersionConflictException(String message) {
+        super(message); // Call the superclass constructor with the provided message
+    }
+}
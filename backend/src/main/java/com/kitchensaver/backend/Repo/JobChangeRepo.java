@@ -0,0 +1,24 @@
+package com.kitchensaver.backend.Repo;
+
+import com.kitchensaver.backend.model.JobChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+// Repository for the job change log used by the delta-sync endpoint
+public interface JobChangeRepo extends JpaRepository<JobChange, Long> {
+
+    // Method to find the newest change (JobChangeWatermark starts from its id)
+    Optional<JobChange> findTopByOrderByIdDesc();
+
+    // Method to find changes in an id range (token + 1 up to the watermark), for admins who see every job
+    List<JobChange> findByIdBetweenOrderByIdAsc(Long from, Long to, Limit limit);
+
+    // Method to find changes in an id range that concern a specific installer
+    List<JobChange> findByIdBetweenAndInstallerIdOrderByIdAsc(Long from, Long to, Long installerId, Limit limit);
+
+    // Method to find changes in an id range that concern a specific cabinet maker
+    List<JobChange> findByIdBetweenAndCabinetMakerIdOrderByIdAsc(Long from, Long to, Long cabinetMakerId, Limit limit);
+}
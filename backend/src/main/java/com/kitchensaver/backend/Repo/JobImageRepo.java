@@ -0,0 +1,77 @@
+package com.kitchensaver.backend.Repo;
+
+import com.kitchensaver.backend.model.JobImage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Repository for the photos of each job.
+// Job lists never load image rows: they ask for the counts of a whole page in one grouped query.
+public interface JobImageRepo extends JpaRepository<JobImage, Long> {
+
+    // Number of photos of one job (projection row of countByJobIds)
+    interface JobImageCount {
+        Long getJobId();
+
+        long getCount();
+    }
+
+    // File name of one photo of a job (projection row of findFileNamesByJobIds)
+    interface JobImageFile {
+        Long getJobId();
+
+        String getFileName();
+    }
+
+    // Method to count the photos of every job on a page in one query
+    @Query("select i.job.id as jobId, count(i) as count from JobImage i where i.job.id in :jobIds group by i.job.id")
+    List<JobImageCount> countByJobIds(@Param("jobIds") Collection<Long> jobIds);
+
+    // Method to count the photos of one job
+    long countByJobId(Long jobId);
+
+    // Method to find the newest photos of a job (first page of the listing)
+    List<JobImage> findByJobIdOrderByIdDesc(Long jobId, Limit limit);
+
+    // Method to find the photos of a job older than the cursor (following pages)
+    List<JobImage> findByJobIdAndIdLessThanOrderByIdDesc(Long jobId, Long id, Limit limit);
+
+    // Method to find one photo of a job
+    Optional<JobImage> findByIdAndJobId(Long id, Long jobId);
+
+    // Method to check whether a file is already among a job's photos
+    Optional<JobImage> findFirstByJobIdAndFileName(Long jobId, String fileName);
+
+    // Method to find the file names of a job's photos (released when the job is deleted)
+    @Query("select i.fileName from JobImage i where i.job.id = :jobId")
+    List<String> findFileNamesByJobId(@Param("jobId") Long jobId);
+
+    // Method to find the file names of the photos of several jobs in one query (batch of queued photo changes)
+    @Query("select i.job.id as jobId, i.fileName as fileName from JobImage i where i.job.id in :jobIds")
+    List<JobImageFile> findFileNamesByJobIds(@Param("jobIds") Collection<Long> jobIds);
+
+    // Method to find every file name a job refers to: its photos, and its cover in case it has no row yet.
+    // Distinct names straight from the file_name index, for OrphanFileCollector.
+    @Query("select i.fileName from JobImage i union select j.image from Job j where j.image is not null")
+    List<String> findAllReferencedFileNames();
+
+    // Method to delete all photos of a job in one statement
+    @Modifying
+    @Query("delete from JobImage i where i.job.id = :jobId")
+    int deleteByJobId(@Param("jobId") Long jobId);
+
+    // Method to give every job whose cover was set before photo history existed a history row for it.
+    // The row takes over the reference the cover already holds on the file.
+    @Modifying
+    @Transactional
+    @Query("insert into JobImage (job, fileName, uploadedAt) select j, j.image, current_timestamp from Job j"
+            + " where j.image is not null and not exists (select 1 from JobImage i where i.job = j)")
+    int backfillCovers();
+}
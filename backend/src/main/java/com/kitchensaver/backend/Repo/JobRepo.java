@@ -1,32 +1,66 @@
 package com.kitchensaver.backend.Repo;
 
 import com.kitchensaver.backend.model.Job;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 // JobRepo is an interface that extends JpaRepository to handle database operations for the Job entity
-public interface JobRepo extends JpaRepository<Job, Long> {
-    
+// JpaSpecificationExecutor lets the service build queries from JobSpecifications (filters and keyset paging)
+// Every list query loads the cabinet maker and installer in the same select (entity graph),
+// so mapping jobs to JobResponse never issues extra users selects
+public interface JobRepo extends JpaRepository<Job, Long>, JpaSpecificationExecutor<Job> {
+
+    // Method to find all jobs together with their cabinet maker and installer
+    @Override
+    @EntityGraph(attributePaths = { "cabinetMaker", "installer" })
+    List<Job> findAll();
+
+    // Method to find one job together with its cabinet maker and installer
+    @EntityGraph(attributePaths = { "cabinetMaker", "installer" })
+    Optional<Job> findWithUsersById(Long id);
+
+    // Method to find several jobs by id together with their users
+    @EntityGraph(attributePaths = { "cabinetMaker", "installer" })
+    List<Job> findByIdIn(Collection<Long> ids);
+
+    // Method to find several jobs by id together with their users and lock them until the transaction ends
+    // (SELECT ... FOR UPDATE). Locked in id order, so two batches touching the same jobs cannot deadlock.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(attributePaths = { "cabinetMaker", "installer" })
+    List<Job> findForUpdateByIdInOrderByIdAsc(Collection<Long> ids);
+
     // Method to find all jobs assigned to a specific cabinet maker using their ID
+    @EntityGraph(attributePaths = { "cabinetMaker", "installer" })
     List<Job> findByCabinetMakerId(Long id);
     
     // Method to find all jobs assigned to a specific installer using their ID
+    @EntityGraph(attributePaths = { "cabinetMaker", "installer" })
     List<Job> findByInstallerId(Long id);
-    
-    // Custom query method to filter jobs based on multiple optional criteria
-    @Query("SELECT j FROM Job j WHERE " +
-            "(:status IS NULL OR j.status = :status) AND " +
-            "(:installerId IS NULL OR j.installer.id = :installerId) AND " +
-            "(:materialOrderStatus IS NULL OR j.materialOrderStatus = :materialOrderStatus) AND " +
-            "(:materialArrivalStatus IS NULL OR j.materialArrivalStatus = :materialArrivalStatus) AND " +
-            "(:office IS NULL OR j.office = :office)")
-    List<Job> findByFilters(
-            @Param("status") String status, // Filters jobs by status if provided
-            @Param("installerId") Long installerId, // Filters jobs by installer ID if provided
-            @Param("materialOrderStatus") String materialOrderStatus, // Filters jobs by material order status if provided
-            @Param("materialArrivalStatus") String materialArrivalStatus, // Filters jobs by material arrival status if provided
-            @Param("office") String office // Filters jobs by office location if provided
-    );
+
+    // Method to read every job (with its users) as a stream, for exports.
+    // The fetch size makes the driver pull rows in blocks (MySQL needs useCursorFetch=true on the URL for this)
+    // instead of loading the whole result before the first row is returned. Must be consumed inside a transaction.
+    @Query("select j from Job j left join fetch j.cabinetMaker left join fetch j.installer order by j.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Job> streamAll();
+
+    // Method to find which of the given job numbers are already used (bulk import duplicate check)
+    @Query("select j.jobNumber from Job j where j.jobNumber in :jobNumbers")
+    Set<String> findExistingJobNumbers(@Param("jobNumbers") Collection<String> jobNumbers);
 }
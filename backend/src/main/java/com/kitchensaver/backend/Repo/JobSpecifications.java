@@ -0,0 +1,135 @@
+package com.kitchensaver.backend.Repo;
+
+import com.kitchensaver.backend.DTO.JobFilterRequest;
+import com.kitchensaver.backend.model.Job;
+import com.kitchensaver.backend.model.Users;
+import com.kitchensaver.backend.util.JobCursor;
+
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+// Reusable query pieces (Specifications) for the Job entity
+public final class JobSpecifications {
+
+    private JobSpecifications() {
+    }
+
+    // Loads the cabinet maker and installer in the same select as the jobs (no extra query per row).
+    // Count queries cannot fetch, so the joins are only added when jobs themselves are selected.
+    public static Specification<Job> fetchUsers() {
+        return (root, query, cb) -> {
+            if (query != null && Job.class.equals(query.getResultType())) {
+                root.fetch("cabinetMaker", JoinType.LEFT);
+                root.fetch("installer", JoinType.LEFT);
+            }
+            return null; // No filtering, only fetching
+        };
+    }
+
+    // Jobs assigned to a specific cabinet maker
+    public static Specification<Job> hasCabinetMaker(Long cabinetMakerId) {
+        return (root, query, cb) -> cb.equal(root.get("cabinetMaker").get("id"), cabinetMakerId);
+    }
+
+    // Jobs assigned to a specific installer
+    public static Specification<Job> hasInstaller(Long installerId) {
+        return (root, query, cb) -> cb.equal(root.get("installer").get("id"), installerId);
+    }
+
+    // Jobs matching the filter. Only the filters that were actually supplied become predicates,
+    // so MySQL sees a plain "a = ? AND b = ?" and can use the (office, status), (installer_id, status),
+    // (cabinet_maker_id, status) and due_date indexes declared on Job.
+    public static Specification<Job> matches(JobFilterRequest filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (hasText(filter.getOffice())) {
+                predicates.add(cb.equal(root.get("office"), filter.getOffice()));
+            }
+            if (hasText(filter.getStatus())) {
+                predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+            }
+            if (filter.getInstallerId() != null) {
+                predicates.add(cb.equal(root.get("installer").get("id"), filter.getInstallerId()));
+            }
+            if (filter.getCabinetMakerId() != null) {
+                predicates.add(cb.equal(root.get("cabinetMaker").get("id"), filter.getCabinetMakerId()));
+            }
+            if (hasText(filter.getMaterialOrderStatus())) {
+                predicates.add(cb.equal(root.get("materialOrderStatus"), filter.getMaterialOrderStatus()));
+            }
+            if (hasText(filter.getMaterialArrivalStatus())) {
+                predicates.add(cb.equal(root.get("materialArrivalStatus"), filter.getMaterialArrivalStatus()));
+            }
+            if (filter.getDueFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("dueDate"), filter.getDueFrom()));
+            }
+            if (filter.getDueTo() != null) {
+                // dueTo is a calendar day, so everything before the start of the next day matches
+                Date endExclusive = new Date(filter.getDueTo().getTime() + TimeUnit.DAYS.toMillis(1));
+                predicates.add(cb.lessThan(root.get("dueDate"), endExclusive));
+            }
+            if (hasText(filter.getInstallerName())) {
+                // Same match the dashboard used to do in the browser: case-insensitive "contains" on the full name
+                Join<Job, Users> installer = root.join("installer", JoinType.INNER);
+                Expression<String> fullName = cb.lower(
+                        cb.concat(cb.concat(installer.get("firstName"), " "), installer.get("lastName")));
+                predicates.add(cb.like(fullName, "%" + escapeLike(filter.getInstallerName().toLowerCase()) + "%", '\\'));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Sort used for keyset paging: the chosen key first, then id so the order is always stable
+    public static Sort keysetSort(String sortKey, boolean ascending) {
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        if ("id".equals(sortKey)) {
+            return Sort.by(direction, "id");
+        }
+        return Sort.by(direction, sortKey).and(Sort.by(direction, "id"));
+    }
+
+    // Jobs that come after the cursor in keysetSort order.
+    // NULL sort values are treated as the lowest values (MySQL orders them first ascending and last descending).
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static Specification<Job> after(JobCursor cursor) {
+        return (root, query, cb) -> {
+            boolean asc = cursor.isAscending();
+            Expression<Long> id = root.get("id");
+            Predicate idAfter = asc ? cb.greaterThan(id, cursor.getLastId()) : cb.lessThan(id, cursor.getLastId());
+            if ("id".equals(cursor.getSortKey())) {
+                return idAfter;
+            }
+
+            Expression<Comparable> key = root.get(cursor.getSortKey());
+            Comparable value = (Comparable) cursor.getLastValue();
+            if (value == null) {
+                // Still inside the NULL group, or (ascending only) past it into the non-null values
+                Predicate sameGroup = cb.and(cb.isNull(key), idAfter);
+                return asc ? cb.or(sameGroup, cb.isNotNull(key)) : sameGroup;
+            }
+
+            Predicate beyond = asc ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+            Predicate tie = cb.and(cb.equal(key, value), idAfter);
+            // Descending pages end with the NULL group
+            return asc ? cb.or(beyond, tie) : cb.or(beyond, tie, cb.isNull(key));
+        };
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    // Escapes LIKE wildcards so user input is matched literally
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,24 @@
+package com.kitchensaver.backend.Repo;
+
+import com.kitchensaver.backend.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+// Repository for tokens revoked by logout
+public interface RevokedTokenRepo extends JpaRepository<RevokedToken, String> {
+
+    // Method to find the revocations that still matter (loaded into memory at startup)
+    List<RevokedToken> findByExpiresAtAfter(Date now);
+
+    // Method to delete the revocations of tokens that have expired anyway
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedToken r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Date now);
+}
@@ -0,0 +1,41 @@
+package com.kitchensaver.backend.Repo;
+
+import com.kitchensaver.backend.model.StoredFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+// Repository for uploaded file contents and their reference counts.
+// Counts are changed with single UPDATE statements so concurrent requests never lose an increment.
+public interface StoredFileRepo extends JpaRepository<StoredFile, String> {
+
+    // Method to record another upload of existing content (returns 0 if the content is new)
+    @Modifying
+    @Transactional
+    @Query("update StoredFile f set f.lastUploadedAt = :now where f.name = :name")
+    int touch(@Param("name") String name, @Param("now") Date now);
+
+    // Method to add a reference (returns 0 for files stored before content addressing)
+    @Modifying
+    @Transactional
+    @Query("update StoredFile f set f.refCount = f.refCount + 1 where f.name = :name")
+    int incrementRefCount(@Param("name") String name);
+
+    // Method to drop a reference
+    @Modifying
+    @Transactional
+    @Query("update StoredFile f set f.refCount = f.refCount - 1 where f.name = :name and f.refCount > 0")
+    int decrementRefCount(@Param("name") String name);
+
+    // Method to delete the row of a file nobody uses and nobody uploaded since the cutoff (returns 1 if deleted).
+    // Runs in its own transaction, it is called after the job transaction that dropped the last reference has committed.
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("delete from StoredFile f where f.name = :name and f.refCount = 0 and f.lastUploadedAt < :cutoff")
+    int deleteIfUnreferenced(@Param("name") String name, @Param("cutoff") Date cutoff);
+}
@@ -0,0 +1,24 @@
+package com.kitchensaver.backend.Repo;
+
+import com.kitchensaver.backend.model.UserTokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+// Repository for "log out everywhere" revocations
+public interface UserTokenRevocationRepo extends JpaRepository<UserTokenRevocation, Long> {
+
+    // Method to find the revocations that still matter (loaded into memory at startup)
+    List<UserTokenRevocation> findByExpiresAtAfter(Date now);
+
+    // Method to delete the revocations whose tokens have all expired
+    @Modifying
+    @Transactional
+    @Query("delete from UserTokenRevocation r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Date now);
+}
@@ -0,0 +1,279 @@
+package com.kitchensaver.backend.Service;
+
+import com.kitchensaver.backend.DTO.UploadSessionRequest;
+import com.kitchensaver.backend.DTO.UploadSessionResponse;
+import com.kitchensaver.backend.Exceptions.InvalidRequestException;
+import com.kitchensaver.backend.Exceptions.NotFoundException;
+import com.kitchensaver.backend.Exceptions.TooManyRequestsException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// Resumable uploads for slow or flaky connections: the client opens a session, PUTs the file in chunks
+// (in any order, each with its SHA-256), asks which chunks are still missing after an interruption, and
+// completes the upload once everything has arrived. Chunks are written straight from the request body into a
+// sparse temporary file at their offset through a small buffer, so memory per upload stays the same whatever
+// the file size, and a retry only resends the chunks that did not make it.
+// Sessions live in memory and are dropped (with their data) when idle for upload.session.ttl-ms.
+@Service
+public class ChunkedUploadService {
+    private static final int BUFFER_SIZE = 64 * 1024; // Bytes copied per read, the only per-request allocation
+    private static final int MIN_CHUNK_SIZE = 256 * 1024; // Smaller chunks cost more requests than they save
+    private static final int MAX_CHUNK_SIZE = 8 * 1024 * 1024; // Larger chunks are expensive to resend on a bad network
+
+    // One upload in progress
+    private static final class Session {
+        private final String id;
+        private final Long userId; // Only the user who opened it may use it
+        private final String fileName;
+        private final long size;
+        private final int chunkSize;
+        private final int chunkCount;
+        private final Path data; // Sparse file the chunks are written into
+        private final BitSet received = new BitSet(); // Chunks written and verified (guarded by this)
+        private final BitSet writing = new BitSet(); // Chunks being written right now (guarded by this)
+        private volatile long lastUsed = System.currentTimeMillis();
+        private boolean closed; // Completed or aborted (guarded by this)
+
+        private Session(String id, Long userId, String fileName, long size, int chunkSize, Path data) {
+            this.id = id;
+            this.userId = userId;
+            this.fileName = fileName;
+            this.size = size;
+            this.chunkSize = chunkSize;
+            this.chunkCount = (int) ((size + chunkSize - 1) / chunkSize);
+            this.data = data;
+        }
+
+        private long chunkLength(int index) {
+            return Math.min(chunkSize, size - (long) index * chunkSize);
+        }
+    }
+
+    private final FileStorageService fileStorageService; // Temporary files and the final content-addressed store
+    private final long maxFileSize; // Largest file accepted
+    private final int defaultChunkSize; // Chunk size when the client has no preference
+    private final int maxSessionsPerUser; // Open sessions per user
+    private final long sessionTtlMillis; // Idle time after which a session is dropped
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>(); // Open sessions by id
+    private final Map<Long, Integer> openPerUser = new ConcurrentHashMap<>(); // Open sessions by user, counted atomically
+
+    // Constructor with the limits from application.properties
+    public ChunkedUploadService(FileStorageService fileStorageService,
+            @Value("${upload.max-file-size:104857600}") long maxFileSize,
+            @Value("${upload.chunk-size:1048576}") int defaultChunkSize,
+            @Value("${upload.max-sessions-per-user:10}") int maxSessionsPerUser,
+            @Value("${upload.session.ttl-ms:86400000}") long sessionTtlMillis) {
+        this.fileStorageService = fileStorageService;
+        this.maxFileSize = maxFileSize;
+        this.defaultChunkSize = defaultChunkSize;
+        this.maxSessionsPerUser = maxSessionsPerUser;
+        this.sessionTtlMillis = sessionTtlMillis;
+    }
+
+    // Opens an upload session and reserves its temporary file
+    public UploadSessionResponse start(UploadSessionRequest request, Long userId) throws Exception {
+        if (request.getFileName() == null || request.getFileName().isBlank()) {
+            throw new InvalidRequestException("File name is required!");
+        }
+        if (request.getSize() == null || request.getSize() <= 0) {
+            throw new InvalidRequestException("File size is required!");
+        }
+        if (request.getSize() > maxFileSize) {
+            throw new InvalidRequestException("File is larger than " + maxFileSize + " bytes!");
+        }
+        // Check and count in one step, so parallel starts cannot all pass the check before any is counted
+        boolean[] admitted = new boolean[1];
+        openPerUser.compute(userId, (id, open) -> {
+            int count = open == null ? 0 : open;
+            if (count >= maxSessionsPerUser) {
+                return open;
+            }
+            admitted[0] = true;
+            return count + 1;
+        });
+        if (!admitted[0]) {
+            throw new TooManyRequestsException("Too many uploads in progress!", 60);
+        }
+        int chunkSize = request.getChunkSize() == null ? defaultChunkSize
+                : Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, request.getChunkSize()));
+
+        Path data;
+        try {
+            data = fileStorageService.createTempFile();
+        } catch (IOException e) {
+            releaseSlot(userId);
+            throw e;
+        }
+        Session session = new Session(UUID.randomUUID().toString(), userId, request.getFileName(), request.getSize(),
+                chunkSize, data);
+        sessions.put(session.id, session);
+        return toResponse(session);
+    }
+
+    // Current state of a session (which chunks are still missing)
+    public UploadSessionResponse status(String uploadId, Long userId) throws Exception {
+        return toResponse(find(uploadId, userId));
+    }
+
+    // Writes one chunk at its offset. The body must have exactly the chunk's length and the given SHA-256 (hex);
+    // otherwise the chunk stays missing. Sending a chunk again is harmless.
+    public UploadSessionResponse writeChunk(String uploadId, Long userId, int index, String sha256Hex, InputStream body)
+            throws Exception {
+        Session session = find(uploadId, userId);
+        if (index < 0 || index >= session.chunkCount) {
+            throw new InvalidRequestException("Chunk index must be between 0 and " + (session.chunkCount - 1) + "!");
+        }
+        if (sha256Hex == null || sha256Hex.isBlank()) {
+            throw new InvalidRequestException("X-Chunk-SHA256 header is required!");
+        }
+        synchronized (session) {
+            if (session.closed) {
+                throw new NotFoundException("Upload not found");
+            }
+            if (session.writing.get(index)) {
+                throw new TooManyRequestsException("Chunk " + index + " is already being uploaded!", 1);
+            }
+            session.writing.set(index);
+            session.received.clear(index); // Being overwritten, not valid until verified again
+        }
+
+        boolean verified = false;
+        try {
+            long position = (long) index * session.chunkSize;
+            long expected = session.chunkLength(index);
+            MessageDigest digest = sha256();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long written = 0;
+            try (FileChannel channel = FileChannel.open(session.data, StandardOpenOption.WRITE)) {
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    if (written + read > expected) {
+                        throw new InvalidRequestException("Chunk " + index + " must be " + expected + " bytes!");
+                    }
+                    digest.update(buffer, 0, read);
+                    ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                    while (bytes.hasRemaining()) {
+                        written += channel.write(bytes, position + written); // Positional write, no shared file pointer
+                    }
+                }
+            }
+            if (written != expected) {
+                throw new InvalidRequestException("Chunk " + index + " must be " + expected + " bytes!");
+            }
+            if (!HexFormat.of().formatHex(digest.digest()).equalsIgnoreCase(sha256Hex.trim())) {
+                throw new InvalidRequestException("Chunk " + index + " does not match its checksum!");
+            }
+            verified = true;
+        } finally {
+            synchronized (session) {
+                session.writing.clear(index);
+                if (verified) {
+                    session.received.set(index);
+                }
+            }
+            session.lastUsed = System.currentTimeMillis();
+        }
+        return toResponse(session);
+    }
+
+    // Stores the assembled file once every chunk has arrived and returns its stored name (as POST /api/upload does)
+    public String complete(String uploadId, Long userId) throws Exception {
+        Session session = find(uploadId, userId);
+        synchronized (session) {
+            if (session.closed) {
+                throw new NotFoundException("Upload not found");
+            }
+            if (session.received.cardinality() != session.chunkCount || !session.writing.isEmpty()) {
+                throw new InvalidRequestException("Upload is missing chunks!");
+            }
+            session.closed = true;
+        }
+        sessions.remove(session.id);
+        releaseSlot(session.userId);
+        return fileStorageService.storeTempFile(session.data, session.fileName);
+    }
+
+    // Drops a session and what it received so far
+    public void abort(String uploadId, Long userId) throws Exception {
+        discard(find(uploadId, userId));
+    }
+
+    // Drops sessions nobody has written to for a while
+    @Scheduled(fixedDelayString = "${upload.session.cleanup-ms:600000}")
+    public void expireIdleSessions() {
+        long cutoff = System.currentTimeMillis() - sessionTtlMillis;
+        for (Session session : sessions.values()) {
+            if (session.lastUsed < cutoff) {
+                discard(session);
+            }
+        }
+    }
+
+    private void discard(Session session) {
+        synchronized (session) {
+            if (session.closed) {
+                return; // Completed or dropped by someone else meanwhile
+            }
+            session.closed = true;
+        }
+        sessions.remove(session.id);
+        releaseSlot(session.userId);
+        try {
+            Files.deleteIfExists(session.data);
+        } catch (IOException e) {
+            // Left for the temporary file cleanup
+        }
+    }
+
+    // Gives back one of the user's open session slots (once per session, when it closes)
+    private void releaseSlot(Long userId) {
+        openPerUser.computeIfPresent(userId, (id, open) -> open <= 1 ? null : open - 1);
+    }
+
+    private Session find(String uploadId, Long userId) throws NotFoundException {
+        Session session = sessions.get(uploadId);
+        if (session == null || !Objects.equals(session.userId, userId)) {
+            throw new NotFoundException("Upload not found"); // Other users' uploads look the same as missing ones
+        }
+        return session;
+    }
+
+    private static UploadSessionResponse toResponse(Session session) {
+        List<Integer> missing = new ArrayList<>();
+        synchronized (session) {
+            for (int i = session.received.nextClearBit(0); i < session.chunkCount; i = session.received.nextClearBit(i + 1)) {
+                missing.add(i);
+            }
+        }
+        return new UploadSessionResponse(session.id, session.fileName, session.size, session.chunkSize,
+                session.chunkCount, missing);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
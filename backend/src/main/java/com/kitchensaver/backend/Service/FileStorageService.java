@@ -1,37 +1,365 @@
 package com.kitchensaver.backend.Service; // defines the package location
 
+import com.kitchensaver.backend.Repo.StoredFileRepo; // reference counts of stored files
+import com.kitchensaver.backend.model.ImageRendition; // resized copies stored next to a file
+import com.kitchensaver.backend.model.StoredFile; // one row per stored content
+
 import org.springframework.beans.factory.annotation.Value; // allows us to read value from application.properties
+import org.springframework.dao.DataIntegrityViolationException; // thrown when another request stored the same content first
+import org.springframework.scheduling.annotation.Scheduled; // runs the purge of kept originals
 import org.springframework.stereotype.Service; // marks this class as a service in Spring
+import org.springframework.transaction.support.TransactionSynchronization; // runs work after the job transaction commits
+import org.springframework.transaction.support.TransactionSynchronizationManager; // tells us whether a transaction is running
 import org.springframework.web.multipart.MultipartFile; // used to handle uploaded files
 
 import java.io.IOException; // handles input/output exceptions
+import java.io.InputStream; // the uploaded bytes
+import java.io.OutputStream; // discards bytes that are only hashed
+import java.nio.file.DirectoryStream; // lists the renditions of a file
 import java.nio.file.Files; // used for file operations
+import java.nio.file.NoSuchFileException; // a file deleted by someone else meanwhile
 import java.nio.file.Path; // represents a file path
 import java.nio.file.Paths; // helps create Path objects
 import java.nio.file.StandardCopyOption; // defines how files are copied
+import java.nio.file.attribute.FileTime; // age of kept originals
+import java.nio.file.attribute.PosixFilePermission; // permissions of stored files
+import java.nio.file.attribute.PosixFilePermissions; // parses "rw-r--r--"
+import java.security.DigestInputStream; // hashes the bytes while they are copied
+import java.security.MessageDigest; // SHA-256
+import java.security.NoSuchAlgorithmException; // never thrown for SHA-256
+import java.util.Arrays; // rendition names
+import java.util.Date; // upload times
+import java.util.HexFormat; // hash to hex
+import java.util.Locale; // lower-casing extensions
+import java.util.Set; // permission sets
+import java.util.concurrent.TimeUnit; // days to milliseconds
+import java.util.stream.Collectors; // joins the rendition names
+import java.util.stream.Stream; // lists kept originals
+import java.util.regex.Matcher; // splits rendition names
+import java.util.regex.Pattern; // used to recognise stored file names
 
+// Stores uploads by content: the name of a file is the SHA-256 of its bytes plus its extension, so the same photo
+// uploaded twice is stored once and a name always means the same bytes. Files live in two levels of
+// hash-prefix directories (ab/cd/abcd...jpg, 65536 directories), which keeps every directory small even with
+// millions of files. A StoredFile row counts the jobs using each file; a file is deleted only when that count
+// drops to zero. Files uploaded before this scheme (upload time + original name) stay in the top directory.
+// Whatever that misses (older files, files left by a crash) is found later by OrphanFileCollector.
+// Photos are normalized (ImageNormalizationService) before they are named; the upload as it came is kept in
+// .originals for a number of days, in case a normalization went wrong, then deleted.
 @Service // tells Spring to treat this class as a service
 public class FileStorageService {
 
+    static final String TEMP_DIR = ".tmp"; // uploads are written here first, on the same disk as their target
+    static final String ORIGINALS_DIR = ".originals"; // uploads as they came, when a normalized copy was stored
+    private static final int LOCK_STRIPES = 64; // locks that keep storing and deleting the same content apart
+
+    // names made before content addressing: upload time in milliseconds, then the original name
+    private static final Pattern LEGACY_NAME = Pattern.compile("\\d{10,}_.+");
+    // content-addressed names: SHA-256 hex, then an optional extension
+    private static final Pattern CONTENT_NAME = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,10})?");
+    private static final Set<PosixFilePermission> STORED_FILE_PERMISSIONS = PosixFilePermissions.fromString("rw-r--r--");
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,10}");
+    // resized copies: "<stored name>.<rendition>.<format>"
+    private static final Pattern RENDITION_NAME = Pattern.compile("(.+)\\.("
+            + Arrays.stream(ImageRendition.values()).map(ImageRendition::param).collect(Collectors.joining("|"))
+            + ")\\.(jpg|png)");
+
+    private final StoredFileRepo storedFileRepo; // reference counts
+    private final ImageNormalizationService imageNormalizationService; // makes photos upright and smaller
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
     @Value("${file.upload-dir}") // reads the file upload directory from application.properties
     private String uploadDir;
 
-    // method to save the uploaded file
+    @Value("${file.storage.unreferenced-grace-ms:86400000}") // a recently uploaded file is kept this long even if unused
+    private long unreferencedGraceMillis;
+
+    @Value("${image.normalize.keep-originals-days:30}") // how long the unnormalized upload is kept, 0 not at all
+    private int keepOriginalsDays;
+
+    // constructor injection for the reference count repository and the normalization stage
+    public FileStorageService(StoredFileRepo storedFileRepo, ImageNormalizationService imageNormalizationService) {
+        this.storedFileRepo = storedFileRepo;
+        this.imageNormalizationService = imageNormalizationService;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    // method to save the uploaded file; returns its content-addressed name
     public String storeFile(MultipartFile file) throws IOException {
-        Path uploadPath = Paths.get(uploadDir); // get the path to the upload directory
+        // copy the upload to a temporary file, hashing it on the way (the bytes are read once)
+        Path temp = createTempFile();
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return storeNormalized(temp, HexFormat.of().formatHex(digest.digest()), file.getOriginalFilename(), size);
+        } finally {
+            Files.deleteIfExists(temp); // left over when the content was a duplicate or the copy failed
+        }
+    }
 
-        // create the directory if it doesn't exist
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+    // method to store a file that was assembled in a temporary file from createTempFile (a chunked upload);
+    // the temporary file is moved or deleted
+    public String storeTempFile(Path temp, String originalName) throws IOException {
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(Files.newInputStream(temp), digest)) {
+                in.transferTo(OutputStream.nullOutputStream()); // read once to hash it
+            }
+            return storeNormalized(temp, HexFormat.of().formatHex(digest.digest()), originalName, Files.size(temp));
+        } finally {
+            Files.deleteIfExists(temp);
         }
+    }
 
-        // create a unique file name by adding the current time and removing spaces
-        String fileName = System.currentTimeMillis() + "_" + file.getOriginalFilename().replaceAll("\\s", "");
-        Path filePath = uploadPath.resolve(fileName); // get the full path of the new file
+    // stores the normalized copy of an upload if there is one (keeping the upload in .originals), else the upload
+    private String storeNormalized(Path temp, String sha256Hex, String originalName, long size) throws IOException {
+        Path normalized = createTempFile();
+        try {
+            if (!imageNormalizationService.normalize(temp, normalized)) {
+                return moveIntoPlace(temp, sha256Hex, originalName, size);
+            }
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(Files.newInputStream(normalized), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            String fileName = moveIntoPlace(normalized, HexFormat.of().formatHex(digest.digest()), originalName,
+                    Files.size(normalized));
+            keepOriginal(temp, fileName);
+            return fileName;
+        } finally {
+            Files.deleteIfExists(normalized);
+        }
+    }
 
-        // copy the file to the target location (replace if it already exists)
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+    // moves the upload as it came to .originals/<stored name>, unless originals are not kept
+    private void keepOriginal(Path temp, String fileName) {
+        if (keepOriginalsDays <= 0) {
+            return;
+        }
+        try {
+            Path target = uploadRoot().resolve(ORIGINALS_DIR).resolve(fileName);
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis())); // age counts from now
+        } catch (IOException e) {
+            // the normalized copy is stored, losing the backup is not worth failing the upload
+        }
+    }
 
+    // deletes kept originals older than image.normalize.keep-originals-days, once a day
+    @Scheduled(fixedDelayString = "${image.normalize.originals-purge-ms:86400000}", initialDelay = 60000)
+    public void purgeOriginals() {
+        Path originals = uploadRoot().resolve(ORIGINALS_DIR);
+        if (!Files.isDirectory(originals)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(Math.max(0, keepOriginalsDays));
+        try (Stream<Path> files = Files.list(originals)) {
+            files.forEach(file -> {
+                try {
+                    if (Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (IOException e) {
+                    // tried again tomorrow
+                }
+            });
+        } catch (IOException e) {
+            // tried again tomorrow
+        }
+    }
+
+    // records the content and moves the temporary file to its content-addressed path; returns the name
+    private String moveIntoPlace(Path temp, String sha256Hex, String originalName, long size) throws IOException {
+        String fileName = sha256Hex + extensionOf(originalName);
+        Path target = contentPath(uploadRoot(), fileName);
+
+        Date now = new Date();
+        synchronized (lockFor(fileName)) {
+            // record the upload, so the file cannot be deleted before a job refers to it
+            if (storedFileRepo.touch(fileName, now) == 0) {
+                try {
+                    storedFileRepo.saveAndFlush(new StoredFile(fileName, size, now));
+                } catch (DataIntegrityViolationException e) {
+                    storedFileRepo.touch(fileName, now); // stored by another instance at the same moment
+                }
+            }
+            // move the bytes into place in one step; identical content that is already there is kept
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
         return fileName; // return the new file name
     }
+
+    // adds a reference (a job now uses this file); runs in the caller's transaction
+    public void retain(String fileName) {
+        if (fileName != null) {
+            storedFileRepo.incrementRefCount(fileName);
+        }
+    }
+
+    // drops a reference (a job no longer uses this file); the file is deleted after commit if nothing uses it anymore
+    public void release(String fileName) {
+        if (fileName == null || storedFileRepo.decrementRefCount(fileName) == 0) {
+            return; // no reference counted, e.g. a file stored before content addressing
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteIfUnreferenced(fileName);
+                }
+            });
+        } else {
+            deleteIfUnreferenced(fileName);
+        }
+    }
+
+    // deletes the file if its count is zero and nobody uploaded it within the grace period
+    private void deleteIfUnreferenced(String fileName) {
+        Date cutoff = new Date(System.currentTimeMillis() - unreferencedGraceMillis);
+        synchronized (lockFor(fileName)) {
+            if (storedFileRepo.deleteIfUnreferenced(fileName, cutoff) == 1) {
+                try {
+                    deleteWithRenditions(contentPath(uploadRoot(), fileName));
+                } catch (IOException e) {
+                    // the row is gone, OrphanFileCollector deletes the file on its next pass
+                }
+            }
+        }
+    }
+
+    // deletes a file of the upload directory that no job refers to; called by OrphanFileCollector, which has
+    // already checked the job tables. A file with a StoredFile row goes the same way as a released one (count zero,
+    // not uploaded within the grace period); a file without a row (stored before content addressing, or left behind
+    // by a crash) once it is older than the grace period; a resized copy once its file is gone.
+    // Returns the bytes freed, 0 if the file was kept.
+    public long deleteUnreferenced(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        String owner = renditionOwner(name);
+        if (owner != null) {
+            Path ownerPath = resolveStoredFile(owner);
+            if (ownerPath == null || !file.equals(ownerPath.resolveSibling(name))) {
+                return 0;
+            }
+            synchronized (lockFor(owner)) {
+                return Files.exists(ownerPath) ? 0 : deleteCounted(file);
+            }
+        }
+        if (!isImmutableName(name) || !file.equals(resolveStoredFile(name))) {
+            return 0; // not a name this service gives files, so not ours to delete
+        }
+
+        long cutoff = System.currentTimeMillis() - unreferencedGraceMillis;
+        synchronized (lockFor(name)) {
+            if (storedFileRepo.existsById(name)) {
+                if (storedFileRepo.deleteIfUnreferenced(name, new Date(cutoff)) == 0) {
+                    return 0; // still counted, or uploaded again recently
+                }
+            } else if (!Files.exists(file) || Files.getLastModifiedTime(file).toMillis() >= cutoff) {
+                return 0;
+            }
+            return deleteWithRenditions(file);
+        }
+    }
+
+    // the stored file a resized copy belongs to ("<file>.thumb.jpg" -> "<file>"), or null if the name is no rendition
+    public String renditionOwner(String name) {
+        Matcher matcher = RENDITION_NAME.matcher(name);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    // finds a stored file, or returns null if the name points outside the upload directory
+    public Path resolveStoredFile(String filename) {
+        Path uploadPath = uploadRoot();
+        if (CONTENT_NAME.matcher(filename).matches()) {
+            return contentPath(uploadPath, filename);
+        }
+        Path filePath = uploadPath.resolve(filename).normalize();
+        return filePath.startsWith(uploadPath) && !filePath.equals(uploadPath) ? filePath : null;
+    }
+
+    // where a resized copy of a stored file lives: next to it, "<file>.<rendition>.<format>" (null for a bad name)
+    public Path renditionPath(String filename, ImageRendition rendition, String format) {
+        Path filePath = resolveStoredFile(filename);
+        return filePath == null ? null
+                : filePath.resolveSibling(filePath.getFileName() + "." + rendition.param() + "." + format);
+    }
+
+    // a new temporary file on the same disk as the stored files (so it can be moved into place atomically)
+    public Path createTempFile() throws IOException {
+        Path tempDir = uploadRoot().resolve(TEMP_DIR);
+        Files.createDirectories(tempDir);
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            Files.setPosixFilePermissions(temp, STORED_FILE_PERMISSIONS); // temp files are owner-only, stored files are not
+        } catch (UnsupportedOperationException e) {
+            // not a POSIX file system, the default permissions apply
+        }
+        return temp;
+    }
+
+    // deletes a file and its resized copies; returns the bytes freed
+    private static long deleteWithRenditions(Path filePath) throws IOException {
+        long freed = deleteCounted(filePath);
+        String prefix = filePath.getFileName() + ".";
+        try (DirectoryStream<Path> siblings = Files.newDirectoryStream(filePath.getParent(), prefix + "*")) {
+            for (Path sibling : siblings) {
+                freed += deleteCounted(sibling);
+            }
+        }
+        return freed;
+    }
+
+    // deletes one file; returns its size, 0 if it was not there
+    private static long deleteCounted(Path file) throws IOException {
+        try {
+            long size = Files.size(file);
+            return Files.deleteIfExists(file) ? size : 0;
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    // true if a name always means the same bytes (content-addressed, or an upload-time name that is never reused)
+    public boolean isImmutableName(String filename) {
+        return CONTENT_NAME.matcher(filename).matches() || LEGACY_NAME.matcher(filename).matches();
+    }
+
+    public Path uploadRoot() {
+        return Paths.get(uploadDir).toAbsolutePath().normalize();
+    }
+
+    // ab/cd/abcd...: the first two bytes of the hash pick the directories
+    private static Path contentPath(Path uploadPath, String fileName) {
+        return uploadPath.resolve(fileName.substring(0, 2)).resolve(fileName.substring(2, 4)).resolve(fileName);
+    }
+
+    // ".jpg" from "Kitchen Photo.JPG", or nothing when the name has no usable extension
+    private static String extensionOf(String originalName) {
+        if (originalName == null || originalName.lastIndexOf('.') < 0) {
+            return "";
+        }
+        String extension = originalName.substring(originalName.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? "." + extension : "";
+    }
+
+    private Object lockFor(String fileName) {
+        return locks[(fileName.hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 }
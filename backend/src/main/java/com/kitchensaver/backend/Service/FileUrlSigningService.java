@@ -0,0 +1,85 @@
+package com.kitchensaver.backend.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriUtils;
+
+// Short-lived signed links to uploaded files: /api/files/{filename}?expires=<epoch seconds>&sig=<HMAC-SHA256>.
+// An <img> can load them without a bearer token, and checking one is a single HMAC with no JWT or database work.
+// Expiry times are rounded up to the end of a window (half the lifetime), so the same file gets the same URL
+// for the whole window and the browser or a proxy can serve repeated loads from its cache.
+@Service
+public class FileUrlSigningService {
+    public static final String FILES_PATH = "/api/files/"; // Where FileStorageController serves files
+
+    private final SecretKeySpec key; // HMAC key
+    private final long windowSeconds; // URLs are identical within a window and valid for one to two windows
+    private final ThreadLocal<Mac> macs; // Mac instances are not thread-safe, one per thread
+
+    // Constructor with the signing key (the JWT secret unless file.url.secret is set) and the URL lifetime
+    public FileUrlSigningService(@Value("${file.url.secret:${jwt.secret}}") String secret,
+            @Value("${file.url.ttl-seconds:3600}") long ttlSeconds) {
+        this.key = new SecretKeySpec(("file-url:" + secret).getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.windowSeconds = Math.max(1, ttlSeconds / 2);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+    }
+
+    // Signed URL for a stored file name, or null when there is no file
+    public String signedUrl(String filename) {
+        if (filename == null || filename.isEmpty()) {
+            return filename;
+        }
+        long expires = (currentWindow() + 2) * windowSeconds;
+        return FILES_PATH + UriUtils.encodePathSegment(filename, StandardCharsets.UTF_8)
+                + "?expires=" + expires + "&sig=" + sign(filename, expires);
+    }
+
+    // True if the signature is ours for this file and has not expired (constant-time comparison)
+    public boolean isValid(String filename, long expires, String signature) {
+        if (signature == null || expires < System.currentTimeMillis() / 1000) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(filename, expires).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // Index of the current window; lists that embed signed URLs use it in their ETag so a 304 never revives expired links
+    public long currentWindow() {
+        return System.currentTimeMillis() / 1000 / windowSeconds;
+    }
+
+    // Stored file name for a value a client sent back: a signed URL is reduced to its file name, anything else is kept
+    public String toFilename(String value) {
+        if (value == null) {
+            return null;
+        }
+        int start = value.indexOf(FILES_PATH);
+        if (start < 0) {
+            return value;
+        }
+        int end = value.indexOf('?', start);
+        String segment = value.substring(start + FILES_PATH.length(), end < 0 ? value.length() : end);
+        return UriUtils.decode(segment, StandardCharsets.UTF_8);
+    }
+
+    private String sign(String filename, long expires) {
+        byte[] digest = macs.get().doFinal((filename + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+}
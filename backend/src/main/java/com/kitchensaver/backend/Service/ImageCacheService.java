@@ -0,0 +1,68 @@
+package com.kitchensaver.backend.Service;
+
+import com.kitchensaver.backend.DTO.ImageCacheStats;
+import com.kitchensaver.backend.util.OffHeapLruCache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// Keeps the most requested images (originals and renditions) in memory outside the Java heap, so the job
+// board's thumbnails are answered without touching the disk. A file is read straight from its channel into a
+// direct buffer (no heap array in between) and the buffer is written to the socket the same way by
+// ByteBufferHttpMessageConverter. Entries are tied to the file's size and modification time, so a changed file
+// is read again. Direct memory is counted against -XX:MaxDirectMemorySize (defaults to the heap size).
+@Service
+public class ImageCacheService {
+
+    private final OffHeapLruCache cache; // Null when image.cache.max-bytes is 0 (cache off)
+
+    // Constructor with the memory budget; files larger than max-entry-bytes are always streamed from disk
+    public ImageCacheService(@Value("${image.cache.max-bytes:134217728}") long maxBytes,
+            @Value("${image.cache.max-entry-bytes:4194304}") int maxEntryBytes) {
+        this.cache = maxBytes > 0
+                ? new OffHeapLruCache(maxBytes, maxEntryBytes, (int) Math.min(1 << 20, maxBytes / 16384)) // ~16 KB per thumbnail
+                : null;
+    }
+
+    // Contents of the file from memory, read into memory if it is worth keeping, or null if it should be
+    // streamed from disk instead (too large, or less popular than what the cache holds)
+    public ByteBuffer get(Path path, long length, long lastModified) throws IOException {
+        if (cache == null) {
+            return null;
+        }
+        String key = path.toString();
+        long version = lastModified * 31 + length;
+        ByteBuffer cached = cache.get(key, version);
+        if (cached != null || !cache.wouldAdmit(key, length)) {
+            return cached;
+        }
+
+        ByteBuffer data = ByteBuffer.allocateDirect((int) length);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (data.hasRemaining() && channel.read(data) >= 0) {
+                // Read until the buffer is full or the file ends
+            }
+        }
+        if (data.hasRemaining()) {
+            return null; // The file shrank while being read, leave it to the disk path
+        }
+        data.flip();
+        cache.put(key, version, data);
+        return data.asReadOnlyBuffer();
+    }
+
+    // Figures for the admin endpoint
+    public ImageCacheStats getStats() {
+        if (cache == null) {
+            return new ImageCacheStats(0, 0, 0, 0, 0, 0, 0);
+        }
+        return new ImageCacheStats(cache.getMaxBytes(), cache.getBytes(), cache.getEntryCount(), cache.getHits(),
+                cache.getMisses(), cache.getEvictions(), cache.getRejections());
+    }
+}
@@ -0,0 +1,196 @@
+package com.kitchensaver.backend.Service;
+
+import com.kitchensaver.backend.util.ExifOrientation;
+import com.kitchensaver.backend.util.ImageCodec;
+import com.kitchensaver.backend.util.MetadataStripper;
+
+import jakarta.annotation.PreDestroy;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// Cleans up uploaded photos before they are stored: turns them upright (EXIF orientation), caps the longest
+// edge, drops all metadata (location, camera data) and re-encodes JPEGs at a set quality. A 12 MB phone photo
+// typically ends up around 1 MB, and every later view sends the smaller file.
+// The work runs on a few threads with a short queue, and an upload waits for it only up to a time limit.
+// Every JPEG and PNG is stored without metadata: when re-encoding would gain too little, or the pool is busy, or
+// an image takes too long, the metadata is stripped from the upload as it came (MetadataStripper, no decoding).
+// Decoding a photo takes tens of MB of heap, so the thread count also bounds that memory.
+@Service
+public class ImageNormalizationService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageNormalizationService.class); // Logger for debugging and monitoring
+
+    private final boolean enabled; // image.normalize.enabled, false stores every upload unchanged
+    private final int maxDimension; // Longest edge after normalization, in pixels
+    private final float quality; // JPEG quality (0 to 1)
+    private final long minBytes; // Upright images within maxDimension and smaller than this are left alone
+    private final long timeoutMillis; // How long an upload waits for its image
+    private final ThreadPoolExecutor executor; // Normalization workers
+
+    // Constructor with the limits from application.properties
+    public ImageNormalizationService(@Value("${image.normalize.enabled:true}") boolean enabled,
+            @Value("${image.normalize.max-dimension:2560}") int maxDimension,
+            @Value("${image.normalize.quality:0.85}") float quality,
+            @Value("${image.normalize.min-bytes:524288}") long minBytes,
+            @Value("${image.normalize.threads:2}") int threads,
+            @Value("${image.normalize.queue-size:8}") int queueSize,
+            @Value("${image.normalize.timeout-ms:10000}") long timeoutMillis) {
+        this.enabled = enabled;
+        this.maxDimension = maxDimension;
+        this.quality = quality;
+        this.minBytes = minBytes;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-normalize-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Writes the normalized (or only stripped) image to target and returns true, or returns false when source
+    // should be stored as it is (not a JPEG or PNG, or normalization off)
+    public boolean normalize(Path source, Path target) {
+        if (!enabled) {
+            return false;
+        }
+        AtomicBoolean claimed = new AtomicBoolean(); // Whoever sets it first writes target: the worker or the fallback
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> normalizeNow(source, target, claimed));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Normalization pool busy, only stripping the metadata of {}", source.getFileName());
+            return strip(source, target);
+        }
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (!claimed.compareAndSet(false, true)) {
+                return awaitWorker(result, source, target); // Finished just now and is moving its file into place
+            }
+            result.cancel(true);
+            logger.warn("Normalizing an upload took over {} ms, only its metadata was stripped", timeoutMillis);
+            return strip(source, target);
+        } catch (ExecutionException e) {
+            logger.debug("Upload not normalized: {}", e.getCause().getMessage()); // Not an image ImageIO can read
+            return strip(source, target);
+        } catch (InterruptedException e) {
+            // The upload still gets a stripped copy; the interrupt is passed on once target is written
+            boolean written;
+            if (claimed.compareAndSet(false, true)) {
+                result.cancel(true);
+                written = strip(source, target);
+            } else {
+                written = awaitWorker(result, source, target);
+            }
+            Thread.currentThread().interrupt();
+            return written;
+        }
+    }
+
+    // Runs on a worker. The result is written to a file of its own and only moved to target if the upload is still
+    // waiting for it, so a worker that ran past the time limit never overwrites the stripped copy.
+    private boolean normalizeNow(Path source, Path target, AtomicBoolean claimed) throws Exception {
+        Path work = Files.createTempFile(target.getParent(), "normalize-", ".part");
+        try {
+            if (!normalizeInto(source, work) || !claimed.compareAndSet(false, true)) {
+                return false;
+            }
+            moveIntoPlace(work, target);
+            return true;
+        } finally {
+            Files.deleteIfExists(work);
+        }
+    }
+
+    // Replaces target with the finished file in one step (package-private so tests can make it fail)
+    void moveIntoPlace(Path work, Path target) throws IOException {
+        Files.move(work, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private boolean normalizeInto(Path source, Path target) throws Exception {
+        ImageCodec.Decoded decoded = ImageCodec.decode(source, maxDimension);
+        boolean jpeg = "jpeg".equals(decoded.format());
+        if (!jpeg && !"png".equals(decoded.format())) {
+            return false; // GIFs may be animated, other formats are rare enough to keep as they are
+        }
+        int orientation = jpeg ? ExifOrientation.read(source) : ExifOrientation.NORMAL;
+        boolean oversized = Math.max(decoded.sourceWidth(), decoded.sourceHeight()) > maxDimension;
+        long sourceBytes = Files.size(source);
+        if (!oversized && orientation == ExifOrientation.NORMAL && (!jpeg || sourceBytes < minBytes)) {
+            return MetadataStripper.strip(source, target); // Already upright and small; re-encoding would only lose quality
+        }
+
+        BufferedImage image = decoded.image();
+        boolean alpha = image.getColorModel().hasAlpha();
+        image = ImageCodec.orient(image, orientation, alpha);
+        image = ImageCodec.scale(image, maxDimension, alpha);
+        ImageCodec.write(image, jpeg ? "jpg" : "png", target, quality);
+
+        long targetBytes = Files.size(target);
+        if (!oversized && orientation == ExifOrientation.NORMAL && targetBytes > sourceBytes * 3 / 4) {
+            // Saves too little to be worth a second generation of JPEG loss (e.g. already normalized)
+            return MetadataStripper.strip(source, target);
+        }
+        logger.debug("Normalized upload: {} bytes -> {} bytes", sourceBytes, targetBytes);
+        return true;
+    }
+
+    // The lossless fallback on the upload's own thread; false (stored as it came) if the file is no JPEG or PNG
+    private static boolean strip(Path source, Path target) {
+        try {
+            return MetadataStripper.strip(source, target);
+        } catch (IOException e) {
+            logger.debug("Could not strip the metadata of {}: {}", source.getFileName(), e.getMessage());
+            return false;
+        }
+    }
+
+    // The worker claimed target first; its move takes moments, so this waits even when interrupted (and passes the
+    // interrupt on afterwards). If the move failed, the upload falls back to the stripped copy.
+    private static boolean awaitWorker(Future<Boolean> result, Path source, Path target) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return result.get();
+                } catch (ExecutionException e) {
+                    logger.debug("Normalized upload not moved into place: {}", e.getCause().getMessage());
+                    return strip(source, target);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Stops the workers when the application shuts down
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
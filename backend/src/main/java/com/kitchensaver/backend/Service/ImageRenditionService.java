@@ -0,0 +1,168 @@
+package com.kitchensaver.backend.Service;
+
+import com.kitchensaver.backend.Exceptions.UnsupportedImageException;
+import com.kitchensaver.backend.model.ImageRendition;
+import com.kitchensaver.backend.model.JobImageAttached;
+import com.kitchensaver.backend.util.ExifOrientation;
+import com.kitchensaver.backend.util.ImageCodec;
+
+import jakarta.annotation.PreDestroy;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Makes the resized copies (ImageRendition) of job images in the background, so the job grid can load a
+// small preview instead of the full photo. Work runs on a small pool with a bounded queue; when the queue is
+// full the request is dropped, and the copy is made later, the first time someone asks for it
+// (until then the original is served). Each image is decoded once (see ImageCodec) for all of its renditions.
+@Service
+public class ImageRenditionService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageRenditionService.class); // Logger for debugging and monitoring
+
+    private static final float JPEG_QUALITY = 0.82f; // Good enough for previews at a fraction of the bytes
+    private static final String[] FORMATS = { "jpg", "png" }; // Renditions are JPEG, or PNG when the image has transparency
+    private static final int MAX_REMEMBERED_FAILURES = 10_000; // Images that cannot be decoded are not retried
+
+    private final FileStorageService fileStorageService; // Where originals and renditions live
+    private final ThreadPoolExecutor executor; // Background workers
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet(); // Files queued or being processed
+    private final Set<String> failed; // Files that are not images ImageIO can read (e.g. SVG), never retried
+
+    // Constructor with the pool limits from application.properties
+    public ImageRenditionService(FileStorageService fileStorageService,
+            @Value("${image.renditions.threads:2}") int threads,
+            @Value("${image.renditions.queue-size:200}") int queueSize) {
+        this.fileStorageService = fileStorageService;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-renditions-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1); // Requests come first
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.failed = Collections.newSetFromMap(Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > MAX_REMEMBERED_FAILURES;
+            }
+        }));
+    }
+
+    // Queues the renditions of a stored file (does nothing if they exist, are being made, or cannot be made)
+    public void generate(String filename) {
+        if (filename == null || failed.contains(filename) || allExist(filename) || !inFlight.add(filename)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    render(filename);
+                } catch (UnsupportedImageException e) {
+                    failed.add(filename); // Not going to decode next time either
+                    logger.warn("Could not make renditions of {}: {}", filename, e.getMessage());
+                } catch (Exception e) {
+                    // Disk trouble and the like: tried again the next time the file is asked for
+                    logger.warn("Could not make renditions of {} for now: {}", filename, e.getMessage());
+                } finally {
+                    inFlight.remove(filename);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(filename); // Busy: made on a later request
+        }
+    }
+
+    // A job now shows this image (e.g. an older upload picked again), make sure its previews exist
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onImageAttached(JobImageAttached event) {
+        generate(event.fileName());
+    }
+
+    // The rendition file if it has been made, otherwise null (the caller serves the original and it is queued)
+    public Path find(String filename, ImageRendition rendition) {
+        Path path = findExisting(filename, rendition);
+        if (path == null) {
+            generate(filename);
+        }
+        return path;
+    }
+
+    private Path findExisting(String filename, ImageRendition rendition) {
+        for (String format : FORMATS) {
+            Path path = fileStorageService.renditionPath(filename, rendition, format);
+            if (path != null && Files.isRegularFile(path)) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    private boolean allExist(String filename) {
+        for (ImageRendition rendition : ImageRendition.values()) {
+            if (findExisting(filename, rendition) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Decodes the original once and writes every rendition, largest first
+    private void render(String filename) throws IOException {
+        Path source = fileStorageService.resolveStoredFile(filename);
+        if (source == null || !Files.isRegularFile(source)) {
+            return; // Deleted in the meantime
+        }
+        int largest = 0;
+        for (ImageRendition rendition : ImageRendition.values()) {
+            largest = Math.max(largest, rendition.getMaxSide());
+        }
+        ImageCodec.Decoded decoded = ImageCodec.decode(source, largest);
+        BufferedImage image = decoded.image();
+        boolean alpha = image.getColorModel().hasAlpha();
+        String format = alpha ? "png" : "jpg"; // Transparency needs PNG, photos are much smaller as JPEG
+        if ("jpeg".equals(decoded.format())) {
+            // Renditions carry no metadata, so a sideways phone photo must be turned upright in the pixels
+            image = ImageCodec.orient(image, ExifOrientation.read(source), alpha);
+        }
+        for (ImageRendition rendition : ImageRendition.values()) {
+            BufferedImage scaled = ImageCodec.scale(image, rendition.getMaxSide(), alpha);
+            Path temp = fileStorageService.createTempFile();
+            try {
+                ImageCodec.write(scaled, format, temp, JPEG_QUALITY);
+                Files.move(temp, fileStorageService.renditionPath(filename, rendition, format),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    // Stops the workers when the application shuts down
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
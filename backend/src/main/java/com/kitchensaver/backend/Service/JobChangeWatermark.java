@@ -0,0 +1,71 @@
+package com.kitchensaver.backend.Service;
+
+import com.kitchensaver.backend.Repo.JobChangeRepo;
+import com.kitchensaver.backend.model.JobChange;
+
+import jakarta.annotation.PostConstruct;
+
+import java.util.TreeMap;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Tells readers of the change log how far it is safe to read.
+// job_change ids are handed out when a row is inserted, not when its transaction commits: while transaction A holds
+// id 101 uncommitted, B can commit 102. A client whose token moved to 102 would never see 101. So every transaction
+// that writes changes first reserves the lowest id it could get (one more than the highest id handed out so far)
+// and gives the reservation back when it completes. Every id below the lowest open reservation belongs to a
+// finished transaction, and readers stop there (visibleBelow). Tracks the writers of this instance only.
+@Service
+public class JobChangeWatermark {
+
+    private final JobChangeRepo jobChangeRepo; // Highest id at startup
+    private final TreeMap<Long, Integer> reservations = new TreeMap<>(); // Lowest possible id -> open transactions
+    private long highestId; // Highest id handed out to a finished insert
+
+    // Constructor injection for the change log repository
+    public JobChangeWatermark(JobChangeRepo jobChangeRepo) {
+        this.jobChangeRepo = jobChangeRepo;
+    }
+
+    @PostConstruct
+    public void load() {
+        highestId = jobChangeRepo.findTopByOrderByIdDesc().map(JobChange::getId).orElse(0L);
+    }
+
+    // Called before the current transaction inserts a change; the first call reserves, later calls find it held
+    public void reserve() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return; // Change log writes always run in a transaction; one reservation covers all of its rows
+        }
+        long lowest;
+        synchronized (this) {
+            lowest = highestId + 1;
+            reservations.merge(lowest, 1, Integer::sum);
+        }
+        TransactionSynchronizationManager.bindResource(this, lowest);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(JobChangeWatermark.this);
+                release(lowest); // Committed or rolled back, its ids are final either way
+            }
+        });
+    }
+
+    // Called after a change was inserted with this id
+    public synchronized void written(long id) {
+        highestId = Math.max(highestId, id);
+    }
+
+    // Ids below this belong to finished transactions: a change log read may include them and no others
+    public synchronized long visibleBelow() {
+        return reservations.isEmpty() ? highestId + 1 : Math.min(reservations.firstKey(), highestId + 1);
+    }
+
+    private synchronized void release(long lowest) {
+        reservations.computeIfPresent(lowest, (id, count) -> count == 1 ? null : count - 1);
+    }
+}
@@ -1,77 +1,512 @@
 package com.kitchensaver.backend.Service;
 
+import com.kitchensaver.backend.DTO.JobChangesResponse;
+import com.kitchensaver.backend.DTO.JobFilterRequest;
+import com.kitchensaver.backend.DTO.JobImagePageResponse;
+import com.kitchensaver.backend.DTO.JobImageResponse;
+import com.kitchensaver.backend.DTO.JobImportError;
+import com.kitchensaver.backend.DTO.JobImportResult;
+import com.kitchensaver.backend.DTO.JobMutationRequest;
+import com.kitchensaver.backend.DTO.JobMutationResult;
+import com.kitchensaver.backend.DTO.JobPageResponse;
 import com.kitchensaver.backend.DTO.JobRequest;
 import com.kitchensaver.backend.DTO.JobResponse;
+import com.kitchensaver.backend.Exceptions.InvalidRequestException;
 import com.kitchensaver.backend.Exceptions.NotFoundException;
+import com.kitchensaver.backend.Exceptions.VersionConflictException;
+import com.kitchensaver.backend.Repo.JobChangeRepo;
+import com.kitchensaver.backend.Repo.JobImageRepo;
 import com.kitchensaver.backend.Repo.JobRepo;
+import com.kitchensaver.backend.Repo.JobSpecifications;
 import com.kitchensaver.backend.Repo.UserRepo;
+import com.kitchensaver.backend.model.ChangeType;
 import com.kitchensaver.backend.model.Job;
+import com.kitchensaver.backend.model.JobChange;
+import com.kitchensaver.backend.model.JobImage;
+import com.kitchensaver.backend.model.JobImageAttached;
+import com.kitchensaver.backend.model.Users;
+import com.kitchensaver.backend.util.ImageCodec;
+import com.kitchensaver.backend.util.JobCursor;
+import com.kitchensaver.backend.util.JobExportWriter;
+import com.kitchensaver.backend.util.JobImportReader;
+
+import jakarta.persistence.EntityManager;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service // Marks this class as a service component in Spring
 public class JobService {
+    private static final int DEFAULT_PAGE_SIZE = 50; // Jobs per page when the client does not ask for a size
+    private static final int MAX_PAGE_SIZE = 200; // Upper bound so one request can never load the whole table
+    private static final int MAX_BATCH_SIZE = 500; // Upper bound for queued mutations applied in one request
+    private static final int IMPORT_CHUNK_SIZE = 500; // Imported rows written (and cleared from memory) together
+    private static final int EXPORT_CHUNK_SIZE = 500; // Exported rows sent (and cleared from memory) together
+
     private final JobRepo jobRepo; // Repository to manage Job entities
     private final UserRepo userRepo; // Repository to manage User entities
+    private final JobChangeRepo jobChangeRepo; // Repository for the job change log (delta sync)
+    private final ApplicationEventPublisher eventPublisher; // Publishes recorded changes to the job stream
+    private final EntityManager entityManager; // Used to clear imported jobs from memory between chunks
+    private final FileUrlSigningService fileUrlSigningService; // Turns stored image names into signed URLs
+    private final FileStorageService fileStorageService; // Reference counts of image files
+    private final JobImageRepo jobImageRepo; // Photos of each job
+    private final JobChangeWatermark jobChangeWatermark; // How far the change log can be read safely
+    private final TransactionTemplate transactionTemplate; // One transaction per import chunk
 
-    // Constructor to inject JobRepo and UserRepo
-    public JobService(JobRepo jobRepo, UserRepo userRepo) {
+    // Constructor to inject JobRepo, UserRepo, JobChangeRepo, the event publisher, the EntityManager, the URL signer,
+    // the file storage service, JobImageRepo, the change log watermark and the transaction manager
+    public JobService(JobRepo jobRepo, UserRepo userRepo, JobChangeRepo jobChangeRepo,
+            ApplicationEventPublisher eventPublisher, EntityManager entityManager,
+            FileUrlSigningService fileUrlSigningService, FileStorageService fileStorageService,
+            JobImageRepo jobImageRepo, JobChangeWatermark jobChangeWatermark,
+            PlatformTransactionManager transactionManager) {
         this.jobRepo = jobRepo;
         this.userRepo = userRepo;
+        this.jobChangeRepo = jobChangeRepo;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.fileUrlSigningService = fileUrlSigningService;
+        this.fileStorageService = fileStorageService;
+        this.jobImageRepo = jobImageRepo;
+        this.jobChangeWatermark = jobChangeWatermark;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     // Method to create a new job
+    @Transactional
     public JobResponse createJob(JobRequest request) throws Exception {
         Job job = new Job(); // Create new Job object
-        mapRequestToEntity(request, job); // Map request data to Job entity
-        return mapEntityToResponse(jobRepo.save(job)); // Save job and return response
+        mapRequestToEntity(request, job, userRepo::findById); // Map request data to Job entity
+        job = jobRepo.save(job); // Save job
+        recordChange(job, ChangeType.UPSERT, null, null); // Log the change for delta sync
+        return mapEntityToResponse(job, 0); // Return response (a new job has no photos)
     }
 
-    // Method to update an existing job
-    public JobResponse updateJob(Long jobId, JobRequest request) throws Exception {
-        Job job = jobRepo.findById(jobId) // Find job by ID
+    // Method to update an existing job (expectedVersion comes from If-Match, null means unconditional)
+    @Transactional
+    public JobResponse updateJob(Long jobId, JobRequest request, Long expectedVersion) throws Exception {
+        Job job = jobRepo.findById(jobId) // Find job by ID (users are replaced from the request)
                 .orElseThrow(() -> new NotFoundException("Job not found")); // Throw error if not found
-        mapRequestToEntity(request, job); // Update job fields
-        return mapEntityToResponse(jobRepo.save(job)); // Save and return updated job
+        checkVersion(job, expectedVersion); // Refuse to overwrite a newer version
+        Long previousInstallerId = userId(job.getInstaller()); // Remember who had the job before
+        Long previousCabinetMakerId = userId(job.getCabinetMaker());
+        mapRequestToEntity(request, job, userRepo::findById); // Update job fields
+        job = jobRepo.saveAndFlush(job); // Save updated job (flush so the response carries the new version)
+        recordChange(job, ChangeType.UPSERT, previousInstallerId, previousCabinetMakerId); // Log the change for delta sync
+        return mapEntityToResponse(job, jobImageRepo.countByJobId(job.getId())); // Return updated job
     }
 
     // Method to update only the status fields of a job
-    public JobResponse updateJobStatus(Long jobId, String status, String materialOrderStatus, String materialArrivalStatus) throws Exception {
-        Job job = jobRepo.findById(jobId) // Find job by ID
+    @Transactional
+    public JobResponse updateJobStatus(Long jobId, String status, String materialOrderStatus, String materialArrivalStatus,
+            Long expectedVersion) throws Exception {
+        Job job = jobRepo.findWithUsersById(jobId) // Find job by ID with its users
                 .orElseThrow(() -> new NotFoundException("Job not found")); // Throw error if not found
+        checkVersion(job, expectedVersion); // Refuse to overwrite a newer version
         job.setStatus(status); // Set job status
         job.setMaterialOrderStatus(materialOrderStatus); // Set material order status
         job.setMaterialArrivalStatus(materialArrivalStatus); // Set material arrival status
-        return mapEntityToResponse(jobRepo.save(job)); // Save and return updated job
+        job = jobRepo.saveAndFlush(job); // Save updated job (flush so the response carries the new version)
+        recordChange(job, ChangeType.UPSERT, null, null); // Log the change for delta sync
+        return mapEntityToResponse(job, jobImageRepo.countByJobId(job.getId())); // Return updated job
     }
 
     // Method to delete a job by ID
+    @Transactional
     public void deleteJob(Long jobId) throws Exception {
         Job job = jobRepo.findById(jobId) // Find job by ID
                 .orElseThrow(() -> new NotFoundException("Job not found")); // Throw error if not found
+        recordChange(job, ChangeType.DELETE, null, null); // Log the change for delta sync
+        for (String fileName : jobImageRepo.findFileNamesByJobId(jobId)) {
+            fileStorageService.release(fileName); // The image file may be deleted if no other job uses it
+        }
+        jobImageRepo.deleteByJobId(jobId); // Delete the job's photos in one statement
         jobRepo.delete(job); // Delete the job
     }
 
-    // Method to update a job's image
-    public JobResponse updateJobImage(Long jobId, String image) throws Exception {
-        Job job = jobRepo.findById(jobId) // Find job by ID
+    // Method to add a photo to a job and make it the cover (earlier photos are kept)
+    @Transactional
+    public JobResponse updateJobImage(Long jobId, String image, Long expectedVersion, Long uploadedBy) throws Exception {
+        Job job = jobRepo.findWithUsersById(jobId) // Find job by ID with its users
+                .orElseThrow(() -> new NotFoundException("Job not found")); // Throw error if not found
+        checkVersion(job, expectedVersion); // Refuse to overwrite a newer version
+        attachImage(job, image, uploadedBy); // Add the photo and set the job image
+        job = jobRepo.saveAndFlush(job); // Save updated job (flush so the response carries the new version)
+        recordChange(job, ChangeType.UPSERT, null, null); // Log the change for delta sync
+        return mapEntityToResponse(job, jobImageRepo.countByJobId(job.getId())); // Return updated job
+    }
+
+    // Helper method to add a photo to a job and make it the cover: a signed URL sent back is stored as its file name.
+    // The new JobImage row holds a reference on the file. A file already among the job's photos only becomes the
+    // cover again, and null clears the cover while the photos stay.
+    private void attachImage(Job job, String image, Long uploadedBy) {
+        String fileName = fileUrlSigningService.toFilename(image);
+        if (fileName != null && !Objects.equals(fileName, job.getImage())
+                && jobImageRepo.findFirstByJobIdAndFileName(job.getId(), fileName).isEmpty()) {
+            addImageRow(job, fileName, uploadedBy);
+        }
+        job.setImage(fileName);
+    }
+
+    // Helper method to record a new photo of a job; the row takes a reference on the file
+    private void addImageRow(Job job, String fileName, Long uploadedBy) {
+        Path path = fileStorageService.resolveStoredFile(fileName);
+        int[] size = path == null ? null : ImageCodec.dimensions(path); // Header only, nothing is decoded
+        jobImageRepo.save(new JobImage(job, fileName, uploadedBy, size == null ? null : size[0],
+                size == null ? null : size[1]));
+        fileStorageService.retain(fileName);
+        eventPublisher.publishEvent(new JobImageAttached(fileName)); // Previews are made after commit
+    }
+
+    // Method to add several stored photos to a job in one transaction (multi-file upload); the last one becomes
+    // the cover. The job's existing photos are read once, files it already has are not added twice.
+    @Transactional
+    public JobResponse attachImages(Long jobId, List<String> fileNames, Long expectedVersion, Long uploadedBy)
+            throws Exception {
+        Job job = jobRepo.findWithUsersById(jobId) // Find job by ID with its users
+                .orElseThrow(() -> new NotFoundException("Job not found")); // Throw error if not found
+        checkVersion(job, expectedVersion); // Refuse to overwrite a newer version
+        Set<String> existing = new HashSet<>(jobImageRepo.findFileNamesByJobId(jobId));
+        for (String fileName : fileNames) {
+            if (existing.add(fileName)) {
+                addImageRow(job, fileName, uploadedBy);
+            }
+            job.setImage(fileName);
+        }
+        job = jobRepo.saveAndFlush(job); // Save updated job (flush so the response carries the new version)
+        recordChange(job, ChangeType.UPSERT, null, null); // One change for the whole upload
+        return mapEntityToResponse(job, jobImageRepo.countByJobId(jobId));
+    }
+
+    // Method to get one page of a job's photos, newest first, following the same visibility rules as the job.
+    // cursor is nextCursor from the previous page (the id of its last photo).
+    @Transactional(readOnly = true)
+    public JobImagePageResponse getJobImages(Long jobId, String role, Long userId, String cursor, Integer limit)
+            throws Exception {
+        jobRepo.findById(jobId)
+                .filter(found -> isVisible(found, role, userId)) // Hide jobs assigned to someone else
+                .orElseThrow(() -> new NotFoundException("Job not found"));
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE)); // Clamp page size
+        Limit rows = Limit.of(pageSize + 1); // One extra row tells us if there is more
+
+        List<JobImage> images;
+        if (cursor == null || cursor.isEmpty()) {
+            images = jobImageRepo.findByJobIdOrderByIdDesc(jobId, rows);
+        } else {
+            try {
+                images = jobImageRepo.findByJobIdAndIdLessThanOrderByIdDesc(jobId, Long.parseLong(cursor), rows);
+            } catch (NumberFormatException e) {
+                throw new InvalidRequestException("Invalid cursor!");
+            }
+        }
+
+        String nextCursor = null;
+        if (images.size() > pageSize) {
+            images = images.subList(0, pageSize);
+            nextCursor = String.valueOf(images.get(pageSize - 1).getId());
+        }
+        List<JobImageResponse> page = images.stream()
+                .map(image -> new JobImageResponse(image.getId(), jobId,
+                        fileUrlSigningService.signedUrl(image.getFileName()), image.getUploadedBy(),
+                        image.getUploadedAt(), image.getWidth(), image.getHeight()))
+                .collect(Collectors.toList());
+        return new JobImagePageResponse(page, nextCursor);
+    }
+
+    // Method to remove a photo from a job (admins, or whoever attached it). If it was the cover, the newest
+    // remaining photo becomes the cover. The file goes once no job uses it anymore.
+    @Transactional
+    public JobResponse deleteJobImage(Long jobId, Long imageId, String role, Long userId) throws Exception {
+        Job job = jobRepo.findWithUsersById(jobId) // Find job by ID with its users
+                .filter(found -> isVisible(found, role, userId)) // Hide jobs assigned to someone else
+                .orElseThrow(() -> new NotFoundException("Job not found"));
+        JobImage image = jobImageRepo.findByIdAndJobId(imageId, jobId)
+                .orElseThrow(() -> new NotFoundException("Image not found"));
+        if (!"ADMIN".equals(role) && !Objects.equals(image.getUploadedBy(), userId)) {
+            throw new AccessDeniedException("Only the uploader or an admin can remove this image");
+        }
+
+        jobImageRepo.delete(image);
+        fileStorageService.release(image.getFileName());
+        if (Objects.equals(job.getImage(), image.getFileName())) {
+            job.setImage(jobImageRepo.findByJobIdOrderByIdDesc(jobId, Limit.of(1)).stream() // Flushes the delete first
+                    .findFirst().map(JobImage::getFileName).orElse(null));
+        }
+        job = jobRepo.saveAndFlush(job);
+        recordChange(job, ChangeType.UPSERT, null, null); // The count changed even if the cover did not
+        return mapEntityToResponse(job, jobImageRepo.countByJobId(jobId));
+    }
+
+    // Method to apply a queue of job mutations (status and image changes) in one transaction.
+    // All targeted jobs are loaded and locked with one query (SELECT ... FOR UPDATE), so no other write can
+    // slip in before the flush and fail the whole batch; the photos they already have are read with one more.
+    // The changed jobs are written with one flush, which Hibernate sends as JDBC batches; new photo rows are
+    // inserted one by one (their ids are IDENTITY). Every mutation gets its own result; a version conflict
+    // or missing job only skips that mutation. expectedVersion is compared with the version the job had
+    // when the batch started, so several queued edits made against the same version all apply.
+    @Transactional
+    public List<JobMutationResult> applyMutations(List<JobMutationRequest> mutations, Long userId) throws Exception {
+        if (mutations == null || mutations.isEmpty()) {
+            throw new InvalidRequestException("No mutations to apply!");
+        }
+        if (mutations.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("Too many mutations! At most " + MAX_BATCH_SIZE + " per request");
+        }
+
+        // Load and lock every targeted job (with its users) in one query
+        Set<Long> jobIds = mutations.stream()
+                .map(JobMutationRequest::getJobId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Job> jobs = jobRepo.findForUpdateByIdInOrderByIdAsc(jobIds).stream()
+                .collect(Collectors.toMap(Job::getId, Function.identity()));
+        Map<Long, Long> startVersions = jobs.values().stream()
+                .collect(Collectors.toMap(Job::getId, Job::getVersion));
+
+        // The photos those jobs already have, read once if any mutation adds one
+        Map<Long, Set<String>> existingImages = new HashMap<>();
+        if (mutations.stream().anyMatch(mutation -> "IMAGE".equals(mutation.getType())) && !jobs.isEmpty()) {
+            for (JobImageRepo.JobImageFile image : jobImageRepo.findFileNamesByJobIds(jobs.keySet())) {
+                existingImages.computeIfAbsent(image.getJobId(), id -> new HashSet<>()).add(image.getFileName());
+            }
+        }
+
+        // Apply the mutations in order, in memory
+        List<JobMutationResult> results = new ArrayList<>();
+        Set<Job> changed = new LinkedHashSet<>();
+        for (int i = 0; i < mutations.size(); i++) {
+            JobMutationRequest mutation = mutations.get(i);
+            Job job = mutation.getJobId() == null ? null : jobs.get(mutation.getJobId());
+            if (job == null) {
+                results.add(new JobMutationResult(i, mutation.getJobId(), "NOT_FOUND", "Job not found"));
+                continue;
+            }
+            Long startVersion = startVersions.get(job.getId());
+            if (mutation.getExpectedVersion() != null && !mutation.getExpectedVersion().equals(startVersion)) {
+                JobMutationResult conflict = new JobMutationResult(i, job.getId(), "CONFLICT", "Job was changed by someone else");
+                conflict.setCurrentVersion(startVersion);
+                results.add(conflict);
+                continue;
+            }
+            if ("STATUS".equals(mutation.getType())) {
+                // Only the fields the client queued are changed
+                if (mutation.getStatus() != null) {
+                    job.setStatus(mutation.getStatus());
+                }
+                if (mutation.getMaterialOrderStatus() != null) {
+                    job.setMaterialOrderStatus(mutation.getMaterialOrderStatus());
+                }
+                if (mutation.getMaterialArrivalStatus() != null) {
+                    job.setMaterialArrivalStatus(mutation.getMaterialArrivalStatus());
+                }
+            } else if ("IMAGE".equals(mutation.getType())) {
+                // Same as attachImage, checked against the photos loaded above
+                String fileName = fileUrlSigningService.toFilename(mutation.getImageUrl());
+                if (fileName != null && !Objects.equals(fileName, job.getImage())
+                        && existingImages.computeIfAbsent(job.getId(), id -> new HashSet<>()).add(fileName)) {
+                    addImageRow(job, fileName, userId);
+                }
+                job.setImage(fileName);
+            } else {
+                results.add(new JobMutationResult(i, job.getId(), "INVALID", "Type must be STATUS or IMAGE"));
+                continue;
+            }
+            changed.add(job);
+            results.add(new JobMutationResult(i, job.getId(), "OK", null));
+        }
+
+        // One flush writes every changed job (batched versioned UPDATEs)
+        jobRepo.flush();
+        for (Job job : changed) {
+            recordChange(job, ChangeType.UPSERT, null, null); // Log the change for delta sync
+        }
+
+        // Successful results carry the job as it is after the batch (photo counts read in one query)
+        Map<Long, Integer> imageCounts = imageCounts(changed.stream().map(Job::getId).toList());
+        for (JobMutationResult result : results) {
+            if ("OK".equals(result.getResult())) {
+                result.setJob(mapEntityToResponse(jobs.get(result.getJobId()),
+                        imageCounts.getOrDefault(result.getJobId(), 0)));
+            }
+        }
+        return results;
+    }
+
+    // Method to create jobs in bulk from a CSV or JSON import, reading the rows one at a time.
+    // Rows are written in chunks: one query checks a chunk's job numbers, the new jobs are persisted with
+    // pooled ids so the flush sends their INSERTs as JDBC batches, and the persistence context is cleared
+    // afterwards so memory stays flat however long the import is. Cabinet makers and installers come from
+    // a map loaded once instead of two user selects per row. Rows with a job number that already exists
+    // (or appeared earlier in the import) or that cannot be mapped are skipped and reported.
+    // Each chunk commits in its own transaction, so its change events go out (and are released) right away
+    // instead of piling up until the end; if the import fails part way, the chunks before stay imported.
+    public JobImportResult importJobs(JobImportReader reader) throws Exception {
+        Map<Long, Users> users = userRepo.findAll().stream()
+                .collect(Collectors.toMap(Users::getId, Function.identity()));
+        Set<String> seenJobNumbers = new HashSet<>(); // Job numbers imported so far
+        JobImportResult result = new JobImportResult();
+
+        List<JobImportReader.Row> chunk = new ArrayList<>();
+        JobImportReader.Row row;
+        while ((row = reader.next()) != null) {
+            chunk.add(row);
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                List<JobImportReader.Row> rows = chunk;
+                transactionTemplate.executeWithoutResult(status -> importChunk(rows, users, seenJobNumbers, result));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> importChunk(chunk, users, seenJobNumbers, result));
+        }
+        return result;
+    }
+
+    // Method to write every job to an export as it is read from the database.
+    // Nothing is collected in a list: each job is mapped and written, and every chunk the output is flushed
+    // (so the client receives data right away) and the persistence context is cleared (so memory stays flat).
+    @Transactional(readOnly = true)
+    public int exportJobs(JobExportWriter writer) throws Exception {
+        int count = 0;
+        try (Stream<Job> jobs = jobRepo.streamAll()) {
+            for (Job job : (Iterable<Job>) jobs::iterator) {
+                JobResponse response = mapEntityToResponse(job, null); // Photo counts are not part of an export
+                response.setImage(job.getImage()); // Exports keep the stored file name, a signed URL would expire
+                writer.write(response);
+                if (++count % EXPORT_CHUNK_SIZE == 0) {
+                    writer.flush();
+                    entityManager.clear(); // The written jobs and their users are not needed anymore
+                }
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    // Helper method to write one chunk of imported rows
+    private void importChunk(List<JobImportReader.Row> chunk, Map<Long, Users> users, Set<String> seenJobNumbers,
+            JobImportResult result) {
+        Set<String> existing = jobRepo.findExistingJobNumbers(chunk.stream()
+                .filter(row -> row.request() != null && row.request().getJobNumber() != null)
+                .map(row -> row.request().getJobNumber())
+                .toList());
+
+        List<Job> created = new ArrayList<>();
+        for (JobImportReader.Row row : chunk) {
+            JobRequest request = row.request();
+            String jobNumber = request == null ? null : request.getJobNumber();
+            if (row.error() != null) {
+                result.addError(new JobImportError(row.number(), null, "INVALID", row.error()));
+                continue;
+            }
+            if (jobNumber == null || jobNumber.isBlank()) {
+                result.addError(new JobImportError(row.number(), null, "INVALID", "Job number is required"));
+                continue;
+            }
+            if (existing.contains(jobNumber) || seenJobNumbers.contains(jobNumber)) {
+                result.addError(new JobImportError(row.number(), jobNumber, "DUPLICATE", "Job number already exists"));
+                continue;
+            }
+
+            Job job = new Job();
+            try {
+                mapRequestToEntity(request, job, id -> Optional.ofNullable(id == null ? null : users.get(id)));
+            } catch (Exception e) {
+                result.addError(new JobImportError(row.number(), jobNumber, "INVALID", e.getMessage()));
+                continue;
+            }
+            seenJobNumbers.add(jobNumber);
+            created.add(jobRepo.save(job));
+        }
+
+        // One flush writes the chunk's jobs (batched INSERTs), then their change log rows follow
+        jobRepo.flush();
+        for (Job job : created) {
+            recordChange(job, ChangeType.UPSERT, null, null); // Log the change for delta sync
+        }
+        jobRepo.flush();
+        entityManager.clear(); // Forget the written jobs (the chunk's transaction ends right after)
+        result.setImported(result.getImported() + created.size());
+    }
+
+    // Helper method to append a job write to the change log and publish it (the stream sends it after commit).
+    // Users who lost the job through a reassignment get a DELETE so it disappears from their dashboard.
+    private void recordChange(Job job, ChangeType type, Long previousInstallerId, Long previousCabinetMakerId) {
+        Long installerId = userId(job.getInstaller());
+        Long cabinetMakerId = userId(job.getCabinetMaker());
+        Long lostInstallerId = Objects.equals(previousInstallerId, installerId) ? null : previousInstallerId;
+        Long lostCabinetMakerId = Objects.equals(previousCabinetMakerId, cabinetMakerId) ? null : previousCabinetMakerId;
+        if (lostInstallerId != null || lostCabinetMakerId != null) {
+            eventPublisher.publishEvent(saveChange(
+                    new JobChange(job.getId(), ChangeType.DELETE, lostInstallerId, lostCabinetMakerId)));
+        }
+        eventPublisher.publishEvent(saveChange(new JobChange(job.getId(), type, installerId, cabinetMakerId)));
+    }
+
+    // Helper method to insert a change log row, holding back readers until this transaction has finished
+    private JobChange saveChange(JobChange change) {
+        jobChangeWatermark.reserve();
+        JobChange saved = jobChangeRepo.save(change); // IDENTITY: inserted (and numbered) right away
+        jobChangeWatermark.written(saved.getId());
+        return saved;
+    }
+
+    // Helper method for conditional writes: the client's version must still be the current one.
+    // Concurrent writers that both pass this check are caught by @Version when the update is flushed.
+    private static void checkVersion(Job job, Long expectedVersion) throws VersionConflictException {
+        if (expectedVersion != null && !expectedVersion.equals(job.getVersion())) {
+            throw new VersionConflictException("Job was changed by someone else (current version " + job.getVersion() + ")");
+        }
+    }
+
+    // Helper method to read a user id without loading the user
+    private static Long userId(Users user) {
+        return user == null ? null : user.getId();
+    }
+
+    // Method to get a single job, following the same visibility rules as the job list
+    @Transactional(readOnly = true)
+    public JobResponse getJob(Long jobId, String role, Long userId) throws Exception {
+        Job job = jobRepo.findWithUsersById(jobId) // Find job by ID with its users
+                .filter(found -> isVisible(found, role, userId)) // Hide jobs assigned to someone else
                 .orElseThrow(() -> new NotFoundException("Job not found")); // Throw error if not found
-        job.setImage(image); // Set the job image
-        return mapEntityToResponse(jobRepo.save(job)); // Save and return updated job
+        return mapEntityToResponse(job, jobImageRepo.countByJobId(jobId));
     }
 
     // Helper method to map request data to a Job entity
-    private void mapRequestToEntity(JobRequest request, Job job) throws Exception {
+    // findUser resolves the cabinet maker and installer ids (the repository, or a preloaded map during an import)
+    private void mapRequestToEntity(JobRequest request, Job job, Function<Long, Optional<Users>> findUser) throws Exception {
         job.setJobNumber(request.getJobNumber()); // Set job number
         job.setJobName(request.getJobName()); // Set job name
         job.setNumCabinets(request.getNumCabinets()); // Set number of cabinets
         job.setNumUppers(request.getNumUppers()); // Set number of upper cabinets
         job.setNumLowers(request.getNumLowers()); // Set number of lower cabinets
-        job.setCabinetMaker(userRepo.findById(request.getCabinetMakerId()) // Find cabinet maker by ID
+        job.setCabinetMaker(findUser.apply(request.getCabinetMakerId()) // Find cabinet maker by ID
                 .orElseThrow(() -> new NotFoundException("Cabinet maker not found"))); // Error if not found
-        job.setInstaller(userRepo.findById(request.getInstallerId()) // Find installer by ID
+        job.setInstaller(findUser.apply(request.getInstallerId()) // Find installer by ID
                 .orElseThrow(() -> new NotFoundException("Installer not found"))); // Error if not found
         job.setDueDate(request.getDueDate()); // Set job due date
         job.setJobColor(request.getJobColor()); // Set job color
@@ -81,10 +516,11 @@ public class JobService {
         job.setMaterialArrivalStatus(request.getMaterialArrivalStatus()); // Set material arrival status
     }
 
-    // Helper method to map Job entity data to a response object
-    private JobResponse mapEntityToResponse(Job job) {
+    // Helper method to map Job entity data to a response object; imageCount is the job's number of photos
+    private JobResponse mapEntityToResponse(Job job, Number imageCount) {
         JobResponse response = new JobResponse(); // Create response object
         response.setId(job.getId()); // Set job ID
+        response.setVersion(job.getVersion()); // Set job version
         response.setJobNumber(job.getJobNumber()); // Set job number
         response.setInstallerId(job.getInstaller().getId()); // Set installer ID
         response.setCabinetMakerId(job.getCabinetMaker().getId()); // Set cabinet maker ID
@@ -101,35 +537,159 @@ public class JobService {
         response.setDueDate(job.getDueDate()); // Set due date
         response.setOffice(job.getOffice()); // Set office
         response.setJobColor(job.getJobColor()); // Set job color
-        response.setImage(job.getImage()); // Set image
+        response.setImage(fileUrlSigningService.signedUrl(job.getImage())); // Set image (short-lived signed URL)
+        response.setImageCount(imageCount == null ? null : imageCount.intValue()); // Set number of photos
         return response; // Return response
     }
 
-    // Method to get all jobs from the database
-    public List<JobResponse> getAllJobs() {
-        return jobRepo.findAll().stream() // Fetch all jobs
-                .map(this::mapEntityToResponse) // Map each to response
-                .collect(Collectors.toList()); // Return as list
+    // Helper method to map a list of jobs, with the photo counts of all of them read in one grouped query
+    private List<JobResponse> mapEntitiesToResponses(List<Job> jobs) {
+        Map<Long, Integer> imageCounts = imageCounts(jobs.stream().map(Job::getId).toList());
+        return jobs.stream()
+                .map(job -> mapEntityToResponse(job, imageCounts.getOrDefault(job.getId(), 0)))
+                .collect(Collectors.toList());
+    }
+
+    // Helper method to count the photos of several jobs in one query (jobs without photos are left out)
+    private Map<Long, Integer> imageCounts(List<Long> jobIds) {
+        if (jobIds.isEmpty()) {
+            return Map.of();
+        }
+        return jobImageRepo.countByJobIds(jobIds).stream()
+                .collect(Collectors.toMap(JobImageRepo.JobImageCount::getJobId, count -> (int) count.getCount()));
+    }
+
+    // Method to get one page of all jobs (admin view)
+    public JobPageResponse getAllJobs(String sort, String direction, String cursor, Integer limit) throws Exception {
+        return findPage(null, sort, direction, cursor, limit); // No scope, every job is visible
+    }
+
+    // Method to get one page of jobs matching the filter (only the supplied filters are applied)
+    public JobPageResponse filterJobs(JobFilterRequest filter, String sort, String direction, String cursor, Integer limit) throws Exception {
+        return findPage(JobSpecifications.matches(filter), sort, direction, cursor, limit);
     }
 
-    // Method to filter jobs based on status, installer, material order/arrival status, and office
-    public List<JobResponse> filterJobs(String status, Long installerId, String materialOrderStatus, String materialArrivalStatus, String office) {
-        return jobRepo.findByFilters(status, installerId, materialOrderStatus, materialArrivalStatus, office).stream() // Fetch filtered jobs
-                .map(this::mapEntityToResponse) // Map each to response
-                .collect(Collectors.toList()); // Return as list
+    // Method to get one page of jobs by cabinet maker ID
+    public JobPageResponse getJobsByCabinetMakerId(Long id, String sort, String direction, String cursor, Integer limit) throws Exception {
+        return findPage(JobSpecifications.hasCabinetMaker(id), sort, direction, cursor, limit); // Only this cabinet maker's jobs
     }
 
-    // Method to get jobs by cabinet maker ID
-    public List<JobResponse> getJobsByCabinetMakerId(Long id) {
-        return jobRepo.findByCabinetMakerId(id).stream() // Fetch jobs by cabinet maker ID
-                .map(this::mapEntityToResponse) // Map each to response
-                .collect(Collectors.toList()); // Return as list
+    // Method to get one page of jobs by installer ID
+    public JobPageResponse getJobsByInstallerId(Long id, String sort, String direction, String cursor, Integer limit) throws Exception {
+        return findPage(JobSpecifications.hasInstaller(id), sort, direction, cursor, limit); // Only this installer's jobs
     }
 
-    // Method to get jobs by installer ID
-    public List<JobResponse> getJobsByInstallerId(Long id) {
-        return jobRepo.findByInstallerId(id).stream() // Fetch jobs by installer ID
-                .map(this::mapEntityToResponse) // Map each to response
-                .collect(Collectors.toList()); // Return as list
+    // Method to get what changed since the client's token, limited to the jobs the caller can see.
+    // Without a token the current token is returned: load the job list once, then sync from there.
+    // Only changes of finished transactions are read (JobChangeWatermark), so a token never passes a change
+    // that commits later.
+    @Transactional(readOnly = true)
+    public JobChangesResponse getChanges(String role, Long userId, String since, Integer limit) throws Exception {
+        long visibleBelow = jobChangeWatermark.visibleBelow(); // Taken before reading
+        if (since == null || since.isEmpty()) {
+            return new JobChangesResponse(String.valueOf(visibleBelow - 1), false, null, null);
+        }
+
+        long after;
+        try {
+            after = Long.parseLong(since);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid sync token!");
+        }
+        int pageSize = limit == null ? MAX_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE)); // Clamp page size
+        Limit rows = Limit.of(pageSize + 1); // One extra row tells us if there is more
+
+        // Read the change log between the token and the watermark (primary key range scan)
+        List<JobChange> changes;
+        if ("ADMIN".equals(role)) {
+            changes = jobChangeRepo.findByIdBetweenOrderByIdAsc(after + 1, visibleBelow - 1, rows); // Admin sees every change
+        } else if ("CABINET_MAKER".equals(role)) {
+            changes = jobChangeRepo.findByIdBetweenAndCabinetMakerIdOrderByIdAsc(after + 1, visibleBelow - 1, userId, rows);
+        } else if ("INSTALLER".equals(role)) {
+            changes = jobChangeRepo.findByIdBetweenAndInstallerIdOrderByIdAsc(after + 1, visibleBelow - 1, userId, rows);
+        } else {
+            throw new InvalidRequestException("Invalid role!");
+        }
+
+        // Nothing new: the response is just the unchanged token
+        if (changes.isEmpty()) {
+            return new JobChangesResponse(since, false, null, null);
+        }
+        boolean hasMore = changes.size() > pageSize;
+        if (hasMore) {
+            changes = changes.subList(0, pageSize);
+        }
+
+        // Only the latest change per job matters
+        Map<Long, ChangeType> latest = new LinkedHashMap<>();
+        for (JobChange change : changes) {
+            latest.put(change.getJobId(), change.getType());
+        }
+        List<Long> upsertIds = latest.entrySet().stream()
+                .filter(entry -> entry.getValue() == ChangeType.UPSERT)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        List<Long> deleted = latest.entrySet().stream()
+                .filter(entry -> entry.getValue() == ChangeType.DELETE)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+
+        // Load the current state of the upserted jobs in one query
+        Map<Long, Job> jobs = jobRepo.findByIdIn(upsertIds).stream()
+                .collect(Collectors.toMap(Job::getId, Function.identity()));
+        List<Job> visible = new ArrayList<>();
+        for (Long jobId : upsertIds) {
+            Job job = jobs.get(jobId);
+            if (job != null && isVisible(job, role, userId)) {
+                visible.add(job);
+            } else {
+                deleted.add(jobId); // Deleted or reassigned after this change, a later change confirms it
+            }
+        }
+        List<JobResponse> upserted = mapEntitiesToResponses(visible); // Photo counts in one more query
+
+        String token = String.valueOf(changes.get(changes.size() - 1).getId());
+        return new JobChangesResponse(token, hasMore, upserted, deleted);
+    }
+
+    // Helper method applying the same visibility rules as the job list
+    private static boolean isVisible(Job job, String role, Long userId) {
+        if ("CABINET_MAKER".equals(role)) {
+            return Objects.equals(userId(job.getCabinetMaker()), userId);
+        }
+        if ("INSTALLER".equals(role)) {
+            return Objects.equals(userId(job.getInstaller()), userId);
+        }
+        return true;
+    }
+
+    // Helper method that reads one keyset page: rows after the cursor, in a stable order, at most `limit` of them
+    private JobPageResponse findPage(Specification<Job> scope, String sort, String direction, String cursor, Integer limit) throws Exception {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE)); // Clamp page size
+        String sortKey = JobCursor.checkSortKey(sort == null ? "id" : sort); // Default to id order
+        boolean ascending = direction == null || !"desc".equalsIgnoreCase(direction); // Default to ascending
+
+        Specification<Job> spec = Specification.where(scope).and(JobSpecifications.fetchUsers()); // Load users in the same select
+        if (cursor != null && !cursor.isEmpty()) {
+            JobCursor after = JobCursor.decode(cursor);
+            // A cursor only makes sense with the sort it was created for
+            if (!after.getSortKey().equals(sortKey) || after.isAscending() != ascending) {
+                throw new InvalidRequestException("Cursor does not match the requested sort!");
+            }
+            spec = spec.and(JobSpecifications.after(after)); // Continue right after the last job of the previous page
+        }
+
+        // Fetch one extra row to find out if there is a next page
+        Sort order = JobSpecifications.keysetSort(sortKey, ascending);
+        List<Job> rows = jobRepo.findBy(spec, query -> query.sortBy(order).limit(pageSize + 1).all());
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = JobCursor.after(rows.get(pageSize - 1), sortKey, ascending).encode();
+        }
+
+        List<JobResponse> jobs = mapEntitiesToResponses(rows); // Map each to response, photo counts in one query
+        return new JobPageResponse(jobs, nextCursor);
     }
 }
@@ -0,0 +1,293 @@
+package com.kitchensaver.backend.Service;
+
+import com.kitchensaver.backend.DTO.JobChangeEvent;
+import com.kitchensaver.backend.Repo.JobChangeRepo;
+import com.kitchensaver.backend.model.JobChange;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pushes job changes to open dashboards as Server-Sent Events.
+// SseEmitter uses servlet async requests, so an idle stream holds a socket but no Tomcat worker thread.
+// Each stream has its own bounded queue, emptied by a sender task, so a slow client mostly delays itself:
+// when its queue overflows, or one write takes longer than jobs.stream.send-timeout-ms, the stream is closed and
+// the client reconnects with Last-Event-ID. A replay runs on the same sender before any queued live event, and
+// live events the replay already covered are skipped.
+// Senders share a small fixed pool (jobs.stream.sender-threads), so thousands of streams never mean thousands of
+// threads; a stream has at most one sender task queued or running, which bounds the pool's queue as well.
+@Service
+public class JobStreamService {
+    private static final Logger logger = LoggerFactory.getLogger(JobStreamService.class); // Logger for stream events
+    private static final int MAX_REPLAY = 200; // Changes replayed on reconnect before asking the client to resync
+    private static final Object HEARTBEAT = new Object(); // Queued in place of a change to keep the connection open
+
+    private final JobChangeRepo jobChangeRepo; // Change log used to replay missed events
+    private final JobChangeWatermark jobChangeWatermark; // How far the change log can be replayed safely
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet(); // Open streams
+    private final ThreadPoolExecutor senders; // Runs the sender of every stream that has something queued
+
+    @Value("${jobs.stream.timeout-ms:1800000}")
+    private long timeoutMs; // Streams are closed after this long, clients reconnect with Last-Event-ID
+
+    @Value("${jobs.stream.queue-size:256}")
+    private int queueSize; // Events waiting for one stream before it is closed as too slow
+
+    @Value("${jobs.stream.send-timeout-ms:10000}")
+    private long sendTimeoutMs; // A write blocked this long closes the stream (checked with the heartbeat)
+
+    // One open stream, the visibility of the user who opened it and the events waiting for it
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final String role;
+        private final Long userId;
+        private final BlockingQueue<Object> queue; // JobChange or HEARTBEAT
+        private final AtomicBoolean sending = new AtomicBoolean(); // True while a sender task owns the stream
+        private volatile String replayAfter; // Last-Event-ID still to be replayed, null once done
+        private volatile long writingSince; // When the current write started, 0 between writes
+        private final AtomicBoolean closed = new AtomicBoolean(); // Set once, by whoever ends the stream first
+        private long replayedBelow; // Live changes below this id were part of the replay (sender only)
+
+        private Subscriber(SseEmitter emitter, String role, Long userId, int queueSize, String replayAfter) {
+            this.emitter = emitter;
+            this.role = role;
+            this.userId = userId;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+            this.replayAfter = replayAfter;
+        }
+    }
+
+    // Constructor to inject JobChangeRepo, the change log watermark and the sender pool size (default: one thread per core)
+    public JobStreamService(JobChangeRepo jobChangeRepo, JobChangeWatermark jobChangeWatermark,
+            @Value("${jobs.stream.sender-threads:0}") int senderThreads,
+            @Value("${jobs.stream.sender-queue-size:10000}") int senderQueueSize) {
+        this.jobChangeRepo = jobChangeRepo;
+        this.jobChangeWatermark = jobChangeWatermark;
+        int threads = senderThreads > 0 ? senderThreads : Math.max(2, Runtime.getRuntime().availableProcessors());
+        AtomicInteger counter = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(senderQueueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "job-stream-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Opens a stream for the user, replaying what they missed if they send the last event id they saw
+    public SseEmitter subscribe(String role, Long userId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        String replayAfter = lastEventId == null || lastEventId.isEmpty() ? null : lastEventId;
+        Subscriber subscriber = new Subscriber(emitter, role, userId, queueSize, replayAfter);
+
+        // Forget the stream as soon as it ends for any reason
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(e -> close(subscriber));
+        subscribers.add(subscriber); // Register first: what commits during the replay is queued behind it
+
+        if (replayAfter != null) {
+            schedule(subscriber);
+        }
+        return emitter;
+    }
+
+    // Queues a change for every stream allowed to see it, once its transaction has committed
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onJobChange(JobChange change) {
+        for (Subscriber subscriber : subscribers) {
+            if (isVisible(change, subscriber)) {
+                enqueue(subscriber, change);
+            }
+        }
+    }
+
+    // Keeps idle connections (and proxies in between) from timing out, and closes streams stuck in a write
+    @Scheduled(fixedRateString = "${jobs.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            long writingSince = subscriber.writingSince;
+            if (writingSince != 0 && now - writingSince > sendTimeoutMs) {
+                drop(subscriber, "write blocked for " + (now - writingSince) + " ms");
+            } else if (subscriber.sending.get()) {
+                continue; // A sender is busy with this stream: it is not idle, and a heartbeat would only queue up
+            } else if (subscriber.queue.isEmpty()) {
+                enqueue(subscriber, HEARTBEAT);
+            } else {
+                schedule(subscriber); // Left queued when the pool was full
+            }
+        }
+    }
+
+    // Returns the number of open streams
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Adds an event to a stream's queue without ever waiting; a full queue means the client cannot keep up
+    private void enqueue(Subscriber subscriber, Object event) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (!subscriber.queue.offer(event)) {
+            drop(subscriber, "queue full");
+            return;
+        }
+        schedule(subscriber);
+    }
+
+    // Starts a sender for the stream unless one is already queued or running. When the pool is saturated the
+    // events stay queued and the next heartbeat tries again.
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.sending.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.sending.set(false);
+            }
+        }
+    }
+
+    // Sends the pending replay, then everything queued, in order
+    private void drain(Subscriber subscriber) {
+        try {
+            String replayAfter = subscriber.replayAfter;
+            if (replayAfter != null) {
+                replay(subscriber, replayAfter);
+                subscriber.replayAfter = null;
+            }
+            Object event;
+            while (!subscriber.closed.get() && (event = subscriber.queue.poll()) != null) {
+                if (event == HEARTBEAT) {
+                    write(subscriber, SseEmitter.event().comment("heartbeat"));
+                } else if (((JobChange) event).getId() >= subscriber.replayedBelow) {
+                    send(subscriber, (JobChange) event); // Below replayedBelow it was already replayed
+                }
+            }
+        } finally {
+            subscriber.sending.set(false);
+        }
+        if (!subscriber.closed.get() && !subscriber.queue.isEmpty()) {
+            schedule(subscriber); // Queued after the last poll, before the flag was cleared
+        }
+    }
+
+    // Replays the change log after the client's last event id, up to the watermark
+    private void replay(Subscriber subscriber, String lastEventId) {
+        long after;
+        try {
+            after = Long.parseLong(lastEventId);
+        } catch (NumberFormatException e) {
+            return; // Unknown id: the client starts from live events only
+        }
+
+        // Every change below the watermark has committed: it is either replayed here or already queued (and skipped)
+        long visibleBelow = jobChangeWatermark.visibleBelow();
+        subscriber.replayedBelow = visibleBelow;
+        Limit rows = Limit.of(MAX_REPLAY + 1);
+        List<JobChange> missed;
+        if ("CABINET_MAKER".equals(subscriber.role)) {
+            missed = jobChangeRepo.findByIdBetweenAndCabinetMakerIdOrderByIdAsc(after + 1, visibleBelow - 1,
+                    subscriber.userId, rows);
+        } else if ("INSTALLER".equals(subscriber.role)) {
+            missed = jobChangeRepo.findByIdBetweenAndInstallerIdOrderByIdAsc(after + 1, visibleBelow - 1,
+                    subscriber.userId, rows);
+        } else {
+            missed = jobChangeRepo.findByIdBetweenOrderByIdAsc(after + 1, visibleBelow - 1, rows);
+        }
+
+        if (missed.size() > MAX_REPLAY) {
+            // Too far behind: tell the client to catch up through GET /api/jobs/changes instead
+            write(subscriber, SseEmitter.event().name("resync").data(lastEventId));
+            return;
+        }
+        for (JobChange change : missed) {
+            send(subscriber, change);
+        }
+    }
+
+    // Writes one change event. Its id is the token to resume from: the change's own id, or less while an earlier
+    // change is still uncommitted, so a reconnect never skips that one.
+    private void send(Subscriber subscriber, JobChange change) {
+        long resumeFrom = Math.min(change.getId(), jobChangeWatermark.visibleBelow() - 1);
+        write(subscriber, SseEmitter.event()
+                .id(String.valueOf(resumeFrom)) // Same value as a delta-sync token
+                .name("job-change")
+                .data(new JobChangeEvent(change.getJobId(), change.getType().name())));
+    }
+
+    // Writes to the client, dropping the stream if it has gone away; the heartbeat watches how long this takes
+    private void write(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        subscriber.writingSince = System.currentTimeMillis();
+        try {
+            subscriber.emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            drop(subscriber, "write failed");
+        } finally {
+            subscriber.writingSince = 0;
+        }
+    }
+
+    // Closes a stream from our side (slow or gone client); complete() does not wait for a blocked write
+    private void drop(Subscriber subscriber, String reason) {
+        if (close(subscriber)) {
+            logger.debug("Closing job stream of user {}: {}", subscriber.userId, reason);
+            subscriber.emitter.completeWithError(new IOException("Stream closed: " + reason));
+        }
+    }
+
+    // Forgets a stream; true the first time
+    private boolean close(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return false;
+        }
+        subscribers.remove(subscriber);
+        subscriber.queue.clear();
+        return true;
+    }
+
+    // Same visibility rules as the job list
+    private static boolean isVisible(JobChange change, Subscriber subscriber) {
+        if ("CABINET_MAKER".equals(subscriber.role)) {
+            return Objects.equals(change.getCabinetMakerId(), subscriber.userId);
+        }
+        if ("INSTALLER".equals(subscriber.role)) {
+            return Objects.equals(change.getInstallerId(), subscriber.userId);
+        }
+        return "ADMIN".equals(subscriber.role);
+    }
+
+    // Closes every stream when the application stops
+    @PreDestroy
+    public void shutdown() {
+        logger.info("Closing " + subscribers.size() + " job streams");
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+}
@@ -0,0 +1,126 @@
+package com.kitchensaver.backend.Service;
+
+import com.kitchensaver.backend.model.JobChange;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+// Keeps in-memory version counters for job data so list and single-job GETs can answer
+// If-None-Match with a 304 before touching the database or Jackson.
+// Counters start over on restart, so every ETag also carries the boot time. Job responses embed
+// signed image URLs, so ETags also carry the signing window and change before those URLs expire.
+// A single job's ETag also starts with its @Version, so it can be sent back as If-Match unchanged.
+@Service
+public class JobVersionService {
+    // A single-job ETag (weak or strong): the version, then the counter-based tag
+    private static final Pattern VERSIONED_ETAG = Pattern.compile("(?:W/)?\"v(\\d{1,18})-([^\"]+)\"");
+
+    private final FileUrlSigningService fileUrlSigningService; // Current signing window
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36); // Makes ETags unique per run
+    private final AtomicLong allJobs = new AtomicLong(); // Bumped by every job write
+    private final Map<Long, Long> installerJobs = new ConcurrentHashMap<>(); // Installer id -> version
+    private final Map<Long, Long> cabinetMakerJobs = new ConcurrentHashMap<>(); // Cabinet maker id -> version
+    private final Map<Long, Long> jobs = new ConcurrentHashMap<>(); // Job id -> version
+
+    // Constructor injection for the URL signer
+    public JobVersionService(FileUrlSigningService fileUrlSigningService) {
+        this.fileUrlSigningService = fileUrlSigningService;
+    }
+
+    // Bumps every scope the change touches. Runs after commit (and before the job stream is notified),
+    // so a client can never cache pre-commit data under a post-commit ETag.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onJobChange(JobChange change) {
+        allJobs.incrementAndGet();
+        jobs.merge(change.getJobId(), 1L, Long::sum);
+        if (change.getInstallerId() != null) {
+            installerJobs.merge(change.getInstallerId(), 1L, Long::sum);
+        }
+        if (change.getCabinetMakerId() != null) {
+            cabinetMakerJobs.merge(change.getCabinetMakerId(), 1L, Long::sum);
+        }
+    }
+
+    // ETag for a job list as seen by this user (query holds sort, cursor, filters...)
+    public String listEtag(String role, Long userId, String query) {
+        String scope;
+        long version;
+        if ("CABINET_MAKER".equals(role)) {
+            scope = "c" + userId;
+            version = cabinetMakerJobs.getOrDefault(userId, 0L);
+        } else if ("INSTALLER".equals(role)) {
+            scope = "i" + userId;
+            version = installerJobs.getOrDefault(userId, 0L);
+        } else {
+            scope = "a";
+            version = allJobs.get();
+        }
+        return etag(scope, version, query);
+    }
+
+    // ETag for a single job, taken before the job is loaded (compare with unchangedTag, send with withVersion)
+    public String jobEtag(Long jobId) {
+        return etag("j" + jobId, jobs.getOrDefault(jobId, 0L), null);
+    }
+
+    // The single-job ETag as sent to the client: the job's @Version in front, so the same value works as
+    // If-Match on a write ("v<version>-<boot>-j<id>-..."); see versionOf
+    public static String withVersion(String jobEtag, Long version) {
+        return "\"v" + version + "-" + jobEtag.substring(1);
+    }
+
+    // The tag in If-None-Match that still names the job's current state, or null; the version in front is not
+    // needed for that, the counter changes with every write
+    public static String unchangedTag(String jobEtag, String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            Matcher matcher = VERSIONED_ETAG.matcher(tag.trim());
+            if (matcher.matches() && jobEtag.equals("\"" + matcher.group(2) + "\"")) {
+                return tag.trim();
+            }
+        }
+        return null;
+    }
+
+    // The job version an If-Match header asks for: a plain version ("3", 3 or W/"3") or a single-job ETag;
+    // null if it is neither
+    public static Long versionOf(String ifMatch) {
+        String value = ifMatch.trim();
+        Matcher matcher = VERSIONED_ETAG.matcher(value);
+        if (matcher.matches()) {
+            return Long.parseLong(matcher.group(1));
+        }
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        try {
+            return Long.parseLong(value.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Strong ETag: "<boot>-<scope>-<version>-<query hash>-<signing window>"
+    private String etag(String scope, long version, String query) {
+        CRC32 crc = new CRC32();
+        if (query != null) {
+            crc.update(query.getBytes(StandardCharsets.UTF_8));
+        }
+        return "\"" + bootId + "-" + scope + "-" + version + "-" + Long.toString(crc.getValue(), 36)
+                + "-" + Long.toString(fileUrlSigningService.currentWindow(), 36) + "\"";
+    }
+}
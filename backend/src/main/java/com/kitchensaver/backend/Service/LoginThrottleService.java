@@ -0,0 +1,48 @@
+package com.kitchensaver.backend.Service;
+
+import com.kitchensaver.backend.Exceptions.TooManyRequestsException;
+import com.kitchensaver.backend.util.StripedTokenBucketLimiter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// Limits login attempts per account and per client IP, before any password is hashed.
+// The account limit slows down guessing one user's password; the IP limit stops one client
+// from trying many accounts (credential stuffing). Defaults: 5 attempts then 1 every 12 s per
+// email, 20 attempts then 1 per second per IP.
+@Service
+public class LoginThrottleService {
+    private final StripedTokenBucketLimiter byEmail; // Attempts per account
+    private final StripedTokenBucketLimiter byIp; // Attempts per client address
+
+    // Constructor with the limits from application.properties
+    public LoginThrottleService(
+            @Value("${login.throttle.email.burst:5}") int emailBurst,
+            @Value("${login.throttle.email.per-second:0.0833}") double emailPerSecond,
+            @Value("${login.throttle.ip.burst:20}") int ipBurst,
+            @Value("${login.throttle.ip.per-second:1}") double ipPerSecond,
+            @Value("${login.throttle.max-keys:100000}") int maxKeys) {
+        this.byEmail = new StripedTokenBucketLimiter(emailBurst, emailPerSecond, maxKeys);
+        this.byIp = new StripedTokenBucketLimiter(ipBurst, ipPerSecond, maxKeys);
+    }
+
+    // Takes one attempt from the client's and the account's budget, or throws with the time to wait
+    public void checkLogin(String email, String clientIp) throws TooManyRequestsException {
+        long waitMillis = clientIp == null ? 0 : byIp.tryAcquire(clientIp);
+        if (waitMillis == 0 && email != null) {
+            waitMillis = byEmail.tryAcquire(email.trim().toLowerCase());
+        }
+        if (waitMillis > 0) {
+            throw new TooManyRequestsException("Too many login attempts, try again later!",
+                    Math.max(1, (waitMillis + 999) / 1000));
+        }
+    }
+
+    // Drops the buckets of clients and accounts that have not tried to log in for a while
+    @Scheduled(fixedDelayString = "${login.throttle.cleanup-ms:60000}")
+    public void evictIdle() {
+        byEmail.evictIdle();
+        byIp.evictIdle();
+    }
+}
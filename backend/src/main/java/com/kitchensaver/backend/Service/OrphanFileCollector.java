@@ -0,0 +1,199 @@
+package com.kitchensaver.backend.Service;
+
+import com.kitchensaver.backend.Repo.JobImageRepo;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// Deletes files in the upload directory that no job refers to anymore: photos of jobs deleted or replaced before
+// reference counting existed, files whose delete was lost to a crash, resized copies of deleted files and
+// temporary files of uploads that never finished. Reference counting (FileStorageService.release) handles the
+// normal case at once; this is the slow sweep behind it.
+// A pass reads every referenced name in one query, then walks the directory tree with DirectoryStream, a bounded
+// batch of entries at a time. After each batch it sleeps long enough that it is busy only a small share of the
+// time (file.gc.duty-cycle), on one low-priority thread, so it never competes with requests for the disk.
+// The final decision for each file is FileStorageService.deleteUnreferenced, under the same lock as uploads.
+@Service
+public class OrphanFileCollector {
+    private static final Logger logger = LoggerFactory.getLogger(OrphanFileCollector.class); // Logger for debugging and monitoring
+
+    private static final Pattern PREFIX_DIR = Pattern.compile("[0-9a-f]{2}"); // ab/cd/ hash-prefix directories
+
+    private final FileStorageService fileStorageService; // Knows the file names and does the deleting
+    private final JobImageRepo jobImageRepo; // Every file name a job refers to
+    private final boolean enabled; // file.gc.enabled
+    private final int batchSize; // Directory entries handled between pauses
+    private final long minPauseMillis; // Shortest pause between batches
+    private final double dutyCycle; // Share of the time a pass may be working (0.1 = sleeps 9x as long as it works)
+    private final long tempMaxAgeMillis; // Temporary files untouched this long belong to abandoned uploads
+    private final ThreadPoolExecutor executor; // One worker; a pass that is due while one runs is skipped
+
+    // Per-pass state, only touched by the worker thread
+    private long batchStartedAt;
+    private int batchCount;
+    private long scanned;
+    private long deleted;
+    private long freedBytes;
+
+    // Constructor with the pacing from application.properties
+    public OrphanFileCollector(FileStorageService fileStorageService, JobImageRepo jobImageRepo,
+            @Value("${file.gc.enabled:true}") boolean enabled,
+            @Value("${file.gc.batch-size:256}") int batchSize,
+            @Value("${file.gc.min-pause-ms:50}") long minPauseMillis,
+            @Value("${file.gc.duty-cycle:0.1}") double dutyCycle,
+            @Value("${file.gc.temp-max-age-ms:${upload.session.ttl-ms:86400000}}") long tempMaxAgeMillis) {
+        this.fileStorageService = fileStorageService;
+        this.jobImageRepo = jobImageRepo;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.minPauseMillis = minPauseMillis;
+        this.dutyCycle = Math.min(1, Math.max(0.01, dutyCycle));
+        this.tempMaxAgeMillis = tempMaxAgeMillis;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "orphan-file-collector");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    // Starts a pass every few hours (the first a few minutes after startup) on the collector's own thread,
+    // so a long pass never holds up the other scheduled tasks
+    @Scheduled(fixedDelayString = "${file.gc.interval-ms:21600000}", initialDelayString = "${file.gc.initial-delay-ms:300000}")
+    public void schedule() {
+        if (enabled) {
+            executor.execute(this::collect);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow(); // Interrupts the pause of a running pass
+    }
+
+    // One full pass over the upload directory
+    void collect() {
+        Path root = fileStorageService.uploadRoot();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        scanned = 0;
+        deleted = 0;
+        freedBytes = 0;
+        try {
+            // Taken before the walk: a file attached later is protected by its StoredFile row or its age
+            Set<String> referenced = new HashSet<>(jobImageRepo.findAllReferencedFileNames());
+            batchStartedAt = System.nanoTime();
+            batchCount = 0;
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(root)) {
+                for (Path entry : entries) {
+                    String name = entry.getFileName().toString();
+                    if (name.equals(FileStorageService.TEMP_DIR)) {
+                        collectTemp(entry, startedAt - tempMaxAgeMillis);
+                    } else if (PREFIX_DIR.matcher(name).matches() && Files.isDirectory(entry)) {
+                        try (DirectoryStream<Path> subdirectories = Files.newDirectoryStream(entry)) {
+                            for (Path subdirectory : subdirectories) {
+                                if (PREFIX_DIR.matcher(subdirectory.getFileName().toString()).matches()
+                                        && Files.isDirectory(subdirectory)) {
+                                    collectDirectory(subdirectory, referenced);
+                                }
+                            }
+                        }
+                    } else if (Files.isRegularFile(entry)) {
+                        collectFile(entry, referenced); // Stored before content addressing
+                    }
+                    // .originals has its own retention (FileStorageService.purgeOriginals)
+                    pace();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return; // Shutting down
+        } catch (Exception e) {
+            logger.warn("Orphan file collection stopped after {} files: {}", scanned, e.getMessage());
+        }
+        if (deleted > 0) {
+            logger.info("Deleted {} orphaned files ({} bytes) of {} scanned in {} ms", deleted, freedBytes, scanned,
+                    System.currentTimeMillis() - startedAt);
+        }
+    }
+
+    // One ab/cd/ directory of content-addressed files and their resized copies
+    private void collectDirectory(Path directory, Set<String> referenced) throws IOException, InterruptedException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                collectFile(file, referenced);
+                pace();
+            }
+        }
+    }
+
+    // Deletes one file if neither it nor the file it is a resized copy of is referenced
+    private void collectFile(Path file, Set<String> referenced) {
+        scanned++;
+        String name = file.getFileName().toString();
+        String owner = fileStorageService.renditionOwner(name);
+        if (referenced.contains(name) || (owner != null && referenced.contains(owner))) {
+            return;
+        }
+        try {
+            long freed = fileStorageService.deleteUnreferenced(file);
+            if (freed > 0) {
+                deleted++;
+                freedBytes += freed;
+                logger.debug("Deleted orphaned file {}", name);
+            }
+        } catch (IOException e) {
+            logger.debug("Could not delete orphaned file {}: {}", name, e.getMessage()); // Tried again next pass
+        }
+    }
+
+    // Temporary files of uploads that were abandoned or cut off by a restart
+    private void collectTemp(Path tempDir, long cutoff) throws IOException, InterruptedException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(tempDir)) {
+            for (Path file : files) {
+                scanned++;
+                try {
+                    long size = Files.size(file);
+                    if (Files.getLastModifiedTime(file).toMillis() < cutoff && Files.deleteIfExists(file)) {
+                        deleted++;
+                        freedBytes += size;
+                    }
+                } catch (IOException e) {
+                    // Finished or deleted by its upload meanwhile
+                }
+                pace();
+            }
+        }
+    }
+
+    // Counts an entry; after a full batch, sleeps so that work takes at most dutyCycle of the time
+    private void pace() throws InterruptedException {
+        if (++batchCount < batchSize) {
+            return;
+        }
+        long workedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStartedAt);
+        Thread.sleep(Math.max(minPauseMillis, (long) (workedMillis * (1 - dutyCycle) / dutyCycle)));
+        batchStartedAt = System.nanoTime();
+        batchCount = 0;
+    }
+}
@@ -0,0 +1,121 @@
+package com.kitchensaver.backend.Service;
+
+import com.kitchensaver.backend.Exceptions.InvalidRequestException;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+// Stores the photos of a multi-file upload side by side instead of one after the other. Hashing, normalizing
+// (ImageNormalizationService) and moving each part into place runs on a small shared pool, so one site visit
+// with 30 photos costs about as long as its slowest few photos. The pool is bounded for the whole server: when
+// its queue is full the request thread stores the next photo itself, which slows that upload down instead of
+// piling up work.
+@Service
+public class ParallelUploadService {
+
+    private final FileStorageService fileStorageService; // Stores one file by content
+    private final int maxFiles; // Photos accepted in one request
+    private final ThreadPoolExecutor executor; // Upload workers shared by all requests
+
+    // Constructor with the limits from application.properties
+    public ParallelUploadService(FileStorageService fileStorageService,
+            @Value("${upload.parallel.threads:4}") int threads,
+            @Value("${upload.parallel.queue-size:64}") int queueSize,
+            @Value("${upload.parallel.max-files:50}") int maxFiles) {
+        this.fileStorageService = fileStorageService;
+        this.maxFiles = maxFiles;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "upload-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    // Stores every file and returns their stored names in the order they were sent.
+    // Every part is checked before any is stored. If a file then fails, the ones not started yet are cancelled
+    // and the running ones are waited for (they read the request's temporary files); the whole upload fails,
+    // and files already stored are unreferenced and cleaned up later.
+    public List<String> storeAll(List<MultipartFile> files) throws Exception {
+        if (files == null || files.isEmpty()) {
+            throw new InvalidRequestException("No files to upload!");
+        }
+        if (files.size() > maxFiles) {
+            throw new InvalidRequestException("Too many files! At most " + maxFiles + " per request");
+        }
+
+        for (MultipartFile file : files) {
+            if (file == null || file.isEmpty()) {
+                throw new InvalidRequestException("File " + (file == null ? "" : file.getOriginalFilename()) + " is empty!");
+            }
+        }
+
+        List<Future<String>> stored = new ArrayList<>();
+        for (MultipartFile file : files) {
+            stored.add(executor.submit(() -> fileStorageService.storeFile(file)));
+        }
+
+        List<String> names = new ArrayList<>();
+        Exception failure = null;
+        boolean interrupted = false;
+        for (Future<String> future : stored) {
+            while (true) {
+                try {
+                    names.add(future.get()); // Waits for every file, so none is still being read after the request ends
+                    break;
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = new IOException("Failed to store a file: " + e.getCause().getMessage());
+                        cancelPending(stored);
+                    }
+                    break;
+                } catch (CancellationException e) {
+                    break; // Not started before the upload failed
+                } catch (InterruptedException e) {
+                    interrupted = true; // Still waits for this file if it is running, then gives up
+                    if (failure == null) {
+                        failure = e;
+                        cancelPending(stored);
+                    }
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return names;
+    }
+
+    // Drops the files still waiting in the queue; those already running cannot be stopped safely mid-write
+    private static void cancelPending(List<Future<String>> stored) {
+        for (Future<String> future : stored) {
+            future.cancel(false);
+        }
+    }
+
+    // Stops the workers when the application shuts down
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
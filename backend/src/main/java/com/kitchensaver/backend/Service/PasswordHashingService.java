@@ -0,0 +1,170 @@
+package com.kitchensaver.backend.Service;
+
+import com.kitchensaver.backend.DTO.PasswordHashingStats;
+import com.kitchensaver.backend.Exceptions.TooManyRequestsException;
+
+import jakarta.annotation.PreDestroy;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+// Runs BCrypt (hashing and checking passwords) on its own small pool instead of the request threads.
+// The pool has one thread per core and a short queue: when logins arrive faster than the CPU can hash
+// them, the extra ones are refused at once (429) rather than tying up every Tomcat worker on BCrypt,
+// which keeps the job endpoints responsive during a burst or a credential-stuffing attempt.
+//
+// The BCrypt cost is calibrated at startup: the highest cost whose hash still takes no longer than
+// password.hashing.target-ms on this machine (never below BCrypt's default of 10). New hashes are stored
+// as "{bcrypt}$2a$<cost>$...". Older hashes (no prefix, or a lower cost) still match, and
+// needsUpgrade tells the login to store a fresh hash once the password is known to be right.
+@Service
+public class PasswordHashingService {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class); // Logger for debugging and monitoring
+
+    private static final int MIN_STRENGTH = 10; // BCrypt's default, calibration never goes lower
+    private static final int MAX_STRENGTH = 16; // ~64x the default, beyond that logins take seconds
+    private static final String ENCODING_ID = "bcrypt"; // Prefix of hashes made with the current settings
+
+    private final int strength; // BCrypt cost in use
+    private final double calibratedMillis; // Measured time of one hash at that cost
+    private final PasswordEncoder passwordEncoder; // This helps secure passwords
+    private final ThreadPoolExecutor executor; // Dedicated BCrypt threads
+    private final long timeoutMillis; // Longest a request waits for its hash before giving up
+    private final AtomicLong hashCount = new AtomicLong(); // Hashes computed since startup
+    private final AtomicLong hashNanos = new AtomicLong(); // Time spent on them
+
+    // Constructor with the cost target and pool limits from application.properties (threads default to the number of cores).
+    // password.hashing.strength fixes the cost instead of calibrating it.
+    public PasswordHashingService(
+            @Value("${password.hashing.strength:0}") int fixedStrength,
+            @Value("${password.hashing.target-ms:250}") long targetMillis,
+            @Value("${password.hashing.threads:0}") int threads,
+            @Value("${password.hashing.queue-size:32}") int queueSize,
+            @Value("${password.hashing.timeout-ms:3000}") long timeoutMillis) {
+        this.strength = fixedStrength > 0 ? fixedStrength : calibrate(targetMillis);
+        this.calibratedMillis = measure(strength, 1);
+        this.passwordEncoder = delegatingEncoder(strength);
+        logger.info("BCrypt cost {} takes {} ms per hash", strength, String.format("%.1f", calibratedMillis));
+
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()); // A full queue rejects instead of blocking the caller
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // The encoder in use, for Spring Security's DaoAuthenticationProvider (it hashes on the caller's thread)
+    public PasswordEncoder getPasswordEncoder() {
+        return passwordEncoder;
+    }
+
+    // Checks a password against its stored hash
+    public boolean matches(String rawPassword, String encodedPassword) throws TooManyRequestsException {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    // Hashes a new password
+    public String encode(String rawPassword) throws TooManyRequestsException {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    // True if the stored hash was made with an older algorithm or a lower cost than the current one (no hashing involved)
+    public boolean needsUpgrade(String encodedPassword) {
+        return encodedPassword != null && passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    // Cost in use, calibrated and observed hash times and the queue length, for GET /api/user/passwordHashing
+    public PasswordHashingStats getStats() {
+        long count = hashCount.get();
+        double averageMillis = count == 0 ? 0 : hashNanos.get() / 1_000_000d / count;
+        return new PasswordHashingStats(strength, calibratedMillis, count, averageMillis,
+                executor.getQueue().size(), executor.getActiveCount());
+    }
+
+    // "{bcrypt}" hashes use the calibrated cost; hashes without a prefix (stored before) are checked as plain BCrypt
+    private static PasswordEncoder delegatingEncoder(int strength) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(ENCODING_ID,
+                Map.of(ENCODING_ID, new BCryptPasswordEncoder(strength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
+    }
+
+    // Highest cost whose hash fits the target. Each step doubles the work, so one measurement at the minimum is enough.
+    private static int calibrate(long targetMillis) {
+        measure(MIN_STRENGTH, 1); // Warm up the JIT before timing
+        double millis = measure(MIN_STRENGTH, 3);
+        int calibrated = MIN_STRENGTH;
+        while (calibrated < MAX_STRENGTH && millis * 2 <= targetMillis) {
+            calibrated++;
+            millis *= 2;
+        }
+        return calibrated;
+    }
+
+    // Average time of one hash at the given cost, in milliseconds
+    private static double measure(int strength, int rounds) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            encoder.encode("calibration-password");
+        }
+        return (System.nanoTime() - start) / 1_000_000d / rounds;
+    }
+
+    private <T> T run(Callable<T> task) throws TooManyRequestsException {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    hashNanos.addAndGet(System.nanoTime() - start);
+                    hashCount.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("Server is busy, try again shortly!", 1);
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true); // Skipped if it has not started yet
+            throw new TooManyRequestsException("Server is busy, try again shortly!", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TooManyRequestsException("Request interrupted!", 1);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    // Stops the pool when the application shuts down
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
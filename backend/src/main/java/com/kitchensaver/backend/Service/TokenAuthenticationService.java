@@ -0,0 +1,149 @@
+package com.kitchensaver.backend.Service;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.kitchensaver.backend.Exceptions.InvalidCredentialsException;
+import com.kitchensaver.backend.Repo.UserRepo;
+import com.kitchensaver.backend.model.AuthenticatedUser;
+import com.kitchensaver.backend.model.Role;
+import com.kitchensaver.backend.model.Users;
+import com.kitchensaver.backend.util.JwtUtil;
+
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+// Turns a bearer token into the caller's identity for JwtAuthenticationFilter.
+// A token is verified (signature, expiry) and checked against the users table the first time it is seen;
+// after that it is answered from a bounded in-memory cache until it expires, so ordinary API calls
+// cost neither an HMAC check nor a users select. Authorities come from the signed role claim.
+// Cached entries are re-checked against the database every few minutes, and invalidateUser drops
+// them at once when a user is deleted or their role or email changes.
+// The cache is a ConcurrentHashMap, so requests never wait for each other: a full cache first drops expired
+// entries, then arbitrary ones (approximate eviction, one thread at a time), down to 90% of its size.
+@Service
+public class TokenAuthenticationService {
+
+    // Identity carried by a verified token. cachedUntil is when it must be verified again;
+    // jti, issuedAt and expiresAt are the token's own claims (revocation check and logout).
+    public record VerifiedToken(AuthenticatedUser user, List<GrantedAuthority> authorities, long cachedUntil,
+            String jti, Date issuedAt, Date expiresAt) {
+    }
+
+    // Authorities are the same for everyone with a role, so they are built once
+    private static final Map<Role, List<GrantedAuthority>> AUTHORITIES = new EnumMap<>(Role.class);
+    static {
+        for (Role role : Role.values()) {
+            AUTHORITIES.put(role, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+    }
+
+    private final UserRepo userRepo; // Confirms the user still exists with the token's role
+    private final TokenRevocationService tokenRevocationService; // Logged out tokens and users
+    private final int maxSize; // Most tokens kept
+    private final long recheckMillis; // How long a verified token is trusted before the user is looked up again
+    private final Map<String, VerifiedToken> cache = new ConcurrentHashMap<>(); // Token -> identity
+    private final AtomicLong invalidations = new AtomicLong(); // Bumped by invalidateUser
+    private final AtomicBoolean evicting = new AtomicBoolean(); // Only one request trims a full cache
+
+    // Constructor injection; the cache size and re-check interval can be tuned in application.properties
+    public TokenAuthenticationService(UserRepo userRepo, TokenRevocationService tokenRevocationService,
+            @Value("${jwt.cache.max-size:10000}") int maxSize,
+            @Value("${jwt.cache.recheck-ms:300000}") long recheckMillis) {
+        this.userRepo = userRepo;
+        this.tokenRevocationService = tokenRevocationService;
+        this.maxSize = maxSize;
+        this.recheckMillis = recheckMillis;
+    }
+
+    // Returns the identity behind the token, or throws if the token is invalid, expired or no longer matches the user
+    public VerifiedToken authenticate(String token) throws Exception {
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = cache.get(token);
+        if (cached != null && cached.cachedUntil() > now) {
+            checkNotRevoked(cached); // Revocation is checked on every request, cached or not
+            return cached;
+        }
+        if (cached != null) {
+            cache.remove(token, cached);
+        }
+        long seenInvalidations = invalidations.get();
+
+        DecodedJWT decodedJWT = JwtUtil.verifyToken(token); // Throws for a bad signature or an expired token
+        String email = decodedJWT.getSubject();
+        String roleClaim = decodedJWT.getClaim("role").asString();
+        Long userId = decodedJWT.getClaim("id").asLong();
+
+        // The token must still describe a real user: deleted users and changed roles or emails are refused
+        Users user = userRepo.findByEmail(email)
+                .orElseThrow(() -> new InvalidCredentialsException("User not found!"));
+        Role role = user.getRole();
+        if (role == null || !role.name().equals(roleClaim) || !Objects.equals(user.getId(), userId)) {
+            throw new InvalidCredentialsException("Token no longer matches the user!");
+        }
+
+        long cachedUntil = now + recheckMillis;
+        if (decodedJWT.getExpiresAt() != null) {
+            cachedUntil = Math.min(cachedUntil, decodedJWT.getExpiresAt().getTime()); // Never trusted past its expiry
+        }
+        VerifiedToken verified = new VerifiedToken(new AuthenticatedUser(userId, email, role), AUTHORITIES.get(role),
+                cachedUntil, decodedJWT.getId(), decodedJWT.getIssuedAt(), decodedJWT.getExpiresAt());
+        checkNotRevoked(verified);
+        if (cache.size() >= maxSize) {
+            evict(now);
+        }
+        cache.put(token, verified);
+        if (invalidations.get() != seenInvalidations) {
+            cache.remove(token, verified); // A user changed meanwhile, the lookup may be stale
+        }
+        return verified;
+    }
+
+    // Trims a full cache: expired entries first, then whatever the iteration meets first (roughly random)
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return; // Another request is already trimming; going a little over the limit meanwhile is fine
+        }
+        try {
+            cache.values().removeIf(verified -> verified.cachedUntil() <= now);
+            int target = maxSize - Math.max(1, maxSize / 10);
+            Iterator<String> tokens = cache.keySet().iterator();
+            while (cache.size() > target && tokens.hasNext()) {
+                tokens.next();
+                tokens.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    // Throws if the token was revoked by logout (only in-memory lookups, no database access)
+    private void checkNotRevoked(VerifiedToken verified) throws InvalidCredentialsException {
+        if (tokenRevocationService.isRevoked(verified.jti(), verified.user().id(), verified.issuedAt())) {
+            throw new InvalidCredentialsException("Token has been revoked!");
+        }
+    }
+
+    // Invalidation hook: forgets every cached token of this user, so their next request is checked
+    // against the database again (call after deleting a user or changing their role or email)
+    public void invalidateUser(String email) {
+        invalidations.incrementAndGet(); // First, so a lookup that started before is not cached
+        cache.values().removeIf(verified -> verified.user().email().equals(email));
+    }
+
+    // Same as invalidateUser, for callers that only know the user's id
+    public void invalidateUser(Long userId) {
+        invalidations.incrementAndGet();
+        cache.values().removeIf(verified -> Objects.equals(verified.user().id(), userId));
+    }
+}
@@ -0,0 +1,155 @@
+package com.kitchensaver.backend.Service;
+
+import com.kitchensaver.backend.Repo.RevokedTokenRepo;
+import com.kitchensaver.backend.Repo.UserTokenRevocationRepo;
+import com.kitchensaver.backend.model.RevokedToken;
+import com.kitchensaver.backend.model.UserTokenRevocation;
+
+import jakarta.annotation.PostConstruct;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// Revoked tokens (logout) and revoked users (log out everywhere), checked on every authenticated request.
+// Everything is answered from memory: a Bloom filter over the revoked token ids says "certainly not revoked"
+// for almost every token with a few array reads, and only a possible hit is confirmed in the exact set.
+// User-wide revocations are a map of user id -> cutoff time. Both are written to the database as well,
+// reloaded at startup, and dropped once the revoked tokens would have expired anyway.
+@Service
+public class TokenRevocationService {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class); // Logger for debugging and monitoring
+
+    private static final int BLOOM_BITS = 1 << 20; // 128 KB, under 1% false positives up to ~100k revoked tokens
+    private static final int BLOOM_HASHES = 4; // Bits set per token id
+
+    private final RevokedTokenRepo revokedTokenRepo; // Persisted token revocations
+    private final UserTokenRevocationRepo userTokenRevocationRepo; // Persisted user-wide revocations
+    private final long tokenLifetimeMillis; // jwt.expiration, how long a user-wide revocation must be kept
+
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>(); // Token id -> expiry (ms)
+    private final Map<Long, UserTokenRevocation> revokedUsers = new ConcurrentHashMap<>(); // User id -> cutoff
+    private volatile AtomicLongArray bloom = new AtomicLongArray(BLOOM_BITS / 64); // Replaced when expired ids are purged
+
+    // Constructor injection for the repositories and the token lifetime
+    public TokenRevocationService(RevokedTokenRepo revokedTokenRepo, UserTokenRevocationRepo userTokenRevocationRepo,
+            @Value("${jwt.expiration}") long tokenLifetimeMillis) {
+        this.revokedTokenRepo = revokedTokenRepo;
+        this.userTokenRevocationRepo = userTokenRevocationRepo;
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+    }
+
+    // Loads the revocations that are still in force, so a restart does not bring revoked tokens back
+    @PostConstruct
+    public void load() {
+        Date now = new Date();
+        for (RevokedToken revoked : revokedTokenRepo.findByExpiresAtAfter(now)) {
+            revokedTokens.put(revoked.getJti(), revoked.getExpiresAt().getTime());
+        }
+        for (UserTokenRevocation revocation : userTokenRevocationRepo.findByExpiresAtAfter(now)) {
+            revokedUsers.put(revocation.getUserId(), revocation);
+        }
+        rebuildBloom();
+        logger.info("Loaded {} revoked tokens and {} revoked users", revokedTokens.size(), revokedUsers.size());
+    }
+
+    // True if the token was revoked by logout, or issued before its user logged out everywhere.
+    // jti may be null (tokens issued before token ids existed), as may issuedAt (then any user-wide revocation applies).
+    public boolean isRevoked(String jti, Long userId, Date issuedAt) {
+        if (jti != null && mightContain(bloom, jti) && revokedTokens.containsKey(jti)) {
+            return true;
+        }
+        if (revokedUsers.isEmpty() || userId == null) {
+            return false;
+        }
+        UserTokenRevocation revocation = revokedUsers.get(userId);
+        return revocation != null && (issuedAt == null || !issuedAt.after(revocation.getRevokedBefore()));
+    }
+
+    // Revokes one token (logout). A token without an id or expiry can only be revoked with all of its user's tokens.
+    public void revokeToken(String jti, Long userId, Date expiresAt) {
+        if (jti == null || expiresAt == null) {
+            revokeAllForUser(userId);
+            return;
+        }
+        revokedTokenRepo.save(new RevokedToken(jti, userId, expiresAt));
+        synchronized (this) {
+            revokedTokens.put(jti, expiresAt.getTime()); // Exact set first, so a Bloom hit always finds it
+            addToBloom(bloom, jti);
+        }
+    }
+
+    // Revokes every token the user holds right now (log out everywhere); tokens issued later still work
+    public void revokeAllForUser(Long userId) {
+        Date now = new Date();
+        UserTokenRevocation revocation = new UserTokenRevocation(userId, now,
+                new Date(now.getTime() + tokenLifetimeMillis));
+        userTokenRevocationRepo.save(revocation);
+        revokedUsers.put(userId, revocation);
+    }
+
+    // Forgets revocations of tokens that have expired by now, hourly, and rebuilds the Bloom filter without them
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-ms:3600000}")
+    public void purgeExpired() {
+        Date now = new Date();
+        revokedTokenRepo.deleteExpired(now);
+        userTokenRevocationRepo.deleteExpired(now);
+        revokedUsers.values().removeIf(revocation -> !revocation.getExpiresAt().after(now));
+        if (revokedTokens.values().removeIf(expiresAt -> expiresAt <= now.getTime())) {
+            rebuildBloom();
+        }
+    }
+
+    // Builds a fresh filter from the exact set and swaps it in
+    private synchronized void rebuildBloom() {
+        AtomicLongArray fresh = new AtomicLongArray(BLOOM_BITS / 64);
+        revokedTokens.keySet().forEach(jti -> addToBloom(fresh, jti));
+        bloom = fresh;
+    }
+
+    private static void addToBloom(AtomicLongArray bits, String jti) {
+        long hash = hash64(jti);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = bitIndex(hash, i);
+            long mask = 1L << bit;
+            bits.getAndUpdate(bit >>> 6, word -> word | mask);
+        }
+    }
+
+    private static boolean mightContain(AtomicLongArray bits, String jti) {
+        long hash = hash64(jti);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = bitIndex(hash, i);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // i-th probe by double hashing (the two halves of one 64-bit hash)
+    private static int bitIndex(long hash, int i) {
+        int combined = (int) hash + i * (int) (hash >>> 32);
+        return (combined & Integer.MAX_VALUE) % BLOOM_BITS;
+    }
+
+    // FNV-1a over the characters, then a final mix so the two halves are independent
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
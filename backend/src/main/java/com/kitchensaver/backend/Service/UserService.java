@@ -1,13 +1,13 @@
 // Importing necessary libraries
 package com.kitchensaver.backend.Service;
 
-import com.auth0.jwt.interfaces.DecodedJWT; // For decoding JWT tokens
 import com.kitchensaver.backend.DTO.LoginRequest; // Data Transfer Object for login request
 import com.kitchensaver.backend.DTO.UserRequest; // Data Transfer Object for user registration request
 import com.kitchensaver.backend.DTO.UserResponse; // Data Transfer Object for user response after login or registration
 import com.kitchensaver.backend.Exceptions.EmailAlreadyExistsException; // Exception for existing email
 import com.kitchensaver.backend.Exceptions.InvalidCredentialsException; // Exception for invalid credentials
 import com.kitchensaver.backend.Exceptions.InvalidRequestException; // Exception for invalid user request
+import com.kitchensaver.backend.Exceptions.TooManyRequestsException; // Exception for throttled logins
 import com.kitchensaver.backend.Exceptions.UsernameAlreadyExistsException; // Exception for existing username
 import com.kitchensaver.backend.model.Role; // Role model (ADMIN, CABINET_MAKER, INSTALLER)
 import com.kitchensaver.backend.model.Users; // User model to interact with the user data
@@ -16,13 +16,10 @@ import com.kitchensaver.backend.Repo.UserRepo; // Repository to interact with th
 import org.springframework.security.core.userdetails.UserDetails; // UserDetails for user authentication
 import org.springframework.security.core.userdetails.UserDetailsService; // UserDetailsService to load user by username
 import org.springframework.security.core.userdetails.UsernameNotFoundException; // Exception for user not found
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder; // For password encryption
 import org.springframework.stereotype.Service; // Service annotation for spring beans
 
 import com.kitchensaver.backend.util.JwtUtil; // Utility class for handling JWT generation and verification
 
-import jakarta.servlet.http.HttpServletRequest; // For accessing HTTP request
-
 import java.util.List;
 import java.util.Optional; // Optional to handle null values safely
 
@@ -33,13 +30,18 @@ import org.slf4j.LoggerFactory; // LoggerFactory to create the logger
 @Service
 public class UserService implements UserDetailsService {
     private final UserRepo userRepo; // This helps save and find users in the database
-    private final BCryptPasswordEncoder passwordEncoder; // This helps secure passwords
+    private final PasswordHashingService passwordEncoder; // This helps secure passwords (on a bounded pool)
+    private final LoginThrottleService loginThrottleService; // Limits login attempts per account and per IP
+    private final TokenAuthenticationService tokenAuthenticationService; // Cache of verified tokens, told when a user changes
     private static final Logger logger = LoggerFactory.getLogger(UserService.class); // Logger for tracking events
 
-    // Constructor for injecting UserRepo and initializing password encoder
-    public UserService(UserRepo userRepo) {
+    // Constructor for injecting UserRepo, the password hashing and login throttling services and TokenAuthenticationService
+    public UserService(UserRepo userRepo, PasswordHashingService passwordHashingService,
+            LoginThrottleService loginThrottleService, TokenAuthenticationService tokenAuthenticationService) {
         this.userRepo = userRepo;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.passwordEncoder = passwordHashingService;
+        this.loginThrottleService = loginThrottleService;
+        this.tokenAuthenticationService = tokenAuthenticationService;
     }
 
     // Registers a new user based on the UserRequest data
@@ -177,6 +179,9 @@ public class UserService implements UserDetailsService {
             // Save the updated user to the database
             userRepo.save(user);
 
+            // Role or email may have changed, so the user's tokens must be checked again
+            tokenAuthenticationService.invalidateUser(user.getId());
+
             return new UserResponse("User updated successfully", "", user);
 
         } catch (InvalidRequestException e) {
@@ -188,8 +193,11 @@ public class UserService implements UserDetailsService {
         }
     }
 
-    // Authenticates a user by email and password
-    public UserResponse loginUser(LoginRequest request) {
+    // Authenticates a user by email and password. Throws TooManyRequestsException when the client or the
+    // account has used up its login attempts, or when the server is too busy to check the password now.
+    public UserResponse loginUser(LoginRequest request, String clientIp) throws TooManyRequestsException {
+        // Throttle before any database or BCrypt work is done
+        loginThrottleService.checkLogin(request.getEmail(), clientIp);
         try {
             // Try to find the user by their email
             Optional<Users> userOptional = userRepo.findByEmail(request.getEmail());
@@ -205,11 +213,23 @@ public class UserService implements UserDetailsService {
                 throw new InvalidCredentialsException("Invalid credentials!");
             }
 
+            // The password is known to be right, so a hash made with an older algorithm or cost can be replaced now
+            if (passwordEncoder.needsUpgrade(user.getPassword())) {
+                try {
+                    user.setPassword(passwordEncoder.encode(request.getPassword()));
+                    userRepo.save(user);
+                } catch (TooManyRequestsException e) {
+                    logger.debug("Password rehash for user {} deferred, hashing pool busy", user.getId()); // Retried on a later login
+                }
+            }
+
             // Generate JWT token
             String token = JwtUtil.generateToken(user.getEmail(), user.getRole().name(), user.getId());
 
             return new UserResponse("User login successfully", token, user);
 
+        } catch (TooManyRequestsException e) {
+            throw e; // Answered with 429 by the controller
         } catch (InvalidCredentialsException e) {
             return new UserResponse(e.getMessage(), "");
         } catch (Exception e) {
@@ -226,6 +246,7 @@ public class UserService implements UserDetailsService {
     // Deletes a user by ID
     public void deleteUser(Long id) {
         userRepo.deleteById(id);
+        tokenAuthenticationService.invalidateUser(id); // Cached tokens of the deleted user stop working now
     }
 
     // Loads user by email for Spring Security authentication
@@ -241,15 +262,9 @@ public class UserService implements UserDetailsService {
                 .build();
     }
 
-    public UserResponse updateProfile(UserRequest request, HttpServletRequest httpServletRequest) {
+    // Updates the profile of the signed-in user (email comes from their verified token)
+    public UserResponse updateProfile(UserRequest request, String email) {
         try {
-            // Get the JWT token from the request header
-            String token = httpServletRequest.getHeader("Authorization").replace("Bearer ", "");
-    
-            // Decode the JWT token to get the user's email
-            DecodedJWT decodedJWT = JwtUtil.verifyToken(token);
-            String email = decodedJWT.getSubject();
-    
             // Find the user in the database by email
             Optional<Users> userOptional = userRepo.findByEmail(email);
     
@@ -294,6 +309,9 @@ public class UserService implements UserDetailsService {
             // Save the updated user to the database
             userRepo.save(user);
     
+            // The email may have changed, so tokens issued for the old one must be checked again
+            tokenAuthenticationService.invalidateUser(user.getId());
+    
             // Clear the password before returning user data
             user.setPassword("");
     
@@ -333,21 +351,4 @@ public class UserService implements UserDetailsService {
             return new UserResponse(e.getMessage(), "");
         }
     }
-
-    // Retrieves the email from the JWT token provided in the HTTP request
-    public String getEmailFromToken(HttpServletRequest httpServletRequest) {
-        try {
-            // Retrieves the JWT token from the Authorization header
-            String token = httpServletRequest.getHeader("Authorization").replace("Bearer ", "");
-
-            // Decodes the JWT token to get the email
-            DecodedJWT decodedJWT = JwtUtil.verifyToken(token);
-            String email = decodedJWT.getSubject();
-
-            // Returns the email in the response
-            return email;
-        } catch (Exception e) {
-            return "User not found";
-        }
-    }
 }
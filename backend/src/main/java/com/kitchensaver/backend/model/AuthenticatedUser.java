@@ -0,0 +1,11 @@
+package com.kitchensaver.backend.model; // Defines the package where this class belongs
+
+// The signed-in user, as read from their verified JWT by JwtAuthenticationFilter.
+// It is the principal of the request's Authentication, so controllers receive it with
+// @AuthenticationPrincipal instead of decoding the Authorization header again.
+public record AuthenticatedUser(
+        Long id, // User id (token "id" claim)
+        String email, // User email (token subject)
+        Role role // User role (token "role" claim)
+) {
+}
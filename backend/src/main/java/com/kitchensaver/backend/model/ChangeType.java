@@ -0,0 +1,11 @@
+package com.kitchensaver.backend.model;
+
+// enum that defines what happened to a job in the change log
+
+public enum ChangeType {
+    // The job was created or updated, clients should (re)load it
+    UPSERT,
+
+    // The job was deleted or is no longer visible to this user, clients should drop it
+    DELETE
+}
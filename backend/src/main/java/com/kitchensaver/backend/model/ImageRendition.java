@@ -0,0 +1,38 @@
+package com.kitchensaver.backend.model;
+
+import java.util.Locale;
+
+// enum that defines the resized copies made of every job image (?size= on /api/files/{filename})
+
+public enum ImageRendition {
+    // Small preview for the job grid
+    THUMB(200),
+
+    // Larger preview for a single job
+    MEDIUM(800);
+
+    private final int maxSide; // Longest side in pixels
+
+    ImageRendition(int maxSide) {
+        this.maxSide = maxSide;
+    }
+
+    public int getMaxSide() {
+        return maxSide;
+    }
+
+    // Name used in URLs and file names ("thumb", "medium")
+    public String param() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    // Rendition for a ?size= value, or null if there is no such rendition
+    public static ImageRendition fromParam(String value) {
+        for (ImageRendition rendition : values()) {
+            if (rendition.param().equalsIgnoreCase(value)) {
+                return rendition;
+            }
+        }
+        return null;
+    }
+}
@@ -1,16 +1,38 @@
 package com.kitchensaver.backend.model; // Defines the package where this class belongs
 
 import jakarta.persistence.*; // Imports JPA (Jakarta Persistence API) annotations for ORM (Object-Relational Mapping)
+import org.hibernate.annotations.ColumnDefault; // Default value for the column when it is added to existing tables
 import java.util.Date; // Imports the Date class for handling job due dates
 
 // Marks this class as an entity, meaning it will be mapped to a database table
+// The indexes match the filters and sorts used by JobSpecifications (InnoDB appends the id to each one,
+// which also makes them usable for keyset paging)
 @Entity
+@Table(name = "job", indexes = {
+        @Index(name = "idx_job_office_status", columnList = "office, status"),
+        @Index(name = "idx_job_installer_status", columnList = "installer_id, status"),
+        @Index(name = "idx_job_cabinet_maker_status", columnList = "cabinet_maker_id, status"),
+        @Index(name = "idx_job_due_date", columnList = "due_date"),
+        @Index(name = "idx_job_job_number", columnList = "job_number")
+})
 public class Job {
 
+    public static final int ID_ALLOCATION_SIZE = 50; // Ids reserved per trip to id_sequences
+
     // Declares the primary key for the table and specifies that it is auto-generated
+    // Ids come from the id_sequences table in blocks of 50 (pooled), so inserts need no round trip for the
+    // generated key and Hibernate can send them as JDBC batches (IDENTITY disables insert batching)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id; 
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "job_id")
+    @TableGenerator(name = "job_id", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "job", allocationSize = Job.ID_ALLOCATION_SIZE)
+    private Long id;
+
+    // Optimistic locking: bumped on every update, a write based on an older version fails instead of overwriting
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
     
     private String jobNumber; // Unique identifier for the job
     private String jobName; // Name or description of the job
@@ -19,12 +41,13 @@ public class Job {
     private int numLowers; // Number of lower (base) cabinets
 
     // Many-to-One relationship with the Users entity (Cabinet Maker)
-    @ManyToOne
+    // LAZY so listing jobs never triggers one users select per row; list queries fetch-join it instead
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cabinet_maker_id") // Foreign key column in the database
     private Users cabinetMaker;
 
     // Many-to-One relationship with the Users entity (Installer)
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "installer_id") // Foreign key column in the database
     private Users installer;
 
@@ -42,6 +65,10 @@ public class Job {
         return id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public String getJobNumber() {
         return jobNumber;
     }
@@ -104,6 +131,10 @@ public class Job {
         this.id = id;
     }
 
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public void setJobNumber(String jobNumber) {
         this.jobNumber = jobNumber;
     }
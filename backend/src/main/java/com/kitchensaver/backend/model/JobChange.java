@@ -0,0 +1,69 @@
+package com.kitchensaver.backend.model;
+
+import jakarta.persistence.*;
+import java.util.Date;
+
+// One row per job write. The auto-increment id is the sync token handed to clients:
+// "give me everything after change 1234" is a primary key range scan.
+@Entity
+@Table(name = "job_change", indexes = {
+        @Index(name = "idx_job_change_installer", columnList = "installer_id, id"),
+        @Index(name = "idx_job_change_cabinet_maker", columnList = "cabinet_maker_id, id")
+})
+public class JobChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY) // Monotonically increasing change number
+    private Long id;
+
+    @Column(nullable = false)
+    private Long jobId; // Job that changed (kept as a plain id so deleted jobs can still be reported)
+
+    @Enumerated(EnumType.STRING) // Store the change type as a string
+    @Column(nullable = false)
+    private ChangeType type;
+
+    @Column(name = "installer_id")
+    private Long installerId; // Installer who should see this change (null if none)
+
+    @Column(name = "cabinet_maker_id")
+    private Long cabinetMakerId; // Cabinet maker who should see this change (null if none)
+
+    @Column(nullable = false)
+    private Date changedAt; // When the change was recorded
+
+    public JobChange() {
+    }
+
+    public JobChange(Long jobId, ChangeType type, Long installerId, Long cabinetMakerId) {
+        this.jobId = jobId;
+        this.type = type;
+        this.installerId = installerId;
+        this.cabinetMakerId = cabinetMakerId;
+        this.changedAt = new Date();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Long getInstallerId() {
+        return installerId;
+    }
+
+    public Long getCabinetMakerId() {
+        return cabinetMakerId;
+    }
+
+    public Date getChangedAt() {
+        return changedAt;
+    }
+}
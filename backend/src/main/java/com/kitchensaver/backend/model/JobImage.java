@@ -0,0 +1,77 @@
+package com.kitchensaver.backend.model;
+
+import jakarta.persistence.*;
+import java.util.Date;
+
+// One photo attached to a job. Every upload adds a row, so crews no longer overwrite each other's photos;
+// Job.image is the cover (normally the newest photo). Each row holds one reference on its StoredFile.
+// The (job_id, id) index serves both the per-job listing (newest first) and the image counts of a job page;
+// the file_name index lets the orphan file collector read every referenced name without touching the table.
+@Entity
+@Table(name = "job_image", indexes = {
+        @Index(name = "idx_job_image_job", columnList = "job_id, id"),
+        @Index(name = "idx_job_image_file", columnList = "file_name")
+})
+public class JobImage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // LAZY: the job is known whenever images are read, it never needs loading through them
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "job_id", nullable = false)
+    private Job job;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName; // Stored file name (content hash), as in /api/files/{filename}
+
+    @Column(name = "uploaded_by")
+    private Long uploadedBy; // User who attached it (plain id so deleting a user keeps the history), null for older photos
+
+    @Column(nullable = false)
+    private Date uploadedAt; // When it was attached
+
+    private Integer width; // Pixels, null when the file is not an image we can read
+    private Integer height;
+
+    public JobImage() {
+    }
+
+    public JobImage(Job job, String fileName, Long uploadedBy, Integer width, Integer height) {
+        this.job = job;
+        this.fileName = fileName;
+        this.uploadedBy = uploadedBy;
+        this.uploadedAt = new Date();
+        this.width = width;
+        this.height = height;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Job getJob() {
+        return job;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Long getUploadedBy() {
+        return uploadedBy;
+    }
+
+    public Date getUploadedAt() {
+        return uploadedAt;
+    }
+
+    public Integer getWidth() {
+        return width;
+    }
+
+    public Integer getHeight() {
+        return height;
+    }
+}
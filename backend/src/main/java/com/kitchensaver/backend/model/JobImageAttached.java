@@ -0,0 +1,5 @@
+package com.kitchensaver.backend.model;
+
+// Published by JobService when a job starts using an image file; its previews are made after the commit
+public record JobImageAttached(String fileName) {
+}
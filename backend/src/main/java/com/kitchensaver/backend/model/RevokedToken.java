@@ -0,0 +1,43 @@
+package com.kitchensaver.backend.model;
+
+import jakarta.persistence.*;
+import java.util.Date;
+
+// One row per token revoked by logout, identified by its "jti" claim.
+// The row is only needed until the token would have expired anyway.
+@Entity
+@Table(name = "revoked_token", indexes = {
+        @Index(name = "idx_revoked_token_expires_at", columnList = "expires_at")
+})
+public class RevokedToken {
+
+    @Id
+    @Column(length = 36)
+    private String jti; // Token id (a UUID)
+
+    private Long userId; // User the token belonged to
+
+    @Column(name = "expires_at", nullable = false)
+    private Date expiresAt; // When the token expires (the row can be deleted after this)
+
+    public RevokedToken() {
+    }
+
+    public RevokedToken(String jti, Long userId, Date expiresAt) {
+        this.jti = jti;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+}
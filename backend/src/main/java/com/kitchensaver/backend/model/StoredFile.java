@@ -0,0 +1,52 @@
+package com.kitchensaver.backend.model;
+
+import jakarta.persistence.*;
+import java.util.Date;
+
+// One row per uploaded file content. The name is the SHA-256 of the bytes plus the extension, so an identical
+// upload finds the existing row instead of storing the bytes again. refCount counts the jobs whose image it is;
+// the file may only be deleted once that is zero (and it was not uploaded again recently).
+@Entity
+@Table(name = "stored_file", indexes = {
+        @Index(name = "idx_stored_file_ref_count", columnList = "ref_count")
+})
+public class StoredFile {
+
+    @Id
+    @Column(length = 80)
+    private String name; // "<sha256 hex>.<extension>", the name in JobResponse.image and /api/files/{filename}
+
+    @Column(nullable = false)
+    private long size; // Bytes
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount; // Jobs using this file
+
+    @Column(name = "last_uploaded_at", nullable = false)
+    private Date lastUploadedAt; // Last time someone uploaded this content (protects it until it is attached)
+
+    public StoredFile() {
+    }
+
+    public StoredFile(String name, long size, Date lastUploadedAt) {
+        this.name = name;
+        this.size = size;
+        this.lastUploadedAt = lastUploadedAt;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public Date getLastUploadedAt() {
+        return lastUploadedAt;
+    }
+}
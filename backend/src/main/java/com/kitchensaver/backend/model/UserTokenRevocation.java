@@ -0,0 +1,43 @@
+package com.kitchensaver.backend.model;
+
+import jakarta.persistence.*;
+import java.util.Date;
+
+// "Every token of this user issued up to revokedBefore is revoked" (log out everywhere).
+// The row is only needed until the last of those tokens would have expired anyway.
+@Entity
+@Table(name = "user_token_revocation", indexes = {
+        @Index(name = "idx_user_token_revocation_expires_at", columnList = "expires_at")
+})
+public class UserTokenRevocation {
+
+    @Id
+    private Long userId; // User whose tokens are revoked
+
+    @Column(nullable = false)
+    private Date revokedBefore; // Tokens issued at or before this moment are revoked
+
+    @Column(name = "expires_at", nullable = false)
+    private Date expiresAt; // When the last revoked token expires (the row can be deleted after this)
+
+    public UserTokenRevocation() {
+    }
+
+    public UserTokenRevocation(Long userId, Date revokedBefore, Date expiresAt) {
+        this.userId = userId;
+        this.revokedBefore = revokedBefore;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Date getRevokedBefore() {
+        return revokedBefore;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,86 @@
+package com.kitchensaver.backend.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Reads the EXIF orientation tag (0x0112) of a JPEG. Phones store photos as the sensor saw them and only
+// record how they should be turned; ImageIO ignores the tag, so it has to be applied by hand.
+// Values: 1 normal, 2 mirrored, 3 upside down, 4 flipped, 5 transposed, 6 turned right, 7 transversed, 8 turned left.
+public final class ExifOrientation {
+
+    public static final int NORMAL = 1;
+
+    private static final int ORIENTATION_TAG = 0x0112;
+    private static final int MAX_APP1_BYTES = 65535; // A JPEG segment length is 16 bits
+
+    private ExifOrientation() {
+    }
+
+    // The orientation of the file, NORMAL if it is not a JPEG or has no (readable) tag
+    public static int read(Path jpeg) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(jpeg)))) {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return NORMAL; // No start-of-image marker
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                    return NORMAL; // Image data reached (EXIF always comes before it) or a broken file
+                }
+                int length = in.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return NORMAL;
+                }
+                if (marker == 0xFFE1 && length <= MAX_APP1_BYTES) {
+                    byte[] segment = new byte[length];
+                    in.readFully(segment);
+                    int orientation = fromApp1(segment);
+                    if (orientation != 0) {
+                        return orientation;
+                    }
+                } else {
+                    in.skipNBytes(length);
+                }
+            }
+        } catch (EOFException e) {
+            return NORMAL;
+        } catch (IOException | RuntimeException e) {
+            return NORMAL; // Unreadable metadata is treated as absent
+        }
+    }
+
+    // "Exif\0\0", then a TIFF header (byte order, 42, offset of IFD0); 0 if the segment has no orientation
+    private static int fromApp1(byte[] segment) {
+        if (segment.length < 14 || segment[0] != 'E' || segment[1] != 'x' || segment[2] != 'i' || segment[3] != 'f') {
+            return 0;
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(segment, 6, segment.length - 6).slice();
+        if (tiff.get(0) == 'I' && tiff.get(1) == 'I') {
+            tiff.order(ByteOrder.LITTLE_ENDIAN);
+        } else if (tiff.get(0) != 'M' || tiff.get(1) != 'M') {
+            return 0;
+        }
+        int ifd = tiff.getInt(4);
+        if (ifd < 8 || ifd + 2 > tiff.limit()) {
+            return 0;
+        }
+        int entries = tiff.getShort(ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12; // tag (2), type (2), count (4), value (4)
+            if (entry + 12 > tiff.limit()) {
+                return 0;
+            }
+            if ((tiff.getShort(entry) & 0xFFFF) == ORIENTATION_TAG) {
+                int value = tiff.getShort(entry + 8) & 0xFFFF; // SHORT values sit in the first bytes of the field
+                return value >= 1 && value <= 8 ? value : 0;
+            }
+        }
+        return 0;
+    }
+}
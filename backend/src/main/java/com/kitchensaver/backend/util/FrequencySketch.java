@@ -0,0 +1,81 @@
+package com.kitchensaver.backend.util;
+
+// Approximate access counts for any number of keys in a fixed, small table (TinyLFU's count-min sketch).
+// Every key maps to four 4-bit counters; its frequency is the smallest of them, so collisions can only
+// overestimate. After 10 increments per table slot all counters are halved, so popularity fades over time
+// and a file that was hot last week does not stay in the cache forever. Not thread-safe, callers lock.
+public class FrequencySketch {
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+            0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L; // Clears the bit shifted in from the next counter
+
+    private final long[] table; // 16 counters of 4 bits per word
+    private final int mask;
+    private final int sampleSize; // Increments between two halvings
+    private int additions;
+
+    // Table sized for about the number of keys the cache will hold
+    public FrequencySketch(int expectedKeys) {
+        int size = Integer.highestOneBit(Math.max(16, expectedKeys - 1) << 1);
+        this.table = new long[size];
+        this.mask = size - 1;
+        this.sampleSize = 10 * size;
+    }
+
+    // Estimated number of recent accesses (0 to 15)
+    public int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long h = mix(hash, i);
+            frequency = Math.min(frequency, (int) ((table[index(h)] >>> offset(h)) & 0xfL));
+        }
+        return frequency;
+    }
+
+    // Counts one access
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            long h = mix(hash, i);
+            int index = index(h);
+            int offset = offset(h);
+            if (((table[index] >>> offset) & 0xfL) != 0xfL) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    // Halves every counter
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 17;
+        hash *= 0xed5ad4bb;
+        hash ^= hash >>> 11;
+        return hash;
+    }
+
+    private static long mix(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        return h ^ (h >>> 32);
+    }
+
+    private int index(long h) {
+        return (int) h & mask;
+    }
+
+    private static int offset(long h) {
+        return (int) ((h >>> 40) & 0xfL) << 2;
+    }
+}
@@ -0,0 +1,148 @@
+package com.kitchensaver.backend.util;
+
+import com.kitchensaver.backend.Exceptions.UnsupportedImageException;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Locale;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+// Decoding, scaling and encoding of stored images with ImageIO, shared by the renditions and the upload
+// normalization. Images are decoded already scaled down by the decoder (subsampling), which keeps large phone
+// photos from being unpacked at full resolution on the heap. Encoded files carry no metadata.
+public final class ImageCodec {
+
+    // A decoded image, with the format it was stored in ("jpeg", "png", ...) and its size before subsampling
+    public record Decoded(BufferedImage image, String format, int sourceWidth, int sourceHeight) {
+    }
+
+    private ImageCodec() {
+    }
+
+    // Reads the image, letting the decoder skip pixels so the result is still at least twice targetSide.
+    // Throws UnsupportedImageException when no decoder can read the file, other IOExceptions when the file cannot be read.
+    public static Decoded decode(Path source, int targetSide) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in == null ? Collections.emptyIterator() : ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new UnsupportedImageException("not a supported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int step = Math.max(1, Math.max(width, height) / (targetSide * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return new Decoded(reader.read(0, param), reader.getFormatName().toLowerCase(Locale.ROOT), width,
+                        height);
+            } catch (IIOException e) {
+                throw new UnsupportedImageException("cannot decode image: " + e.getMessage()); // Damaged or unsupported variant
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Width and height from the image header (no pixels are decoded), or null if it is not an image ImageIO reads
+    public static int[] dimensions(Path source) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in == null ? Collections.emptyIterator() : ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return new int[] { reader.getWidth(0), reader.getHeight(0) };
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    // Fits the image into maxSide x maxSide, halving first so the bilinear steps keep detail
+    public static BufferedImage scale(BufferedImage image, int maxSide, boolean alpha) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double factor = Math.min(1.0, (double) maxSide / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * factor));
+        int targetHeight = Math.max(1, (int) Math.round(height * factor));
+        BufferedImage current = image;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height,
+                    alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(current, 0, 0, width, height, null);
+            graphics.dispose();
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    // Turns the image upright according to its EXIF orientation (see ExifOrientation)
+    public static BufferedImage orient(BufferedImage image, int orientation, boolean alpha) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0); // Mirrored
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h); // Upside down
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h); // Flipped
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0); // Transposed
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0); // Turned right
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w); // Transversed
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w); // Turned left
+            default -> null;
+        };
+        if (transform == null) {
+            return image;
+        }
+        boolean swap = orientation >= 5;
+        BufferedImage upright = new BufferedImage(swap ? h : w, swap ? w : h,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = upright.createGraphics();
+        graphics.drawImage(image, transform, null);
+        graphics.dispose();
+        return upright;
+    }
+
+    // Writes the image as "jpg" (at the given quality, 0 to 1) or "png"
+    public static void write(BufferedImage image, String format, Path target, float jpegQuality) throws IOException {
+        if ("png".equals(format)) {
+            ImageIO.write(image, "png", target.toFile());
+            return;
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
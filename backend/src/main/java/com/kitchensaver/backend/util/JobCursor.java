@@ -0,0 +1,106 @@
+package com.kitchensaver.backend.util;
+
+import com.kitchensaver.backend.Exceptions.InvalidRequestException;
+import com.kitchensaver.backend.model.Job;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+// Opaque keyset cursor for paging through jobs.
+// A cursor remembers the sort key, the direction and the sort value + id of the last job on a page,
+// so the next page can start right after it without using OFFSET.
+public class JobCursor {
+
+    // Sort keys that can be used for paging (all of them end with "id" as tie-breaker)
+    public static final List<String> SORT_KEYS = List.of("dueDate", "id", "status", "office");
+
+    private final String sortKey; // Field the page is sorted by
+    private final boolean ascending; // Sort direction
+    private final Long lastId; // Id of the last job on the previous page
+    private final Object lastValue; // Sort value of the last job on the previous page (may be null)
+
+    public JobCursor(String sortKey, boolean ascending, Long lastId, Object lastValue) {
+        this.sortKey = sortKey;
+        this.ascending = ascending;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    // Builds the cursor that points right after the given job
+    public static JobCursor after(Job job, String sortKey, boolean ascending) {
+        Object value;
+        switch (sortKey) {
+            case "dueDate" -> value = job.getDueDate();
+            case "status" -> value = job.getStatus();
+            case "office" -> value = job.getOffice();
+            default -> value = job.getId();
+        }
+        return new JobCursor(sortKey, ascending, job.getId(), value);
+    }
+
+    // Checks that the sort key is one we can page on
+    public static String checkSortKey(String sortKey) throws InvalidRequestException {
+        if (!SORT_KEYS.contains(sortKey)) {
+            throw new InvalidRequestException("Invalid sort! Allowed values: " + String.join(", ", SORT_KEYS));
+        }
+        return sortKey;
+    }
+
+    // Turns the cursor into a URL-safe token: "sortKey|asc|id|n" for a null value, "sortKey|asc|id|v<value>" otherwise
+    public String encode() {
+        String value;
+        if (lastValue == null) {
+            value = "n";
+        } else if (lastValue instanceof Date date) {
+            value = "v" + date.getTime(); // Dates are stored as epoch millis
+        } else {
+            value = "v" + lastValue;
+        }
+        String raw = sortKey + "|" + (ascending ? "asc" : "desc") + "|" + lastId + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Reads a token created by encode() back into a cursor
+    public static JobCursor decode(String token) throws InvalidRequestException {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4); // The value is last so it may contain '|'
+            String sortKey = checkSortKey(parts[0]);
+            boolean ascending = "asc".equals(parts[1]);
+            Long lastId = Long.parseLong(parts[2]);
+
+            Object lastValue = null;
+            if (parts[3].startsWith("v")) {
+                String value = parts[3].substring(1);
+                switch (sortKey) {
+                    case "dueDate" -> lastValue = new Date(Long.parseLong(value));
+                    case "id" -> lastValue = Long.parseLong(value);
+                    default -> lastValue = value;
+                }
+            }
+            return new JobCursor(sortKey, ascending, lastId, lastValue);
+        } catch (InvalidRequestException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new InvalidRequestException("Invalid cursor!");
+        }
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public Object getLastValue() {
+        return lastValue;
+    }
+}
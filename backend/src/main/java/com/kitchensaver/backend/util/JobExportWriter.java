@@ -0,0 +1,140 @@
+package com.kitchensaver.backend.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.kitchensaver.backend.DTO.JobResponse;
+import com.kitchensaver.backend.Exceptions.InvalidRequestException;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+// Writes jobs for GET /api/jobs/export one at a time straight to the response, nothing is collected first.
+// NDJSON: one JobResponse object per line.
+// CSV: a header row, then one job per line. The columns use the JobRequest field names, so an export
+// can be edited and sent back to POST /api/jobs/import.
+public abstract class JobExportWriter implements Closeable {
+
+    // Opens a writer for the requested format (ndjson or csv)
+    public static JobExportWriter open(OutputStream out, String format, ObjectMapper objectMapper) throws Exception {
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return new Ndjson(out, objectMapper);
+        }
+        if ("csv".equalsIgnoreCase(format)) {
+            return new Csv(out);
+        }
+        throw new InvalidRequestException("Export format must be ndjson or csv!");
+    }
+
+    // Checks the format before the response is started
+    public static String contentType(String format) throws InvalidRequestException {
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return "application/x-ndjson";
+        }
+        if ("csv".equalsIgnoreCase(format)) {
+            return "text/csv;charset=UTF-8";
+        }
+        throw new InvalidRequestException("Export format must be ndjson or csv!");
+    }
+
+    // Writes one job
+    public abstract void write(JobResponse job) throws IOException;
+
+    // Sends what has been written so far to the client
+    public abstract void flush() throws IOException;
+
+    // One JSON object per line
+    private static final class Ndjson extends JobExportWriter {
+        private final JsonGenerator generator;
+        private final ObjectWriter writer;
+
+        private Ndjson(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.writer = objectMapper.writerFor(JobResponse.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE); // Flushed per chunk, not per job
+        }
+
+        @Override
+        public void write(JobResponse job) throws IOException {
+            writer.writeValue(generator, job);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    // RFC 4180 CSV, fields with commas, quotes or line breaks are quoted
+    private static final class Csv extends JobExportWriter {
+        private static final String[] HEADER = { "id", "version", "jobNumber", "jobName", "numCabinets", "numUppers",
+                "numLowers", "cabinetMakerId", "cabinetMakerName", "installerId", "installerName", "dueDate", "jobColor",
+                "office", "status", "materialOrderStatus", "materialArrivalStatus", "image" };
+        private static final DateTimeFormatter DAY = DateTimeFormatter.ISO_LOCAL_DATE.withZone(ZoneOffset.UTC);
+
+        private final Writer out;
+
+        private Csv(OutputStream out) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writeRow((Object[]) HEADER);
+        }
+
+        @Override
+        public void write(JobResponse job) throws IOException {
+            writeRow(job.getId(), job.getVersion(), job.getJobNumber(), job.getJobName(), job.getNumCabinets(),
+                    job.getNumUppers(), job.getNumLowers(), job.getCabinetMakerId(), job.getCabinetMakerName(),
+                    job.getInstallerId(), job.getInstallerName(), day(job.getDueDate()), job.getJobColor(),
+                    job.getOffice(), job.getStatus(), job.getMaterialOrderStatus(), job.getMaterialArrivalStatus(),
+                    job.getImage());
+        }
+
+        private void writeRow(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                if (values[i] != null) {
+                    out.write(escape(values[i].toString()));
+                }
+            }
+            out.write("\r\n");
+        }
+
+        // Due dates are calendar days, written the way the import reads them (yyyy-MM-dd)
+        private static String day(Date date) {
+            return date == null ? null : DAY.format(date.toInstant());
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.kitchensaver.backend.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kitchensaver.backend.DTO.JobRequest;
+import com.kitchensaver.backend.Exceptions.InvalidRequestException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads jobs for POST /api/jobs/import one row at a time, so an import of any size never sits in memory at once.
+// CSV: a header row with JobRequest property names (jobNumber, jobName, cabinetMakerId, dueDate, ...), then one job per line.
+// JSON: an array of JobRequest objects.
+// A row that cannot be converted to a JobRequest is returned with an error instead of ending the import.
+public abstract class JobImportReader implements Closeable {
+
+    // One parsed row: number counts data rows from 1, error is set when the row could not be read
+    public record Row(int number, JobRequest request, String error) {
+    }
+
+    protected final ObjectMapper objectMapper; // Converts each row to a JobRequest the same way @RequestBody does
+    private int rowNumber; // Number of the last row returned
+
+    protected JobImportReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // Opens a reader for the request body based on its content type (text/csv or application/json)
+    public static JobImportReader open(InputStream in, String contentType, ObjectMapper objectMapper) throws Exception {
+        String type = contentType == null ? "" : contentType.toLowerCase();
+        if (type.startsWith("text/csv")) {
+            return new Csv(in, objectMapper);
+        }
+        if (type.startsWith("application/json")) {
+            return new Json(in, objectMapper);
+        }
+        throw new InvalidRequestException("Import must be text/csv or application/json!");
+    }
+
+    // Returns the next row, or null when the input is exhausted
+    public Row next() throws Exception {
+        Object raw = readRaw();
+        if (raw == null) {
+            return null;
+        }
+        rowNumber++;
+        try {
+            return new Row(rowNumber, objectMapper.convertValue(raw, JobRequest.class), null);
+        } catch (IllegalArgumentException e) {
+            String reason = String.valueOf(e.getMessage()).split("\n", 2)[0]; // Drop Jackson's location line
+            return new Row(rowNumber, null, "Unreadable row: " + reason);
+        }
+    }
+
+    // Reads the next row in its raw form (a map of columns or a JSON tree), or null at the end
+    protected abstract Object readRaw() throws Exception;
+
+    // CSV rows, RFC 4180 style: commas separate fields, quoted fields may contain commas, quotes ("") and line breaks
+    private static final class Csv extends JobImportReader {
+        private final BufferedReader reader;
+        private final List<String> header;
+
+        private Csv(InputStream in, ObjectMapper objectMapper) throws Exception {
+            super(objectMapper);
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            this.header = readRecord();
+            if (header == null) {
+                throw new InvalidRequestException("CSV import has no header row!");
+            }
+            if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+                header.set(0, header.get(0).substring(1)); // Drop the byte order mark Excel puts in front
+            }
+            header.replaceAll(String::trim);
+        }
+
+        @Override
+        protected Object readRaw() throws IOException {
+            List<String> record;
+            do {
+                record = readRecord();
+            } while (record != null && record.size() == 1 && record.get(0).isBlank()); // Skip empty lines
+            if (record == null) {
+                return null;
+            }
+
+            // Blank cells are left out so they behave like a missing JSON property
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int i = 0; i < Math.min(header.size(), record.size()); i++) {
+                if (!record.get(i).isBlank()) {
+                    row.put(header.get(i), record.get(i).trim());
+                }
+            }
+            return row;
+        }
+
+        // Reads one record (which may span several lines when a quoted field contains line breaks)
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"'); // Escaped quote
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    // JSON array elements, each read as a small tree so only one job is in memory at a time
+    private static final class Json extends JobImportReader {
+        private final JsonParser parser;
+
+        private Json(InputStream in, ObjectMapper objectMapper) throws Exception {
+            super(objectMapper);
+            this.parser = objectMapper.getFactory().createParser(in);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new InvalidRequestException("JSON import must be an array of jobs!");
+            }
+        }
+
+        @Override
+        protected Object readRaw() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            return parser.readValueAsTree();
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
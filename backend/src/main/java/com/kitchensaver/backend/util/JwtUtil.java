@@ -9,6 +9,7 @@ import com.kitchensaver.backend.Service.UserService;
 import jakarta.annotation.PostConstruct;
 
 import java.util.Date;
+import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +23,9 @@ public class JwtUtil {
     // Default secret and expiration time values.
     private static String secret = "secret";
     private static int expirationTime = 86400000; // 1 day in milliseconds
+    // Algorithm and verifier for the current secret, built once and shared (both are thread-safe)
+    private static volatile Algorithm algorithm = Algorithm.HMAC256(secret);
+    private static volatile JWTVerifier verifier = JWT.require(algorithm).build();
     // Logger to log messages related to user service.
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
@@ -30,6 +34,7 @@ public class JwtUtil {
     public void setSecret(String secret) {
         logger.info("secret from env is heree:::" + secret);
         JwtUtil.secret = secret;
+        useSecret(secret);
     }
 
     // This method is used to inject the expiration time from the application properties.
@@ -46,16 +51,24 @@ public class JwtUtil {
         logger.info("secret and expirationTime from env is heree:::" + secret + ":::" + expirationTime);
         JwtUtil.secret = secret;
         JwtUtil.expirationTime = expirationTime;
+        useSecret(secret);
+    }
+
+    // Rebuilds the shared algorithm and verifier for a new secret
+    private static void useSecret(String secret) {
+        Algorithm newAlgorithm = Algorithm.HMAC256(secret);
+        verifier = JWT.require(newAlgorithm).build();
+        algorithm = newAlgorithm;
     }
 
     // Method to generate a JWT token with username, role, and user id, along with expiration time.
     public static String generateToken(String username, String role, Long id) {
-        Algorithm algorithm = Algorithm.HMAC256(secret); // Define the algorithm for encoding
         // Create and return the token
         return JWT.create()
                 .withSubject(username) // Set username as the subject
                 .withClaim("role", role) // Set role as a custom claim
                 .withClaim("id", id) // Set user id as a custom claim
+                .withJWTId(UUID.randomUUID().toString()) // Unique token id, so one token can be revoked (logout)
                 .withIssuedAt(new Date()) // Set the issued date
                 .withExpiresAt(new Date(System.currentTimeMillis() + expirationTime)) // Set expiration time
                 .sign(algorithm); // Sign the token with the algorithm
@@ -63,33 +76,23 @@ public class JwtUtil {
 
     // Method to extract the username from the token.
     public static String extractUsername(String token) {
-        Algorithm algorithm = Algorithm.HMAC256(secret); // Define the algorithm for decoding
-        JWTVerifier verifier = JWT.require(algorithm) // Create JWT verifier with the algorithm
-                .build();
         DecodedJWT decodedJWT = verifier.verify(token); // Verify and decode the token
         return decodedJWT.getSubject(); // Return the username (subject)
     }
 
     // Method to extract the role from the token.
     public static String extractRole(String token) {
-        Algorithm algorithm = Algorithm.HMAC256(secret); // Define the algorithm for decoding
-        JWTVerifier verifier = JWT.require(algorithm) // Create JWT verifier with the algorithm
-                .build();
         DecodedJWT decodedJWT = verifier.verify(token); // Verify and decode the token
         return decodedJWT.getClaim("role").asString(); // Return the role claim as a string
     }
 
     // Method to verify the token and return the decoded JWT object.
     public static DecodedJWT verifyToken(String token) {
-        Algorithm algorithm = Algorithm.HMAC256(secret); // Define the algorithm for decoding
-        JWTVerifier verifier = JWT.require(algorithm).build(); // Create JWT verifier
         return verifier.verify(token); // Verify the token and return the decoded JWT object
     }
 
     // Method to decode the token and return the decoded JWT object.
     public static DecodedJWT decodeToken(String token) {
-        Algorithm algorithm = Algorithm.HMAC256(secret); // Define the algorithm for decoding
-        JWTVerifier verifier = JWT.require(algorithm).build(); // Create JWT verifier
         return verifier.verify(token); // Decode and return the JWT object
     }
 
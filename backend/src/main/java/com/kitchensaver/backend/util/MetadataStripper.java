@@ -0,0 +1,202 @@
+package com.kitchensaver.backend.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+
+// Copies a JPEG or PNG without its metadata, leaving the compressed image data as it is (no decoding, no quality
+// loss, a few ms even for a large photo). Used when re-encoding is not worth it or there is no time for it.
+// JPEG: drops EXIF/XMP (APP1), the other APPn segments and comments, and anything after the end of the image
+// (phones append preview images there). Kept are JFIF (APP0), the ICC colour profile (APP2) and Adobe (APP14,
+// which tells the decoder the colour transform), plus a new EXIF segment holding only the orientation, so a photo
+// that was not turned upright still displays the right way.
+// PNG: drops the text, time and EXIF chunks; the pixels and colour chunks stay.
+public final class MetadataStripper {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+    private static final Set<String> PNG_METADATA_CHUNKS = Set.of("tEXt", "zTXt", "iTXt", "eXIf", "tIME");
+    private static final byte[] ICC_PROFILE = "ICC_PROFILE\0".getBytes(StandardCharsets.US_ASCII);
+
+    private MetadataStripper() {
+    }
+
+    // Writes the stripped copy to target and returns true, or returns false if the source is neither a JPEG
+    // nor a PNG this class can follow (target is then incomplete and must not be used)
+    public static boolean strip(Path source, Path target) throws IOException {
+        int orientation = ExifOrientation.read(source); // NORMAL for PNGs and JPEGs without the tag
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source), BUFFER_SIZE));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE))) {
+            in.mark(PNG_SIGNATURE.length);
+            byte[] signature = new byte[PNG_SIGNATURE.length];
+            int read = in.readNBytes(signature, 0, signature.length);
+            if (read == signature.length && Arrays.equals(signature, PNG_SIGNATURE)) {
+                out.write(signature);
+                return stripPng(in, out);
+            }
+            in.reset();
+            if (read >= 2 && (signature[0] & 0xFF) == 0xFF && (signature[1] & 0xFF) == 0xD8) {
+                return stripJpeg(in, out, orientation);
+            }
+            return false;
+        } catch (EOFException e) {
+            return false; // Cut off before the end of the image
+        }
+    }
+
+    // Marker segments up to the first scan, then the scans (with the tables between them) up to the end of the image
+    private static boolean stripJpeg(DataInputStream in, DataOutputStream out, int orientation) throws IOException {
+        out.writeShort(in.readUnsignedShort()); // SOI
+        boolean orientationWritten = orientation == ExifOrientation.NORMAL;
+        while (true) {
+            int marker = in.readUnsignedShort();
+            if ((marker & 0xFF00) != 0xFF00) {
+                return false; // Not a marker where one must be
+            }
+            while (marker == 0xFFFF) {
+                marker = 0xFF00 | in.readUnsignedByte(); // Fill bytes before a marker
+            }
+            if (marker == 0xFFD9) {
+                out.writeShort(marker);
+                return true; // Image without a scan, nothing else to copy
+            }
+            if (marker >= 0xFFD0 && marker <= 0xFFD7 || marker == 0xFF01) {
+                out.writeShort(marker); // No length field
+                continue;
+            }
+            int length = in.readUnsignedShort();
+            if (length < 2) {
+                return false;
+            }
+            if (marker != 0xFFE0 && !orientationWritten) {
+                writeOrientation(out, orientation); // After JFIF, before everything else
+                orientationWritten = true;
+            }
+            if (marker == 0xFFDA) {
+                out.writeShort(marker);
+                out.writeShort(length);
+                copy(in, out, length - 2);
+                return copyScans(in, out);
+            }
+            if (isJpegMetadata(marker, in, length - 2)) {
+                in.skipNBytes(length - 2);
+            } else {
+                out.writeShort(marker);
+                out.writeShort(length);
+                copy(in, out, length - 2);
+            }
+        }
+    }
+
+    // APPn segments other than JFIF, an ICC profile and Adobe, and comments (peeks at an APP2 without consuming it)
+    private static boolean isJpegMetadata(int marker, DataInputStream in, int length) throws IOException {
+        if (marker == 0xFFFE) {
+            return true; // COM
+        }
+        if (marker < 0xFFE0 || marker > 0xFFEF || marker == 0xFFE0 || marker == 0xFFEE) {
+            return false;
+        }
+        if (marker != 0xFFE2 || length < ICC_PROFILE.length) {
+            return true;
+        }
+        in.mark(ICC_PROFILE.length);
+        byte[] identifier = in.readNBytes(ICC_PROFILE.length);
+        in.reset();
+        return !Arrays.equals(identifier, ICC_PROFILE); // FlashPix and multi-picture data go, the colour profile stays
+    }
+
+    // Entropy-coded data: 0xFF is followed by 0x00 (a stuffed byte) or a restart marker inside a scan; any other
+    // marker is a table or the next scan of a progressive JPEG (copied with its length), until EOI ends the image
+    private static boolean copyScans(DataInputStream in, DataOutputStream out) throws IOException {
+        int current = in.readUnsignedByte();
+        while (true) {
+            if (current != 0xFF) {
+                out.write(current);
+                current = in.readUnsignedByte();
+                continue;
+            }
+            int next = in.readUnsignedByte();
+            while (next == 0xFF) {
+                next = in.readUnsignedByte(); // Fill bytes
+            }
+            out.write(0xFF);
+            out.write(next);
+            if (next == 0xD9) {
+                return true; // EOI; whatever follows (appended previews) is dropped
+            }
+            if (next != 0x00 && (next < 0xD0 || next > 0xD7)) {
+                int length = in.readUnsignedShort();
+                if (length < 2) {
+                    return false;
+                }
+                out.writeShort(length);
+                copy(in, out, length - 2);
+            }
+            current = in.readUnsignedByte();
+        }
+    }
+
+    // APP1 "Exif\0\0" with a big-endian TIFF header and one IFD entry: orientation (SHORT, count 1)
+    private static void writeOrientation(DataOutputStream out, int orientation) throws IOException {
+        out.writeShort(0xFFE1);
+        out.writeShort(2 + 6 + 8 + 2 + 12 + 4);
+        out.write(new byte[] { 'E', 'x', 'i', 'f', 0, 0 });
+        out.write(new byte[] { 'M', 'M' });
+        out.writeShort(42);
+        out.writeInt(8); // IFD0 right after the header
+        out.writeShort(1); // One entry
+        out.writeShort(0x0112);
+        out.writeShort(3); // SHORT
+        out.writeInt(1);
+        out.writeShort(orientation);
+        out.writeShort(0); // Padding of the 4-byte value field
+        out.writeInt(0); // No further IFD
+    }
+
+    // Chunks are length, type, data, CRC; copied or skipped whole, until IEND
+    private static boolean stripPng(DataInputStream in, DataOutputStream out) throws IOException {
+        while (true) {
+            int length = in.readInt();
+            if (length < 0) {
+                return false;
+            }
+            byte[] type = in.readNBytes(4);
+            if (type.length != 4) {
+                return false;
+            }
+            String name = new String(type, StandardCharsets.US_ASCII);
+            if (PNG_METADATA_CHUNKS.contains(name)) {
+                in.skipNBytes(length + 4L);
+                continue;
+            }
+            out.writeInt(length);
+            out.write(type);
+            copy(in, out, length + 4L);
+            if (name.equals("IEND")) {
+                return true;
+            }
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out, long count) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(BUFFER_SIZE, Math.max(1, count))];
+        while (count > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, count));
+            if (read < 0) {
+                throw new EOFException();
+            }
+            out.write(buffer, 0, read);
+            count -= read;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.kitchensaver.backend.util;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Byte contents kept in direct buffers (outside the Java heap, so they add nothing to GC work), bounded by
+// total bytes. Entries are kept in least-recently-used order, and a new entry only displaces old ones when the
+// frequency sketch says it is asked for more often than each of them (TinyLFU admission). That stops a burst
+// of one-off requests from flushing the files that are used all day.
+public class OffHeapLruCache {
+
+    private record Entry(ByteBuffer data, long version) {
+    }
+
+    private final long maxBytes; // Total bytes held at most
+    private final int maxEntryBytes; // Larger contents are never cached
+    private final FrequencySketch sketch;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // Eldest first
+    private long bytes; // Bytes held now
+    private long hits;
+    private long misses;
+    private long evictions; // Entries dropped to make room
+    private long rejections; // Contents not admitted because the entries they would displace are used more
+
+    public OffHeapLruCache(long maxBytes, int maxEntryBytes, int expectedEntries) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    // Read-only view of the cached content (its own position, shares the memory), or null on a miss.
+    // version identifies the content (e.g. size and modification time), an entry with another version is dropped.
+    public synchronized ByteBuffer get(String key, long version) {
+        sketch.increment(key);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version() == version) {
+            hits++;
+            return entry.data().asReadOnlyBuffer();
+        }
+        if (entry != null) {
+            remove(key);
+        }
+        misses++;
+        return null;
+    }
+
+    // True if content of this size would be admitted now (checked before reading it from disk)
+    public synchronized boolean wouldAdmit(String key, long size) {
+        if (size > maxEntryBytes || size > maxBytes) {
+            return false;
+        }
+        if (!canMakeRoom(key, size, false)) {
+            rejections++;
+            return false;
+        }
+        return true;
+    }
+
+    // Adds content (a direct buffer, position 0 to limit). Returns false if it was not admitted.
+    public synchronized boolean put(String key, long version, ByteBuffer data) {
+        int size = data.remaining();
+        if (size > maxEntryBytes || size > maxBytes) {
+            return false;
+        }
+        remove(key);
+        if (!canMakeRoom(key, size, true)) {
+            rejections++;
+            return false;
+        }
+        entries.put(key, new Entry(data, version));
+        bytes += size;
+        return true;
+    }
+
+    // Checks that enough of the least recently used entries are less popular than the candidate, and evicts them if asked
+    private boolean canMakeRoom(String key, long size, boolean evict) {
+        int candidateFrequency = sketch.frequency(key);
+        long freed = 0;
+        int victims = 0;
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes - freed + size > maxBytes) {
+            if (!eldest.hasNext()) {
+                return false;
+            }
+            Map.Entry<String, Entry> victim = eldest.next();
+            if (sketch.frequency(victim.getKey()) >= candidateFrequency) {
+                return false;
+            }
+            freed += victim.getValue().data().capacity();
+            victims++;
+        }
+        if (evict) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            for (int i = 0; i < victims; i++) {
+                bytes -= it.next().getValue().data().capacity();
+                it.remove();
+                evictions++;
+            }
+        }
+        return true;
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= removed.data().capacity();
+        }
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getRejections() {
+        return rejections;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
@@ -0,0 +1,76 @@
+package com.kitchensaver.backend.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Token buckets keyed by a string (an email, an IP address...). Every key may do `capacity` things
+// at once and then `refillPerSecond` more per second. The keys are spread over independently locked
+// stripes, so concurrent requests for different keys rarely wait on each other, and every stripe
+// holds a bounded number of keys (the least recently used key is forgotten first).
+public class StripedTokenBucketLimiter {
+    private static final int STRIPES = 32; // Number of independently locked maps
+
+    private final double capacity; // Largest burst per key
+    private final double refillPerNano; // Tokens added per nanosecond
+    private final List<Map<String, Bucket>> stripes; // STRIPES maps, each guarded by its own monitor
+
+    // Remaining tokens of one key, refilled lazily when the key is next used
+    private static final class Bucket {
+        private double tokens;
+        private long updatedAt;
+
+        private Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    public StripedTokenBucketLimiter(int capacity, double refillPerSecond, int maxKeys) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        int maxKeysPerStripe = Math.max(1, maxKeys / STRIPES);
+        List<Map<String, Bucket>> stripes = new ArrayList<>(STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes.add(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxKeysPerStripe;
+                }
+            });
+        }
+        this.stripes = List.copyOf(stripes);
+    }
+
+    // Takes one token for the key. Returns 0 if it was available, otherwise the milliseconds until it will be.
+    public long tryAcquire(String key) {
+        Map<String, Bucket> stripe = stripes.get((key.hashCode() & Integer.MAX_VALUE) % STRIPES);
+        long now = System.nanoTime();
+        synchronized (stripe) {
+            Bucket bucket = stripe.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now);
+                stripe.put(key, bucket);
+            } else {
+                bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.updatedAt) * refillPerNano);
+                bucket.updatedAt = now;
+            }
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / refillPerNano / 1_000_000d);
+        }
+    }
+
+    // Forgets keys whose bucket has refilled completely (they behave exactly like a new key)
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Map<String, Bucket> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.values().removeIf(bucket -> bucket.tokens + (now - bucket.updatedAt) * refillPerNano >= capacity);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.kitchensaver.backend.Controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.kitchensaver.backend.Repo.UserRepo;
+import com.kitchensaver.backend.Service.FileStorageService;
+import com.kitchensaver.backend.Service.FileUrlSigningService;
+import com.kitchensaver.backend.model.Role;
+import com.kitchensaver.backend.model.Users;
+import com.kitchensaver.backend.util.JwtUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+// Checks who may read GET /api/files/{filename}: a valid signed URL or a logged in user, and only inside the upload directory
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FileAccessTests {
+
+	private static final String FILE = "fileaccess-photo.txt";
+	private static final String OTHER_FILE = "fileaccess-other.txt";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private FileUrlSigningService fileUrlSigningService;
+
+	@Autowired
+	private FileStorageService fileStorageService;
+
+	@Value("${file.url.secret:${jwt.secret}}")
+	private String signingSecret;
+
+	private String userToken;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		Path root = fileStorageService.uploadRoot();
+		Files.createDirectories(root);
+		Files.writeString(root.resolve(FILE), "photo", StandardCharsets.UTF_8);
+		Files.writeString(root.resolve(OTHER_FILE), "other", StandardCharsets.UTF_8);
+		// Next to the upload directory, where no file name may reach
+		Files.writeString(root.getParent().resolve("fileaccess-secret.txt"), "secret", StandardCharsets.UTF_8);
+
+		Users user = userRepo.findByEmail("fileaccess@example.com")
+				.orElseGet(() -> userRepo.save(user("fileaccess", Role.INSTALLER)));
+		userToken = "Bearer " + JwtUtil.generateToken(user.getEmail(), "INSTALLER", user.getId());
+	}
+
+	@Test
+	void signedUrlServesTheFileWithoutAToken() throws Exception {
+		mockMvc.perform(get(fileUrlSigningService.signedUrl(FILE)))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void tamperedSignatureIsRefused() throws Exception {
+		String url = fileUrlSigningService.signedUrl(FILE);
+		int first = url.indexOf("sig=") + 4;
+		char flipped = url.charAt(first) == 'A' ? 'B' : 'A';
+		mockMvc.perform(get(url.substring(0, first) + flipped + url.substring(first + 1)))
+				.andExpect(status().isForbidden());
+
+		// Moving the expiry invalidates the signature too
+		mockMvc.perform(get(url.replaceFirst("expires=(\\d+)", "expires=9$1")))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	void expiredUrlIsRefused() throws Exception {
+		// Same key, one-second windows: the URL is valid for at most two seconds
+		String url = new FileUrlSigningService(signingSecret, 2).signedUrl(FILE);
+		mockMvc.perform(get(url)).andExpect(status().isOk());
+		Thread.sleep(3100);
+		mockMvc.perform(get(url)).andExpect(status().isForbidden());
+	}
+
+	@Test
+	void signatureOfAnotherFileIsRefused() throws Exception {
+		String url = fileUrlSigningService.signedUrl(OTHER_FILE);
+		mockMvc.perform(get(url.replace(OTHER_FILE, FILE)))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	void unsignedRequestNeedsAToken() throws Exception {
+		mockMvc.perform(get("/api/files/" + FILE))
+				.andExpect(status().isUnauthorized());
+		mockMvc.perform(get("/api/files/" + FILE).header(HttpHeaders.AUTHORIZATION, userToken))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/files/" + FILE).header(HttpHeaders.AUTHORIZATION, "Bearer not-a-token"))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void namesCannotLeaveTheUploadDirectory() throws Exception {
+		assertThat(fileStorageService.resolveStoredFile("../fileaccess-secret.txt")).isNull();
+		assertThat(fileStorageService.resolveStoredFile("a/../../fileaccess-secret.txt")).isNull();
+		assertThat(fileStorageService.resolveStoredFile("..")).isNull();
+		assertThat(fileStorageService.resolveStoredFile(FILE)).isNotNull();
+
+		// Even a correctly signed ../ name, or a logged in user, gets nothing outside the directory
+		int signed = mockMvc.perform(get(fileUrlSigningService.signedUrl("../fileaccess-secret.txt")))
+				.andReturn().getResponse().getStatus();
+		assertThat(signed).isBetween(400, 499);
+		int withToken = mockMvc.perform(get("/api/files/{name}", "../fileaccess-secret.txt")
+				.header(HttpHeaders.AUTHORIZATION, userToken))
+				.andReturn().getResponse().getStatus();
+		assertThat(withToken).isBetween(400, 499);
+	}
+
+	private Users user(String name, Role role) {
+		Users user = new Users();
+		user.setFirstName(name);
+		user.setLastName("Test");
+		user.setEmail(name + "@example.com");
+		user.setUsername(name);
+		user.setCell("555-0100");
+		user.setOffice("Main");
+		user.setRole(role);
+		user.setPassword("secret");
+		return user;
+	}
+}
@@ -0,0 +1,170 @@
+package com.kitchensaver.backend.Controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.kitchensaver.backend.Repo.UserRepo;
+import com.kitchensaver.backend.Service.FileStorageService;
+import com.kitchensaver.backend.Service.ImageCacheService;
+import com.kitchensaver.backend.model.Role;
+import com.kitchensaver.backend.model.Users;
+import com.kitchensaver.backend.util.JwtUtil;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+// Checks how GET /api/files/{filename} answers conditional and partial requests: Range gives 206 with the slice,
+// If-Range only allows the slice for the current version, If-None-Match with the current ETag gives 304, and a
+// whole file served from the in-memory cache is byte for byte the one served from disk
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FileServingTests {
+
+	private static final String FILE = "fileserving-photo.jpg";
+	private static final Instant MODIFIED = Instant.parse("2026-01-02T03:04:05Z");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private FileStorageService fileStorageService;
+
+	@Autowired
+	private ImageCacheService imageCacheService;
+
+	private String userToken;
+	private byte[] content;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		content = new byte[20_000];
+		new Random(17).nextBytes(content);
+		Path root = fileStorageService.uploadRoot();
+		Files.createDirectories(root);
+		Path file = root.resolve(FILE);
+		Files.write(file, content);
+		Files.setLastModifiedTime(file, FileTime.from(MODIFIED));
+
+		Users user = userRepo.findByEmail("fileserving@example.com")
+				.orElseGet(() -> userRepo.save(user("fileserving", Role.INSTALLER)));
+		userToken = "Bearer " + JwtUtil.generateToken(user.getEmail(), "INSTALLER", user.getId());
+	}
+
+	@Test
+	void rangeGivesPartialContent() throws Exception {
+		MvcResult result = mockMvc.perform(file().header(HttpHeaders.RANGE, "bytes=100-199"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-199/20000"))
+				.andReturn();
+		assertThat(result.getResponse().getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, 100, 200));
+
+		// Suffix range: the last 50 bytes
+		MvcResult tail = mockMvc.perform(file().header(HttpHeaders.RANGE, "bytes=-50"))
+				.andExpect(status().isPartialContent())
+				.andReturn();
+		assertThat(tail.getResponse().getContentAsByteArray())
+				.isEqualTo(Arrays.copyOfRange(content, content.length - 50, content.length));
+	}
+
+	@Test
+	void ifRangeOnlyAllowsASliceOfTheCurrentVersion() throws Exception {
+		String etag = mockMvc.perform(file()).andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).isNotNull();
+		String lastModified = DateTimeFormatter.RFC_1123_DATE_TIME.format(MODIFIED.atOffset(ZoneOffset.UTC));
+
+		// Same version, by ETag or by date: the slice
+		mockMvc.perform(file().header(HttpHeaders.RANGE, "bytes=0-9").header(HttpHeaders.IF_RANGE, etag))
+				.andExpect(status().isPartialContent());
+		mockMvc.perform(file().header(HttpHeaders.RANGE, "bytes=0-9").header(HttpHeaders.IF_RANGE, lastModified))
+				.andExpect(status().isPartialContent());
+
+		// Another version: the whole current file, so the client does not splice two versions together
+		String olderDate = DateTimeFormatter.RFC_1123_DATE_TIME.format(MODIFIED.minusSeconds(60).atOffset(ZoneOffset.UTC));
+		for (String stale : new String[] { "\"stale-etag\"", olderDate }) {
+			MvcResult result = mockMvc.perform(file().header(HttpHeaders.RANGE, "bytes=0-9")
+					.header(HttpHeaders.IF_RANGE, stale))
+					.andExpect(status().isOk())
+					.andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+					.andReturn();
+			assertThat(result.getResponse().getContentAsByteArray()).isEqualTo(content);
+		}
+	}
+
+	@Test
+	void ifNoneMatchWithTheCurrentEtagIsNotModified() throws Exception {
+		String etag = mockMvc.perform(file()).andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		MvcResult notModified = mockMvc.perform(file().header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag))
+				.andReturn();
+		assertThat(notModified.getResponse().getContentAsByteArray()).isEmpty();
+
+		MvcResult changed = mockMvc.perform(file().header(HttpHeaders.IF_NONE_MATCH, "\"another-version\""))
+				.andExpect(status().isOk())
+				.andReturn();
+		assertThat(changed.getResponse().getContentAsByteArray()).isEqualTo(content);
+	}
+
+	@Test
+	void cacheHitServesTheSameBytesAsTheDisk() throws Exception {
+		long hitsBefore = imageCacheService.getStats().getHits();
+		for (int i = 0; i < 3; i++) {
+			MvcResult result = mockMvc.perform(file())
+					.andExpect(status().isOk())
+					.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+					.andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+					.andReturn();
+			assertThat(result.getResponse().getContentAsByteArray()).as("request %d", i).isEqualTo(content);
+		}
+		assertThat(imageCacheService.getStats().getHits()).isGreaterThan(hitsBefore); // Later ones came from memory
+
+		// A range of a cached file still comes from the file
+		MvcResult range = mockMvc.perform(file().header(HttpHeaders.RANGE, "bytes=5-14"))
+				.andExpect(status().isPartialContent())
+				.andReturn();
+		assertThat(range.getResponse().getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, 5, 15));
+	}
+
+	private MockHttpServletRequestBuilder file() {
+		return get("/api/files/" + FILE).header(HttpHeaders.AUTHORIZATION, userToken);
+	}
+
+	private Users user(String name, Role role) {
+		Users user = new Users();
+		user.setFirstName(name);
+		user.setLastName("Test");
+		user.setEmail(name + "@example.com");
+		user.setUsername(name);
+		user.setCell("555-0100");
+		user.setOffice("Main");
+		user.setRole(role);
+		user.setPassword("secret");
+		return user;
+	}
+}
@@ -0,0 +1,125 @@
+package com.kitchensaver.backend.Controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kitchensaver.backend.Repo.UserRepo;
+import com.kitchensaver.backend.model.Role;
+import com.kitchensaver.backend.model.Users;
+import com.kitchensaver.backend.util.JwtUtil;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+// Checks that the ETag of GET /api/jobs/{id} can be sent back as If-Match on an update
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JobEtagTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private String adminToken;
+	private Users cabinetMaker;
+	private Users installer;
+
+	@BeforeEach
+	void setUp() {
+		Users admin = userRepo.findByEmail("etagadmin@example.com")
+				.orElseGet(() -> userRepo.save(user("etagadmin", Role.ADMIN)));
+		cabinetMaker = userRepo.findByEmail("etagmaker@example.com")
+				.orElseGet(() -> userRepo.save(user("etagmaker", Role.CABINET_MAKER)));
+		installer = userRepo.findByEmail("etaginstaller@example.com")
+				.orElseGet(() -> userRepo.save(user("etaginstaller", Role.INSTALLER)));
+		adminToken = "Bearer " + JwtUtil.generateToken(admin.getEmail(), "ADMIN", admin.getId());
+	}
+
+	@Test
+	void etagFromGetIsAcceptedAsIfMatch() throws Exception {
+		long jobId = createJob("ETAG-1");
+		String etag = mockMvc.perform(get("/api/jobs/" + jobId).header(HttpHeaders.AUTHORIZATION, adminToken))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).isNotNull();
+
+		// Unchanged: the same ETag revalidates
+		mockMvc.perform(get("/api/jobs/" + jobId).header(HttpHeaders.AUTHORIZATION, adminToken)
+				.header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+
+		// The ETag round-trips as If-Match
+		mockMvc.perform(put("/api/jobs/" + jobId).header(HttpHeaders.AUTHORIZATION, adminToken)
+				.header(HttpHeaders.IF_MATCH, etag)
+				.contentType(MediaType.APPLICATION_JSON).content(jobJson("ETAG-1", "Renamed")))
+				.andExpect(status().isOk());
+
+		// Now it is stale: the write is refused and a GET returns the new state
+		mockMvc.perform(put("/api/jobs/" + jobId).header(HttpHeaders.AUTHORIZATION, adminToken)
+				.header(HttpHeaders.IF_MATCH, etag)
+				.contentType(MediaType.APPLICATION_JSON).content(jobJson("ETAG-1", "Again")))
+				.andExpect(status().isPreconditionFailed());
+		mockMvc.perform(get("/api/jobs/" + jobId).header(HttpHeaders.AUTHORIZATION, adminToken)
+				.header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void plainVersionStillWorksAndGarbageIsRejected() throws Exception {
+		long jobId = createJob("ETAG-2");
+		mockMvc.perform(put("/api/jobs/" + jobId).header(HttpHeaders.AUTHORIZATION, adminToken)
+				.header(HttpHeaders.IF_MATCH, "\"0\"")
+				.contentType(MediaType.APPLICATION_JSON).content(jobJson("ETAG-2", "Renamed")))
+				.andExpect(status().isOk());
+		mockMvc.perform(put("/api/jobs/" + jobId).header(HttpHeaders.AUTHORIZATION, adminToken)
+				.header(HttpHeaders.IF_MATCH, "\"not-a-version\"")
+				.contentType(MediaType.APPLICATION_JSON).content(jobJson("ETAG-2", "Again")))
+				.andExpect(status().isBadRequest());
+	}
+
+	private long createJob(String jobNumber) throws Exception {
+		String body = mockMvc.perform(post("/api/jobs").header(HttpHeaders.AUTHORIZATION, adminToken)
+				.contentType(MediaType.APPLICATION_JSON).content(jobJson(jobNumber, "Kitchen")))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		JsonNode job = objectMapper.readTree(body);
+		return job.get("id").asLong();
+	}
+
+	private String jobJson(String jobNumber, String jobName) {
+		return "{\"jobNumber\":\"" + jobNumber + "\",\"jobName\":\"" + jobName + "\",\"cabinetMakerId\":"
+				+ cabinetMaker.getId() + ",\"installerId\":" + installer.getId()
+				+ ",\"dueDate\":\"2026-01-01\",\"office\":\"Main\",\"status\":\"Pending\"}";
+	}
+
+	private Users user(String name, Role role) {
+		Users user = new Users();
+		user.setFirstName(name);
+		user.setLastName("Test");
+		user.setEmail(name + "@example.com");
+		user.setUsername(name);
+		user.setCell("555-0100");
+		user.setOffice("Main");
+		user.setRole(role);
+		user.setPassword("secret");
+		return user;
+	}
+}
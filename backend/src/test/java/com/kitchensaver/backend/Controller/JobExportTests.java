@@ -0,0 +1,165 @@
+package com.kitchensaver.backend.Controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kitchensaver.backend.DTO.JobRequest;
+import com.kitchensaver.backend.DTO.JobResponse;
+import com.kitchensaver.backend.Repo.JobRepo;
+import com.kitchensaver.backend.Repo.UserRepo;
+import com.kitchensaver.backend.model.Job;
+import com.kitchensaver.backend.model.Role;
+import com.kitchensaver.backend.model.Users;
+import com.kitchensaver.backend.util.JobImportReader;
+import com.kitchensaver.backend.util.JwtUtil;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+// Checks GET /api/jobs/export: every job comes out once, and what is written reads back to the same values,
+// through Jackson for NDJSON and through the import's CSV reader for CSV (names with commas, quotes and line breaks)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JobExportTests {
+
+	private static final Date DUE = new Date(1_773_532_800_000L); // 2026-03-15, midnight UTC
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private JobRepo jobRepo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private String adminToken;
+	private List<Job> jobs;
+
+	@BeforeEach
+	void setUp() {
+		Users admin = userRepo.save(user("exportadmin" + System.nanoTime(), Role.ADMIN));
+		adminToken = "Bearer " + JwtUtil.generateToken(admin.getEmail(), "ADMIN", admin.getId());
+		Users cabinetMaker = userRepo.save(user("exportmaker" + System.nanoTime(), Role.CABINET_MAKER));
+		Users installer = userRepo.save(user("exportinstaller" + System.nanoTime(), Role.INSTALLER));
+		String prefix = "EXP-" + System.nanoTime() + "-";
+		jobs = List.of(
+				job(prefix + 1, "Smith, kitchen and pantry", "White, matt", 12, cabinetMaker, installer),
+				job(prefix + 2, "The \"Big\" one", "Oak", 0, cabinetMaker, installer),
+				job(prefix + 3, "Two lines\r\nof name", null, 4, cabinetMaker, installer));
+	}
+
+	@Test
+	void ndjsonExportReadsBackToTheSameJobs() throws Exception {
+		String body = export("ndjson");
+		Map<Long, JobResponse> exported = new HashMap<>();
+		for (String line : body.split("\n")) {
+			JobResponse job = objectMapper.readValue(line, JobResponse.class);
+			assertThat(exported.put(job.getId(), job)).isNull(); // Once each
+		}
+		assertThat(exported).hasSize((int) jobRepo.count());
+
+		for (Job job : jobs) {
+			JobResponse response = exported.get(job.getId());
+			assertThat(response.getJobNumber()).isEqualTo(job.getJobNumber());
+			assertThat(response.getJobName()).isEqualTo(job.getJobName());
+			assertThat(response.getJobColor()).isEqualTo(job.getJobColor());
+			assertThat(response.getNumCabinets()).isEqualTo(job.getNumCabinets());
+			assertThat(response.getCabinetMakerId()).isEqualTo(job.getCabinetMaker().getId());
+			assertThat(response.getInstallerId()).isEqualTo(job.getInstaller().getId());
+			assertThat(response.getDueDate()).isEqualTo(DUE);
+			assertThat(response.getImage()).isEqualTo("cover.jpg"); // The stored name, not a signed URL
+		}
+	}
+
+	@Test
+	void csvExportReadsBackThroughTheImport() throws Exception {
+		String body = export("csv");
+		assertThat(body).contains("\"Smith, kitchen and pantry\"", "\"The \"\"Big\"\" one\"", "\"Two lines\r\nof name\"");
+
+		Map<String, JobRequest> exported = new HashMap<>();
+		try (JobImportReader reader = JobImportReader.open(
+				new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), "text/csv", objectMapper)) {
+			JobImportReader.Row row;
+			while ((row = reader.next()) != null) {
+				assertThat(row.error()).isNull();
+				assertThat(exported.put(row.request().getJobNumber(), row.request())).isNull(); // Once each
+			}
+		}
+		assertThat(exported).hasSize((int) jobRepo.count());
+
+		for (Job job : jobs) {
+			JobRequest request = exported.get(job.getJobNumber());
+			assertThat(request.getJobName()).isEqualTo(job.getJobName());
+			assertThat(request.getJobColor()).isEqualTo(job.getJobColor());
+			assertThat(request.getNumCabinets()).isEqualTo(job.getNumCabinets());
+			assertThat(request.getCabinetMakerId()).isEqualTo(job.getCabinetMaker().getId());
+			assertThat(request.getInstallerId()).isEqualTo(job.getInstaller().getId());
+			assertThat(request.getDueDate()).isEqualTo(DUE);
+			assertThat(request.getOffice()).isEqualTo("Main");
+			assertThat(request.getStatus()).isEqualTo("Pending");
+		}
+	}
+
+	// The export is a streaming body: the request goes async and the rows are written on dispatch
+	private String export(String format) throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/jobs/export").param("format", format)
+				.header(HttpHeaders.AUTHORIZATION, adminToken))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		return mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+	}
+
+	private Job job(String jobNumber, String jobName, String jobColor, int numCabinets, Users cabinetMaker,
+			Users installer) {
+		Job job = new Job();
+		job.setJobNumber(jobNumber);
+		job.setJobName(jobName);
+		job.setJobColor(jobColor);
+		job.setNumCabinets(numCabinets);
+		job.setCabinetMaker(cabinetMaker);
+		job.setInstaller(installer);
+		job.setDueDate(DUE);
+		job.setOffice("Main");
+		job.setStatus("Pending");
+		job.setImage("cover.jpg");
+		return jobRepo.save(job);
+	}
+
+	private Users user(String name, Role role) {
+		Users user = new Users();
+		user.setFirstName(name);
+		user.setLastName("Test");
+		user.setEmail(name + "@example.com");
+		user.setUsername(name);
+		user.setCell("555-0100");
+		user.setOffice("Main");
+		user.setRole(role);
+		user.setPassword("secret");
+		return user;
+	}
+}
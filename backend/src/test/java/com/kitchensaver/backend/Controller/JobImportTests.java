@@ -0,0 +1,151 @@
+package com.kitchensaver.backend.Controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kitchensaver.backend.DTO.JobImportError;
+import com.kitchensaver.backend.DTO.JobImportResult;
+import com.kitchensaver.backend.Repo.JobRepo;
+import com.kitchensaver.backend.Repo.UserRepo;
+import com.kitchensaver.backend.model.Job;
+import com.kitchensaver.backend.model.Role;
+import com.kitchensaver.backend.model.Users;
+import com.kitchensaver.backend.util.JwtUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+// Checks POST /api/jobs/import across several 500-row chunks: skipped rows are reported by row number and
+// reason while the others are imported, and when the body breaks off part way the chunks before stay imported
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JobImportTests {
+
+	private static final int ROWS = 1100; // Two full chunks and part of a third
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private JobRepo jobRepo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private String adminToken;
+	private Users cabinetMaker;
+	private Users installer;
+	private String prefix;
+
+	@BeforeEach
+	void setUp() {
+		Users admin = userRepo.save(user("importadmin" + System.nanoTime(), Role.ADMIN));
+		adminToken = "Bearer " + JwtUtil.generateToken(admin.getEmail(), "ADMIN", admin.getId());
+		cabinetMaker = userRepo.save(user("importmaker" + System.nanoTime(), Role.CABINET_MAKER));
+		installer = userRepo.save(user("importinstaller" + System.nanoTime(), Role.INSTALLER));
+		prefix = "IMP-" + System.nanoTime() + "-";
+	}
+
+	@Test
+	void csvImportReportsSkippedRowsAcrossChunks() throws Exception {
+		Job existing = new Job();
+		existing.setJobNumber(prefix + 10);
+		existing.setJobName("Already there");
+		existing.setCabinetMaker(cabinetMaker);
+		existing.setInstaller(installer);
+		jobRepo.save(existing);
+
+		StringBuilder csv = new StringBuilder("jobNumber,jobName,cabinetMakerId,installerId,dueDate,office,status\r\n");
+		for (int row = 1; row <= ROWS; row++) {
+			String jobNumber = prefix + row;
+			String cabinetMakerId = String.valueOf(cabinetMaker.getId());
+			String installerId = String.valueOf(installer.getId());
+			if (row == 700) {
+				jobNumber = prefix + 3; // Same as a row of the first chunk
+			} else if (row == 900) {
+				cabinetMakerId = "abc"; // Not a number, the row cannot be read
+			} else if (row == 1000) {
+				installerId = String.valueOf(Long.MAX_VALUE); // No such user
+			}
+			csv.append(jobNumber).append(",\"Kitchen, row ").append(row).append("\",").append(cabinetMakerId)
+					.append(',').append(installerId).append(",2026-03-15,Main,Pending\r\n");
+		}
+
+		JobImportResult result = objectMapper.readValue(mockMvc.perform(post("/api/jobs/import")
+				.header(HttpHeaders.AUTHORIZATION, adminToken)
+				.contentType("text/csv").content(csv.toString()))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString(), JobImportResult.class);
+
+		assertThat(result.getImported()).isEqualTo(ROWS - 4);
+		assertThat(result.getFailed()).isEqualTo(4);
+		assertThat(result.getErrors()).extracting(JobImportError::getRow).containsExactly(10, 700, 900, 1000);
+		assertThat(result.getErrors()).extracting(JobImportError::getResult)
+				.containsExactly("DUPLICATE", "DUPLICATE", "INVALID", "INVALID");
+		assertThat(result.getErrors()).extracting(JobImportError::getJobNumber)
+				.containsExactly(prefix + 10, prefix + 3, null, prefix + 1000);
+		assertThat(result.getErrors().get(3).getMessage()).isEqualTo("Installer not found");
+
+		// Every imported row is stored once, the skipped ones are not
+		List<String> numbers = new ArrayList<>();
+		for (int row = 1; row <= ROWS; row++) {
+			numbers.add(prefix + row);
+		}
+		assertThat(jobRepo.findExistingJobNumbers(numbers)).hasSize(ROWS - 3) // Row 700 used another number
+				.doesNotContain(prefix + 700, prefix + 900, prefix + 1000);
+	}
+
+	@Test
+	void chunksBeforeABrokenBodyStayImported() throws Exception {
+		StringBuilder json = new StringBuilder("[");
+		for (int row = 1; row <= 650; row++) {
+			json.append("{\"jobNumber\":\"").append(prefix).append(row).append("\",\"jobName\":\"Kitchen\",")
+					.append("\"cabinetMakerId\":").append(cabinetMaker.getId())
+					.append(",\"installerId\":").append(installer.getId()).append("},");
+		}
+		json.append("{\"jobNumber\":"); // The upload broke off here
+
+		mockMvc.perform(post("/api/jobs/import")
+				.header(HttpHeaders.AUTHORIZATION, adminToken)
+				.contentType(MediaType.APPLICATION_JSON).content(json.toString()))
+				.andExpect(status().isBadRequest());
+
+		// The first chunk (rows 1 to 500) was committed before the error, the rows after it were not
+		List<String> firstChunk = new ArrayList<>();
+		List<String> rest = new ArrayList<>();
+		for (int row = 1; row <= 650; row++) {
+			(row <= 500 ? firstChunk : rest).add(prefix + row);
+		}
+		assertThat(jobRepo.findExistingJobNumbers(firstChunk)).hasSize(500);
+		assertThat(jobRepo.findExistingJobNumbers(rest)).isEmpty();
+	}
+
+	private Users user(String name, Role role) {
+		Users user = new Users();
+		user.setFirstName(name);
+		user.setLastName("Test");
+		user.setEmail(name + "@example.com");
+		user.setUsername(name);
+		user.setCell("555-0100");
+		user.setOffice("Main");
+		user.setRole(role);
+		user.setPassword("secret");
+		return user;
+	}
+}
@@ -0,0 +1,153 @@
+package com.kitchensaver.backend.Controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kitchensaver.backend.Repo.JobRepo;
+import com.kitchensaver.backend.Repo.UserRepo;
+import com.kitchensaver.backend.model.Job;
+import com.kitchensaver.backend.model.Role;
+import com.kitchensaver.backend.model.Users;
+import com.kitchensaver.backend.util.JobCursor;
+import com.kitchensaver.backend.util.JwtUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+// Checks keyset paging of GET /api/jobs: with many equal sort values (and NULLs) every job shows up exactly once
+// across the pages, in both directions and for every sort key, and a cursor that cannot be read is a 400
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JobPagingTests {
+
+	private static final int JOB_COUNT = 23;
+	private static final int PAGE_SIZE = 4;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private JobRepo jobRepo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private String makerToken;
+	private Set<Long> jobIds;
+
+	@BeforeEach
+	void setUp() {
+		// A cabinet maker of their own, so the listing holds exactly the jobs made here
+		Users maker = userRepo.save(user("pagingmaker" + System.nanoTime(), Role.CABINET_MAKER));
+		makerToken = "Bearer " + JwtUtil.generateToken(maker.getEmail(), "CABINET_MAKER", maker.getId());
+		Users installer = userRepo.save(user("paginginstaller" + System.nanoTime(), Role.INSTALLER));
+
+		// Only three due dates, two statuses and one office, plus a few jobs without a due date
+		Date[] dueDates = { new Date(1_700_000_000_000L), new Date(1_700_086_400_000L), new Date(1_700_172_800_000L) };
+		jobIds = new HashSet<>();
+		for (int i = 0; i < JOB_COUNT; i++) {
+			Job job = new Job();
+			job.setJobNumber("PAGE-" + maker.getId() + "-" + i);
+			job.setJobName("Kitchen " + i);
+			job.setCabinetMaker(maker);
+			job.setInstaller(installer);
+			job.setDueDate(i % 7 == 0 ? null : dueDates[i % 3]);
+			job.setStatus(i % 2 == 0 ? "Pending" : "Installed");
+			job.setOffice("Main");
+			jobIds.add(jobRepo.save(job).getId());
+		}
+	}
+
+	@Test
+	void everyJobAppearsExactlyOnceWithDuplicateSortKeys() throws Exception {
+		for (String sort : JobCursor.SORT_KEYS) {
+			for (String direction : List.of("asc", "desc")) {
+				List<Long> seen = listAll(sort, direction);
+				assertThat(seen).as("%s %s", sort, direction).doesNotHaveDuplicates();
+				assertThat(seen).as("%s %s", sort, direction).containsExactlyInAnyOrderElementsOf(jobIds);
+			}
+		}
+	}
+
+	@Test
+	void malformedCursorIsABadRequest() throws Exception {
+		String wrongId = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString("dueDate|asc|abc|v1".getBytes(StandardCharsets.UTF_8));
+		String wrongKey = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString("password|asc|1|vx".getBytes(StandardCharsets.UTF_8));
+		String missingParts = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString("dueDate|asc".getBytes(StandardCharsets.UTF_8));
+		for (String cursor : List.of("not a cursor!", wrongId, wrongKey, missingParts)) {
+			mockMvc.perform(get("/api/jobs").param("sort", "dueDate").param("cursor", cursor)
+					.header(HttpHeaders.AUTHORIZATION, makerToken))
+					.andExpect(status().isBadRequest());
+		}
+
+		// A valid cursor used with a different sort is refused too
+		String dueDateCursor = page("dueDate", "asc", null).get("nextCursor").asText();
+		mockMvc.perform(get("/api/jobs").param("sort", "status").param("cursor", dueDateCursor)
+				.header(HttpHeaders.AUTHORIZATION, makerToken))
+				.andExpect(status().isBadRequest());
+	}
+
+	// Follows nextCursor to the end and returns the job ids in the order they came
+	private List<Long> listAll(String sort, String direction) throws Exception {
+		List<Long> ids = new ArrayList<>();
+		String cursor = null;
+		for (int pages = 0; pages <= JOB_COUNT; pages++) {
+			JsonNode page = page(sort, direction, cursor);
+			assertThat(page.get("jobs").size()).isLessThanOrEqualTo(PAGE_SIZE);
+			page.get("jobs").forEach(job -> ids.add(job.get("id").asLong()));
+			if (page.get("nextCursor").isNull()) {
+				return ids;
+			}
+			cursor = page.get("nextCursor").asText();
+		}
+		throw new AssertionError("Paging by " + sort + " " + direction + " never ended");
+	}
+
+	private JsonNode page(String sort, String direction, String cursor) throws Exception {
+		var request = get("/api/jobs").param("sort", sort).param("direction", direction)
+				.param("limit", String.valueOf(PAGE_SIZE)).header(HttpHeaders.AUTHORIZATION, makerToken);
+		if (cursor != null) {
+			request.param("cursor", cursor);
+		}
+		String body = mockMvc.perform(request).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body);
+	}
+
+	private Users user(String name, Role role) {
+		Users user = new Users();
+		user.setFirstName(name);
+		user.setLastName("Test");
+		user.setEmail(name + "@example.com");
+		user.setUsername(name);
+		user.setCell("555-0100");
+		user.setOffice("Main");
+		user.setRole(role);
+		user.setPassword("secret");
+		return user;
+	}
+}
@@ -0,0 +1,136 @@
+package com.kitchensaver.backend.Controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kitchensaver.backend.Repo.UserRepo;
+import com.kitchensaver.backend.model.Role;
+import com.kitchensaver.backend.model.Users;
+import com.kitchensaver.backend.util.JwtUtil;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+// Checks GET /api/jobs/stream: a committed job change reaches an open stream, a stream opened with
+// Last-Event-ID replays what was missed, and a stream only carries the jobs its user may see
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JobStreamTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private String adminToken;
+	private Users cabinetMaker;
+	private Users installer;
+	private String otherInstallerToken;
+
+	@BeforeEach
+	void setUp() {
+		Users admin = userRepo.findByEmail("streamadmin@example.com")
+				.orElseGet(() -> userRepo.save(user("streamadmin", Role.ADMIN)));
+		cabinetMaker = userRepo.findByEmail("streammaker@example.com")
+				.orElseGet(() -> userRepo.save(user("streammaker", Role.CABINET_MAKER)));
+		installer = userRepo.findByEmail("streaminstaller@example.com")
+				.orElseGet(() -> userRepo.save(user("streaminstaller", Role.INSTALLER)));
+		Users otherInstaller = userRepo.findByEmail("streamother@example.com")
+				.orElseGet(() -> userRepo.save(user("streamother", Role.INSTALLER)));
+		adminToken = "Bearer " + JwtUtil.generateToken(admin.getEmail(), "ADMIN", admin.getId());
+		otherInstallerToken = "Bearer " + JwtUtil.generateToken(otherInstaller.getEmail(), "INSTALLER",
+				otherInstaller.getId());
+	}
+
+	@Test
+	void committedChangeReachesOpenStream() throws Exception {
+		MvcResult stream = open(adminToken, null);
+		MvcResult otherStream = open(otherInstallerToken, null);
+
+		long jobId = createJob("STREAM-LIVE");
+
+		String events = await(stream, "\"jobId\":" + jobId);
+		assertThat(events).contains("event:job-change").contains("\"type\":\"UPSERT\"");
+		assertThat(otherStream.getResponse().getContentAsString()).doesNotContain("\"jobId\":" + jobId);
+	}
+
+	@Test
+	void lastEventIdReplaysMissedChanges() throws Exception {
+		String token = objectMapper.readTree(mockMvc.perform(get("/api/jobs/changes")
+				.header(HttpHeaders.AUTHORIZATION, adminToken))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString()).get("token").asText();
+
+		// Changes made while the dashboard was disconnected
+		long first = createJob("STREAM-MISSED-1");
+		long second = createJob("STREAM-MISSED-2");
+
+		MvcResult stream = open(adminToken, token);
+		String events = await(stream, "\"jobId\":" + second);
+		assertThat(events.indexOf("\"jobId\":" + first)).isGreaterThanOrEqualTo(0)
+				.isLessThan(events.indexOf("\"jobId\":" + second)); // In order
+		assertThat(events.split("\"jobId\":" + first + ",", -1)).hasSize(2); // Exactly once
+	}
+
+	private MvcResult open(String authorization, String lastEventId) throws Exception {
+		var request = get("/api/jobs/stream").header(HttpHeaders.AUTHORIZATION, authorization)
+				.accept(MediaType.TEXT_EVENT_STREAM);
+		if (lastEventId != null) {
+			request.header("Last-Event-ID", lastEventId);
+		}
+		return mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+	}
+
+	// Waits until the stream has written the text (events are sent from the stream's own sender thread)
+	private static String await(MvcResult stream, String text) throws Exception {
+		long deadline = System.currentTimeMillis() + 10_000;
+		String content = stream.getResponse().getContentAsString();
+		while (!content.contains(text) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+			content = stream.getResponse().getContentAsString();
+		}
+		assertThat(content).contains(text);
+		return content;
+	}
+
+	private long createJob(String jobNumber) throws Exception {
+		String body = "{\"jobNumber\":\"" + jobNumber + "-" + System.nanoTime() + "\",\"jobName\":\"Kitchen\","
+				+ "\"cabinetMakerId\":" + cabinetMaker.getId() + ",\"installerId\":" + installer.getId()
+				+ ",\"dueDate\":\"2026-01-01\",\"office\":\"Main\",\"status\":\"Pending\"}";
+		String response = mockMvc.perform(post("/api/jobs").header(HttpHeaders.AUTHORIZATION, adminToken)
+				.contentType(MediaType.APPLICATION_JSON).content(body))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(response).get("id").asLong();
+	}
+
+	private Users user(String name, Role role) {
+		Users user = new Users();
+		user.setFirstName(name);
+		user.setLastName("Test");
+		user.setEmail(name + "@example.com");
+		user.setUsername(name);
+		user.setCell("555-0100");
+		user.setOffice("Main");
+		user.setRole(role);
+		user.setPassword("secret");
+		return user;
+	}
+}
@@ -0,0 +1,93 @@
+package com.kitchensaver.backend.Controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kitchensaver.backend.Repo.UserRepo;
+import com.kitchensaver.backend.Service.PasswordHashingService;
+import com.kitchensaver.backend.model.Role;
+import com.kitchensaver.backend.model.Users;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+// Checks that logging in with a password stored under an older scheme (plain BCrypt without the {bcrypt} prefix,
+// or a lower cost) replaces the stored hash with one at the current cost, and that a wrong password changes nothing
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoginRehashTests {
+
+	private static final String PASSWORD = "correct horse battery";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private PasswordHashingService passwordHashingService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void outdatedHashIsUpgradedOnLogin() throws Exception {
+		String current = "{bcrypt}$2a$" + String.format("%02d", passwordHashingService.getStats().getStrength()) + "$";
+		for (String outdated : new String[] { new BCryptPasswordEncoder(4).encode(PASSWORD),
+				"{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD) }) {
+			Users user = userRepo.save(user("rehash" + System.nanoTime(), outdated));
+			assertThat(passwordHashingService.needsUpgrade(outdated)).isTrue();
+
+			// A wrong password leaves the old hash alone
+			assertThat(login(user, "wrong")).isEmpty();
+			assertThat(userRepo.findById(user.getId()).orElseThrow().getPassword()).isEqualTo(outdated);
+
+			assertThat(login(user, PASSWORD)).isNotEmpty();
+			String upgraded = userRepo.findById(user.getId()).orElseThrow().getPassword();
+			assertThat(upgraded).startsWith(current);
+			assertThat(passwordHashingService.needsUpgrade(upgraded)).isFalse();
+			assertThat(passwordHashingService.matches(PASSWORD, upgraded)).isTrue();
+
+			// Once upgraded, later logins work and keep the hash
+			assertThat(login(user, PASSWORD)).isNotEmpty();
+			assertThat(userRepo.findById(user.getId()).orElseThrow().getPassword()).isEqualTo(upgraded);
+		}
+	}
+
+	// Returns the token of the response (empty when the login was refused)
+	private String login(Users user, String password) throws Exception {
+		String body = mockMvc.perform(post("/api/user/login")
+				.with(request -> {
+					request.setRemoteAddr("10.3.0." + (user.getId() % 200)); // Clear of the other tests' budgets
+					return request;
+				})
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"" + user.getEmail() + "\",\"password\":\"" + password + "\"}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body).path("token").asText("");
+	}
+
+	private Users user(String name, String passwordHash) {
+		Users user = new Users();
+		user.setFirstName(name);
+		user.setLastName("Test");
+		user.setEmail(name + "@example.com");
+		user.setUsername(name);
+		user.setCell("555-0100");
+		user.setOffice("Main");
+		user.setRole(Role.INSTALLER);
+		user.setPassword(passwordHash);
+		return user;
+	}
+}
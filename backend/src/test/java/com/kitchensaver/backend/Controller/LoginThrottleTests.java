@@ -0,0 +1,62 @@
+package com.kitchensaver.backend.Controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+// Checks POST /api/user/login with the default limits: an account gets 5 attempts and a client address 20,
+// after that the answer is 429 with Retry-After, and one account running out does not block the others
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoginThrottleTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void accountIsThrottledAfterItsBurst() throws Exception {
+		String email = "throttled" + System.nanoTime() + "@example.com";
+		for (int i = 0; i < 5; i++) {
+			login(email, "10.1.0." + i).andExpect(status().isOk()); // Wrong credentials, but checked
+		}
+
+		// From a fresh address too: the limit belongs to the account
+		login(email, "10.1.0.99").andExpect(status().isTooManyRequests())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "12"));
+		login(email.toUpperCase(), "10.1.0.98").andExpect(status().isTooManyRequests());
+
+		login("other" + System.nanoTime() + "@example.com", "10.1.0.99").andExpect(status().isOk());
+	}
+
+	@Test
+	void addressIsThrottledAcrossAccounts() throws Exception {
+		String address = "10.2.0." + (System.nanoTime() % 200);
+		for (int i = 0; i < 20; i++) {
+			login("stuffing" + i + "-" + System.nanoTime() + "@example.com", address).andExpect(status().isOk());
+		}
+		login("stuffing-last" + System.nanoTime() + "@example.com", address)
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+	}
+
+	private ResultActions login(String email, String address) throws Exception {
+		return mockMvc.perform(post("/api/user/login")
+				.with(request -> {
+					request.setRemoteAddr(address);
+					return request;
+				})
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"" + email + "\",\"password\":\"wrong\"}"));
+	}
+}
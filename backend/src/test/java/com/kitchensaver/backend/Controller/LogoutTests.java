@@ -0,0 +1,131 @@
+package com.kitchensaver.backend.Controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.kitchensaver.backend.Repo.RevokedTokenRepo;
+import com.kitchensaver.backend.Repo.UserRepo;
+import com.kitchensaver.backend.Repo.UserTokenRevocationRepo;
+import com.kitchensaver.backend.Service.TokenRevocationService;
+import com.kitchensaver.backend.model.Role;
+import com.kitchensaver.backend.model.Users;
+import com.kitchensaver.backend.util.JwtUtil;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+// Checks POST /api/user/logout and /logoutAll: a logged-out token is refused while the user's other tokens keep
+// working, log out everywhere refuses every older token but not the ones issued afterwards, and both still hold
+// for a TokenRevocationService that loaded the revocations from the database (after a restart)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LogoutTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private RevokedTokenRepo revokedTokenRepo;
+
+	@Autowired
+	private UserTokenRevocationRepo userTokenRevocationRepo;
+
+	@Value("${jwt.expiration}")
+	private long tokenLifetimeMillis;
+
+	private Users user;
+
+	@BeforeEach
+	void setUp() {
+		user = userRepo.save(user("logout" + System.nanoTime(), Role.CABINET_MAKER));
+	}
+
+	@Test
+	void loggedOutTokenIsRefused() throws Exception {
+		String token = token();
+		String otherDevice = token();
+		expectJobs(token, status().isOk());
+
+		mockMvc.perform(post("/api/user/logout").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+				.andExpect(status().isOk());
+
+		expectJobs(token, status().isUnauthorized());
+		expectJobs(otherDevice, status().isOk());
+
+		// After a restart the revocation comes back from the database
+		TokenRevocationService restarted = restarted();
+		assertThat(isRevoked(restarted, token)).isTrue();
+		assertThat(isRevoked(restarted, otherDevice)).isFalse();
+	}
+
+	@Test
+	void logoutAllRefusesOlderTokensOnly() throws Exception {
+		String token = token();
+		String otherDevice = token();
+
+		mockMvc.perform(post("/api/user/logoutAll").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+				.andExpect(status().isOk());
+
+		expectJobs(token, status().isUnauthorized());
+		expectJobs(otherDevice, status().isUnauthorized());
+
+		// Token issue times are whole seconds, so a token from the second of the logout counts as older
+		Thread.sleep(1100);
+		String newLogin = token();
+		expectJobs(newLogin, status().isOk());
+
+		TokenRevocationService restarted = restarted();
+		assertThat(isRevoked(restarted, token)).isTrue();
+		assertThat(isRevoked(restarted, otherDevice)).isTrue();
+		assertThat(isRevoked(restarted, newLogin)).isFalse();
+	}
+
+	private void expectJobs(String token, ResultMatcher expected) throws Exception {
+		mockMvc.perform(get("/api/jobs").param("limit", "1").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+				.andExpect(expected);
+	}
+
+	private TokenRevocationService restarted() {
+		TokenRevocationService service = new TokenRevocationService(revokedTokenRepo, userTokenRevocationRepo,
+				tokenLifetimeMillis);
+		service.load();
+		return service;
+	}
+
+	private static boolean isRevoked(TokenRevocationService service, String token) {
+		DecodedJWT decoded = JwtUtil.decodeToken(token);
+		return service.isRevoked(decoded.getId(), decoded.getClaim("id").asLong(), decoded.getIssuedAt());
+	}
+
+	private String token() {
+		return JwtUtil.generateToken(user.getEmail(), user.getRole().name(), user.getId());
+	}
+
+	private Users user(String name, Role role) {
+		Users user = new Users();
+		user.setFirstName(name);
+		user.setLastName("Test");
+		user.setEmail(name + "@example.com");
+		user.setUsername(name);
+		user.setCell("555-0100");
+		user.setOffice("Main");
+		user.setRole(role);
+		user.setPassword("secret");
+		return user;
+	}
+}
@@ -0,0 +1,185 @@
+package com.kitchensaver.backend.Repo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.kitchensaver.backend.DTO.JobFilterRequest;
+import com.kitchensaver.backend.DTO.JobPageResponse;
+import com.kitchensaver.backend.DTO.JobResponse;
+import com.kitchensaver.backend.Service.FileStorageService;
+import com.kitchensaver.backend.Service.FileUrlSigningService;
+import com.kitchensaver.backend.Service.ImageNormalizationService;
+import com.kitchensaver.backend.Service.JobChangeWatermark;
+import com.kitchensaver.backend.Service.JobService;
+import com.kitchensaver.backend.model.Job;
+import com.kitchensaver.backend.model.JobImage;
+import com.kitchensaver.backend.model.Role;
+import com.kitchensaver.backend.model.Users;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+// Checks that listing jobs through JobService costs one SQL statement (plus one for the photo counts of a page),
+// however many jobs, users and photos there are
+@DataJpaTest(properties = {
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class JobRepoQueryCountTests {
+
+	private static final int JOB_COUNT = 12;
+
+	@Autowired
+	private JobRepo jobRepo;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private JobChangeRepo jobChangeRepo;
+
+	@Autowired
+	private StoredFileRepo storedFileRepo;
+
+	@Autowired
+	private JobImageRepo jobImageRepo;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private JobService jobService;
+	private Statistics statistics;
+	private Users cabinetMaker;
+	private Users installer;
+
+	@BeforeEach
+	void setUp() {
+		jobService = new JobService(jobRepo, userRepo, jobChangeRepo, event -> {
+		}, entityManager, new FileUrlSigningService("test-secret", 3600), new FileStorageService(storedFileRepo,
+				new ImageNormalizationService(false, 2560, 0.85f, 524288, 1, 1, 10000)), jobImageRepo,
+				new JobChangeWatermark(jobChangeRepo), transactionManager);
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		// Several cabinet makers and installers so a per-row lookup would show up as extra statements
+		for (int i = 0; i < JOB_COUNT; i++) {
+			Users maker = userRepo.save(user("maker" + i, Role.CABINET_MAKER));
+			Users inst = userRepo.save(user("installer" + i, Role.INSTALLER));
+			if (i == 0) {
+				cabinetMaker = maker;
+				installer = inst;
+			}
+			Job job = new Job();
+			job.setJobNumber("J-" + i);
+			job.setJobName("Kitchen " + i);
+			job.setCabinetMaker(i % 2 == 0 ? cabinetMaker : maker);
+			job.setInstaller(i % 2 == 0 ? installer : inst);
+			job.setDueDate(new Date(1_700_000_000_000L + i * 86_400_000L));
+			job.setOffice("Main");
+			job.setStatus("Pending");
+			jobRepo.save(job);
+			for (int photo = 0; photo < i % 3; photo++) {
+				jobImageRepo.save(new JobImage(job, "photo-" + i + "-" + photo + ".jpg", null, 800, 600)); // 0 to 2 photos
+			}
+		}
+
+		// Start every query from an empty persistence context so nothing is served from memory
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void allJobsLoadsUsersAndImageCountsInTwoStatements() {
+		JobPageResponse page = countStatements(2, () -> list(() -> jobService.getAllJobs("dueDate", "asc", null, 50)));
+		assertThat(page.getJobs()).hasSize(JOB_COUNT);
+		assertThat(page.getJobs()).allSatisfy(job -> assertThat(job.getInstallerName()).isNotBlank());
+	}
+
+	@Test
+	void cabinetMakerJobsLoadUsersAndImageCountsInTwoStatements() {
+		JobPageResponse page = countStatements(2, () -> list(
+				() -> jobService.getJobsByCabinetMakerId(cabinetMaker.getId(), "dueDate", "asc", null, 50)));
+		assertThat(page.getJobs()).hasSize(JOB_COUNT / 2);
+		assertThat(page.getJobs()).allSatisfy(job -> assertThat(job.getCabinetMakerName()).isNotBlank());
+	}
+
+	@Test
+	void installerJobsLoadUsersAndImageCountsInTwoStatements() {
+		JobPageResponse page = countStatements(2, () -> list(
+				() -> jobService.getJobsByInstallerId(installer.getId(), "dueDate", "asc", null, 50)));
+		assertThat(page.getJobs()).hasSize(JOB_COUNT / 2);
+		assertThat(page.getJobs()).allSatisfy(job -> assertThat(job.getInstallerName()).isNotBlank());
+	}
+
+	@Test
+	void filterLoadsUsersAndImageCountsInTwoStatements() {
+		JobFilterRequest filter = new JobFilterRequest();
+		filter.setOffice("Main");
+		filter.setStatus("Pending");
+		filter.setInstallerName("INSTALLER0 te");
+		JobPageResponse page = countStatements(2, () -> list(() -> jobService.filterJobs(filter, "dueDate", "asc", null, 50)));
+		assertThat(page.getJobs()).hasSize(JOB_COUNT / 2);
+		assertThat(page.getNextCursor()).isNull();
+	}
+
+	@Test
+	void pagedListingLoadsUsersInOneStatementAndImageCountsInOneMorePerPage() throws Exception {
+		JobPageResponse first = countStatements(2, () -> page(null));
+		assertThat(first.getJobs()).hasSize(5);
+		assertThat(first.getJobs().get(0).getInstallerName()).isNotBlank();
+		assertThat(first.getJobs()).extracting(JobResponse::getImageCount).containsExactly(0, 1, 2, 0, 1);
+
+		JobPageResponse second = countStatements(2, () -> page(first.getNextCursor()));
+		assertThat(second.getJobs()).hasSize(5);
+	}
+
+	// Runs the action and asserts how many JDBC statements it prepared
+	private <T> T countStatements(long expected, Supplier<T> action) {
+		statistics.clear();
+		T result = action.get();
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(expected);
+		return result;
+	}
+
+	// Lists through JobService, the same calls the endpoints make (mapping to JobResponse included)
+	private JobPageResponse list(Callable<JobPageResponse> listing) {
+		try {
+			return listing.call();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private JobPageResponse page(String cursor) {
+		return list(() -> jobService.getAllJobs("dueDate", "asc", cursor, 5));
+	}
+
+	private Users user(String name, Role role) {
+		Users user = new Users();
+		user.setFirstName(name);
+		user.setLastName("Test");
+		user.setEmail(name + "@example.com");
+		user.setUsername(name);
+		user.setCell("555-0100");
+		user.setOffice("Main");
+		user.setRole(role);
+		user.setPassword("secret");
+		return user;
+	}
+}
@@ -0,0 +1,173 @@
+package com.kitchensaver.backend.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.kitchensaver.backend.DTO.UploadSessionRequest;
+import com.kitchensaver.backend.DTO.UploadSessionResponse;
+import com.kitchensaver.backend.Exceptions.InvalidRequestException;
+import com.kitchensaver.backend.Exceptions.NotFoundException;
+import com.kitchensaver.backend.Exceptions.TooManyRequestsException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// Checks resumable uploads: chunks are verified by length and checksum, an interrupted upload resumes with only
+// the missing chunks, sessions are private to their user, and the per-user session limit holds under concurrency
+@SpringBootTest
+@ActiveProfiles("test")
+class ChunkedUploadServiceTests {
+
+	private static final int CHUNK = 256 * 1024; // Smallest chunk size the service accepts
+	private static final long OWNER = 101L;
+	private static final long OTHER_USER = 102L;
+
+	@Autowired
+	private FileStorageService fileStorageService;
+
+	private ChunkedUploadService service;
+	private byte[] file;
+
+	@BeforeEach
+	void setUp() {
+		service = new ChunkedUploadService(fileStorageService, 10_000_000, CHUNK, 3, 86_400_000);
+		file = new byte[2 * CHUNK + 1000]; // Three chunks, the last one short
+		new Random(42).nextBytes(file);
+	}
+
+	@Test
+	void resumedUploadOnlyNeedsTheMissingChunks() throws Exception {
+		UploadSessionResponse session = start(OWNER);
+		assertThat(session.getChunkCount()).isEqualTo(3);
+		write(session, 0, chunk(0));
+		write(session, 2, chunk(2));
+
+		// After an interruption the client asks what is missing and sends only that
+		UploadSessionResponse status = service.status(session.getUploadId(), OWNER);
+		assertThat(status.getMissingChunks()).containsExactly(1);
+		assertThatThrownBy(() -> service.complete(session.getUploadId(), OWNER))
+				.isInstanceOf(InvalidRequestException.class);
+
+		assertThat(write(session, 1, chunk(1)).getMissingChunks()).isEmpty();
+		write(session, 1, chunk(1)); // Sending a chunk again is harmless
+		String stored = service.complete(session.getUploadId(), OWNER);
+		assertThat(Files.readAllBytes(fileStorageService.resolveStoredFile(stored))).isEqualTo(file);
+	}
+
+	@Test
+	void chunkOfTheWrongLengthIsRejected() throws Exception {
+		UploadSessionResponse session = start(OWNER);
+		byte[] tooShort = Arrays.copyOf(chunk(0), CHUNK - 1);
+		assertThatThrownBy(() -> write(session, 0, tooShort)).isInstanceOf(InvalidRequestException.class);
+		byte[] tooLong = Arrays.copyOf(chunk(0), CHUNK + 1);
+		assertThatThrownBy(() -> write(session, 0, tooLong)).isInstanceOf(InvalidRequestException.class);
+		assertThat(service.status(session.getUploadId(), OWNER).getMissingChunks()).containsExactly(0, 1, 2);
+	}
+
+	@Test
+	void chunkThatDoesNotMatchItsChecksumStaysMissing() throws Exception {
+		UploadSessionResponse session = start(OWNER);
+		write(session, 0, chunk(0));
+		byte[] corrupted = chunk(1);
+		String checksum = sha256(corrupted);
+		corrupted[100] ^= 1; // Damaged on the way
+		assertThatThrownBy(() -> service.writeChunk(session.getUploadId(), OWNER, 1, checksum,
+				new ByteArrayInputStream(corrupted))).isInstanceOf(InvalidRequestException.class);
+
+		// A chunk that was fine before is invalid again once a bad copy overwrote it
+		assertThatThrownBy(() -> service.writeChunk(session.getUploadId(), OWNER, 0, sha256(chunk(1)),
+				new ByteArrayInputStream(chunk(0)))).isInstanceOf(InvalidRequestException.class);
+		assertThat(service.status(session.getUploadId(), OWNER).getMissingChunks()).containsExactly(0, 1, 2);
+	}
+
+	@Test
+	void anotherUsersSessionLooksMissing() throws Exception {
+		UploadSessionResponse session = start(OWNER);
+		String uploadId = session.getUploadId();
+		assertThatThrownBy(() -> service.status(uploadId, OTHER_USER)).isInstanceOf(NotFoundException.class);
+		assertThatThrownBy(() -> service.writeChunk(uploadId, OTHER_USER, 0, sha256(chunk(0)),
+				new ByteArrayInputStream(chunk(0)))).isInstanceOf(NotFoundException.class);
+		assertThatThrownBy(() -> service.complete(uploadId, OTHER_USER)).isInstanceOf(NotFoundException.class);
+		assertThatThrownBy(() -> service.abort(uploadId, OTHER_USER)).isInstanceOf(NotFoundException.class);
+
+		// Untouched for its owner
+		assertThat(service.status(uploadId, OWNER).getMissingChunks()).containsExactly(0, 1, 2);
+	}
+
+	@Test
+	void sessionLimitHoldsForParallelStarts() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch go = new CountDownLatch(1);
+			List<Future<Boolean>> starts = new ArrayList<>();
+			for (int i = 0; i < 16; i++) {
+				starts.add(pool.submit(() -> {
+					go.await();
+					try {
+						start(OWNER);
+						return true;
+					} catch (TooManyRequestsException e) {
+						return false;
+					}
+				}));
+			}
+			go.countDown();
+			int admitted = 0;
+			for (Future<Boolean> start : starts) {
+				if (start.get(10, TimeUnit.SECONDS)) {
+					admitted++;
+				}
+			}
+			assertThat(admitted).isEqualTo(3);
+		} finally {
+			pool.shutdownNow();
+		}
+
+		// Another user has their own limit, and closing a session frees a slot
+		UploadSessionResponse other = start(OTHER_USER);
+		service.abort(other.getUploadId(), OTHER_USER);
+		assertThatThrownBy(() -> service.abort(other.getUploadId(), OTHER_USER)) // Gone, no second slot is freed
+				.isInstanceOf(NotFoundException.class);
+		start(OTHER_USER);
+		start(OTHER_USER);
+		start(OTHER_USER);
+		assertThatThrownBy(() -> start(OTHER_USER)).isInstanceOf(TooManyRequestsException.class);
+	}
+
+	private UploadSessionResponse start(long userId) throws Exception {
+		UploadSessionRequest request = new UploadSessionRequest();
+		request.setFileName("plan.pdf");
+		request.setSize((long) file.length);
+		request.setChunkSize(CHUNK);
+		return service.start(request, userId);
+	}
+
+	private UploadSessionResponse write(UploadSessionResponse session, int index, byte[] bytes) throws Exception {
+		return service.writeChunk(session.getUploadId(), OWNER, index, sha256(bytes), new ByteArrayInputStream(bytes));
+	}
+
+	private byte[] chunk(int index) {
+		return Arrays.copyOfRange(file, index * CHUNK, Math.min(file.length, (index + 1) * CHUNK));
+	}
+
+	private static String sha256(byte[] bytes) throws Exception {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+	}
+}
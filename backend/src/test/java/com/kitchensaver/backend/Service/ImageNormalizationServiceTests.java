@@ -0,0 +1,137 @@
+package com.kitchensaver.backend.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Checks that an upload always ends up stripped of its metadata when the worker fails after it claimed the
+// target (its move into place fails, right away or after the time limit) or when the upload's thread is interrupted
+class ImageNormalizationServiceTests {
+
+	private static final String SECRET = "GPS 51.5074 N 0.1278 W";
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void failedMoveFallsBackToStripping() throws Exception {
+		FailingMoveService service = new FailingMoveService(10_000);
+		try {
+			service.failMoves(0);
+			Path target = dir.resolve("stored.png");
+			assertThat(service.normalize(source(), target)).isTrue();
+			assertThat(service.moves).isEqualTo(1); // The worker got as far as claiming the target
+			assertStripped(target);
+		} finally {
+			service.shutdown();
+		}
+	}
+
+	@Test
+	void moveFailingAfterTheTimeLimitFallsBackToStripping() throws Exception {
+		FailingMoveService service = new FailingMoveService(500);
+		try {
+			service.normalize(source(), dir.resolve("warmup.png")); // Loads the image codecs
+
+			service.failMoves(1500); // Claimed before the time limit, fails well after it
+			Path target = dir.resolve("stored.png");
+			assertThat(service.normalize(source(), target)).isTrue();
+			assertStripped(target);
+		} finally {
+			service.shutdown();
+		}
+	}
+
+	@Test
+	void interruptedUploadIsStrippedAndStaysInterrupted() throws Exception {
+		FailingMoveService service = new FailingMoveService(10_000);
+		try {
+			Path target = dir.resolve("stored.png");
+			Thread.currentThread().interrupt();
+			boolean written = service.normalize(source(), target);
+			assertThat(Thread.interrupted()).isTrue(); // Clears it again for the other tests
+			assertThat(written).isTrue();
+			assertStripped(target);
+		} finally {
+			service.shutdown();
+		}
+	}
+
+	// Normalization on, one worker; moves into place can be made to fail after a delay
+	private static class FailingMoveService extends ImageNormalizationService {
+		private volatile long failAfterMillis = -1; // -1 moves normally
+		private volatile int moves;
+
+		FailingMoveService(long timeoutMillis) {
+			super(true, 2560, 0.85f, 524288, 1, 1, timeoutMillis);
+		}
+
+		void failMoves(long afterMillis) {
+			failAfterMillis = afterMillis;
+		}
+
+		@Override
+		void moveIntoPlace(Path work, Path target) throws IOException {
+			moves++;
+			if (failAfterMillis < 0) {
+				super.moveIntoPlace(work, target);
+				return;
+			}
+			try {
+				Thread.sleep(failAfterMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			throw new IOException("No space left on device");
+		}
+	}
+
+	// A PNG with a text chunk holding a location
+	private Path source() throws Exception {
+		BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+		for (int y = 0; y < 48; y++) {
+			for (int x = 0; x < 64; x++) {
+				image.setRGB(x, y, (x * 4) << 16 | (y * 5) << 8 | (x + y));
+			}
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		byte[] plain = out.toByteArray();
+		// Text chunk right after IHDR (8-byte signature + 25-byte IHDR chunk)
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		png.write(plain, 0, 33);
+		png.write(pngChunk("tEXt", ("Comment\0" + SECRET).getBytes(StandardCharsets.ISO_8859_1)));
+		png.write(plain, 33, plain.length - 33);
+		Path source = Files.createTempFile(dir, "upload-", ".png");
+		Files.write(source, png.toByteArray());
+		return source;
+	}
+
+	private static void assertStripped(Path target) throws Exception {
+		assertThat(target).exists();
+		assertThat(new String(Files.readAllBytes(target), StandardCharsets.ISO_8859_1)).doesNotContain("GPS");
+		assertThat(ImageIO.read(target.toFile()).getWidth()).isEqualTo(64);
+	}
+
+	private static byte[] pngChunk(String type, byte[] data) {
+		ByteBuffer chunk = ByteBuffer.allocate(12 + data.length);
+		byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+		CRC32 crc = new CRC32();
+		crc.update(typeBytes);
+		crc.update(data);
+		chunk.putInt(data.length).put(typeBytes).put(data).putInt((int) crc.getValue());
+		return chunk.array();
+	}
+}
@@ -0,0 +1,179 @@
+package com.kitchensaver.backend.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.kitchensaver.backend.DTO.JobChangesResponse;
+import com.kitchensaver.backend.DTO.JobRequest;
+import com.kitchensaver.backend.DTO.JobResponse;
+import com.kitchensaver.backend.Repo.JobChangeRepo;
+import com.kitchensaver.backend.Repo.JobImageRepo;
+import com.kitchensaver.backend.Repo.JobRepo;
+import com.kitchensaver.backend.Repo.StoredFileRepo;
+import com.kitchensaver.backend.Repo.UserRepo;
+import com.kitchensaver.backend.model.Role;
+import com.kitchensaver.backend.model.Users;
+
+import jakarta.persistence.EntityManager;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Checks that a delta-sync token never moves past a change whose transaction has not committed yet,
+// with two transactions that commit in the opposite order of their change ids
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Every transaction really commits
+class JobChangeSyncTests {
+
+	@Autowired
+	private JobRepo jobRepo;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private JobChangeRepo jobChangeRepo;
+
+	@Autowired
+	private StoredFileRepo storedFileRepo;
+
+	@Autowired
+	private JobImageRepo jobImageRepo;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate transaction;
+	private JobService jobService;
+	private Users cabinetMaker;
+	private Users installer;
+
+	@BeforeEach
+	void setUp() {
+		transaction = new TransactionTemplate(transactionManager);
+		JobChangeWatermark watermark = new JobChangeWatermark(jobChangeRepo);
+		watermark.load();
+		jobService = new JobService(jobRepo, userRepo, jobChangeRepo, event -> {
+		}, entityManager, new FileUrlSigningService("test-secret", 3600), new FileStorageService(storedFileRepo,
+				new ImageNormalizationService(false, 2560, 0.85f, 524288, 1, 1, 10000)), jobImageRepo, watermark,
+				transactionManager);
+		cabinetMaker = userRepo.save(user("syncmaker", Role.CABINET_MAKER));
+		installer = userRepo.save(user("syncinstaller", Role.INSTALLER));
+	}
+
+	@AfterEach
+	void tearDown() {
+		jobChangeRepo.deleteAll();
+		jobRepo.deleteAll();
+		userRepo.deleteAll();
+	}
+
+	@Test
+	void tokenWaitsForChangeCommittedAfterALaterOne() throws Exception {
+		String start = changes(null).getToken();
+
+		// Transaction A records its change first (lower id) and stays open
+		CountDownLatch written = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		CompletableFuture<JobResponse> first = CompletableFuture.supplyAsync(() -> transaction.execute(status -> {
+			JobResponse job = create("SYNC-A");
+			written.countDown();
+			await(commit);
+			return job;
+		}));
+		assertThat(written.await(10, TimeUnit.SECONDS)).isTrue();
+
+		// Transaction B records a later change and commits before A
+		JobResponse second = transaction.execute(status -> create("SYNC-B"));
+
+		// B is committed but A is not: the token must stay before A's change
+		JobChangesResponse whileOpen = changes(start);
+		assertThat(whileOpen.getToken()).isEqualTo(start);
+		assertThat(whileOpen.getUpserted()).isNull();
+
+		commit.countDown();
+		JobResponse firstJob = first.get(10, TimeUnit.SECONDS);
+
+		// Now both changes arrive together
+		JobChangesResponse afterCommit = changes(whileOpen.getToken());
+		assertThat(afterCommit.getUpserted()).extracting(JobResponse::getId)
+				.containsExactlyInAnyOrder(firstJob.getId(), second.getId());
+		assertThat(changes(afterCommit.getToken()).getUpserted()).isNull();
+	}
+
+	@Test
+	void rolledBackTransactionReleasesTheToken() throws Exception {
+		String start = changes(null).getToken();
+		transaction.execute(status -> {
+			create("SYNC-ROLLBACK");
+			status.setRollbackOnly();
+			return null;
+		});
+		JobResponse committed = transaction.execute(status -> create("SYNC-C"));
+
+		JobChangesResponse response = changes(start);
+		assertThat(response.getUpserted()).extracting(JobResponse::getId).containsExactly(committed.getId());
+		assertThat(response.getToken()).isNotEqualTo(start);
+	}
+
+	private JobChangesResponse changes(String since) throws Exception {
+		return transaction.execute(status -> {
+			try {
+				return jobService.getChanges("ADMIN", null, since, null);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	private JobResponse create(String jobNumber) {
+		JobRequest request = new JobRequest();
+		request.setJobNumber(jobNumber);
+		request.setJobName("Kitchen " + jobNumber);
+		request.setCabinetMakerId(cabinetMaker.getId());
+		request.setInstallerId(installer.getId());
+		request.setDueDate(new Date(1_700_000_000_000L));
+		request.setOffice("Main");
+		request.setStatus("Pending");
+		try {
+			return jobService.createJob(request);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private Users user(String name, Role role) {
+		Users user = new Users();
+		user.setFirstName(name);
+		user.setLastName("Test");
+		user.setEmail(name + "@example.com");
+		user.setUsername(name);
+		user.setCell("555-0100");
+		user.setOffice("Main");
+		user.setRole(role);
+		user.setPassword("secret");
+		return user;
+	}
+}
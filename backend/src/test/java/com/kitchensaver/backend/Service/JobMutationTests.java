@@ -0,0 +1,221 @@
+package com.kitchensaver.backend.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.kitchensaver.backend.DTO.JobMutationRequest;
+import com.kitchensaver.backend.DTO.JobMutationResult;
+import com.kitchensaver.backend.Exceptions.InvalidRequestException;
+import com.kitchensaver.backend.Repo.JobImageRepo;
+import com.kitchensaver.backend.Repo.JobRepo;
+import com.kitchensaver.backend.Repo.UserRepo;
+import com.kitchensaver.backend.model.Job;
+import com.kitchensaver.backend.model.Role;
+import com.kitchensaver.backend.model.Users;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.StaleStateException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Checks POST /api/jobs/batch in the service: every mutation gets its own result, a stale version or a missing
+// job only skips that mutation, and the jobs stay locked until the batch commits
+@SpringBootTest
+@ActiveProfiles("test")
+class JobMutationTests {
+
+	@Autowired
+	private JobService jobService;
+
+	@Autowired
+	private JobRepo jobRepo;
+
+	@Autowired
+	private JobImageRepo jobImageRepo;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private Users cabinetMaker;
+	private Users installer;
+
+	@BeforeEach
+	void setUp() {
+		cabinetMaker = userRepo.save(user("mutationmaker" + System.nanoTime(), Role.CABINET_MAKER));
+		installer = userRepo.save(user("mutationinstaller" + System.nanoTime(), Role.INSTALLER));
+	}
+
+	@Test
+	void mixedStatusAndImageBatchApplies() throws Exception {
+		Job first = job("MUT-MIXED-1");
+		Job second = job("MUT-MIXED-2");
+
+		List<JobMutationResult> results = jobService.applyMutations(List.of(
+				status(first, "Installed", null),
+				image(second, "/api/files/plan-a.pdf?expires=1&sig=x", null), // Signed URL, stored as its file name
+				image(second, "plan-b.pdf", null),
+				image(second, "plan-a.pdf", null), // Already a photo of the job: only the cover changes
+				status(second, "Measured", null)), installer.getId());
+
+		assertThat(results).extracting(JobMutationResult::getResult).containsOnly("OK");
+		assertThat(results).extracting(JobMutationResult::getIndex).containsExactly(0, 1, 2, 3, 4);
+		assertThat(results.get(0).getJob().getStatus()).isEqualTo("Installed");
+		assertThat(results.get(4).getJob().getImage()).startsWith("/api/files/plan-a.pdf?"); // Signed again
+		assertThat(results.get(4).getJob().getStatus()).isEqualTo("Measured");
+
+		assertThat(jobImageRepo.findFileNamesByJobId(second.getId()))
+				.containsExactlyInAnyOrder("plan-a.pdf", "plan-b.pdf");
+		assertThat(jobRepo.findById(first.getId()).orElseThrow().getStatus()).isEqualTo("Installed");
+		assertThat(jobRepo.findById(second.getId()).orElseThrow().getImage()).isEqualTo("plan-a.pdf");
+	}
+
+	@Test
+	void staleVersionOnlySkipsThatMutation() throws Exception {
+		Job stale = job("MUT-STALE");
+		Job fresh = job("MUT-FRESH");
+		Long staleVersion = stale.getVersion();
+		jobService.updateJobStatus(stale.getId(), "Measured", null, null, staleVersion); // Someone else was faster
+		Long currentVersion = jobRepo.findById(stale.getId()).orElseThrow().getVersion();
+
+		List<JobMutationResult> results = jobService.applyMutations(List.of(
+				status(stale, "Installed", staleVersion),
+				status(fresh, "Installed", fresh.getVersion()),
+				status(fresh, null, fresh.getVersion())), installer.getId()); // Queued against the same version
+
+		assertThat(results).extracting(JobMutationResult::getResult).containsExactly("CONFLICT", "OK", "OK");
+		assertThat(results.get(0).getCurrentVersion()).isEqualTo(currentVersion);
+		assertThat(results.get(0).getJob()).isNull();
+		assertThat(jobRepo.findById(stale.getId()).orElseThrow().getStatus()).isEqualTo("Measured");
+		assertThat(jobRepo.findById(fresh.getId()).orElseThrow().getStatus()).isEqualTo("Installed");
+	}
+
+	@Test
+	void missingJobsAndUnknownTypesAreReportedPerMutation() throws Exception {
+		Job job = job("MUT-INVALID");
+		JobMutationRequest missing = new JobMutationRequest();
+		missing.setJobId(Long.MAX_VALUE);
+		missing.setType("STATUS");
+		JobMutationRequest withoutId = new JobMutationRequest();
+		withoutId.setType("STATUS");
+		JobMutationRequest unknownType = new JobMutationRequest();
+		unknownType.setJobId(job.getId());
+		unknownType.setType("DELETE");
+
+		List<JobMutationResult> results = jobService.applyMutations(
+				List.of(missing, withoutId, unknownType, status(job, "Installed", null)), installer.getId());
+
+		assertThat(results).extracting(JobMutationResult::getResult)
+				.containsExactly("NOT_FOUND", "NOT_FOUND", "INVALID", "OK");
+		assertThat(results.get(0).getJobId()).isEqualTo(Long.MAX_VALUE);
+		assertThat(results.get(2).getMessage()).isNotBlank();
+		assertThat(jobRepo.findById(job.getId()).orElseThrow().getStatus()).isEqualTo("Installed");
+
+		assertThatThrownBy(() -> jobService.applyMutations(List.of(), installer.getId()))
+				.isInstanceOf(InvalidRequestException.class);
+		List<JobMutationRequest> tooMany = new ArrayList<>();
+		for (int i = 0; i < 501; i++) { // One more than a batch may hold
+			tooMany.add(status(job, "Installed", null));
+		}
+		assertThatThrownBy(() -> jobService.applyMutations(tooMany, installer.getId()))
+				.isInstanceOf(InvalidRequestException.class);
+	}
+
+	@Test
+	void concurrentWriteWaitsForTheBatch() throws Exception {
+		Job job = job("MUT-LOCK");
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		CountDownLatch applied = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+
+		// The batch applies its mutations and keeps its transaction (and the row lock) open
+		CompletableFuture<List<JobMutationResult>> batch = CompletableFuture.supplyAsync(
+				() -> transaction.execute(status -> {
+					try {
+						List<JobMutationResult> results = jobService.applyMutations(
+								List.of(status(job, "Installed", null)), installer.getId());
+						applied.countDown();
+						commit.await(10, TimeUnit.SECONDS);
+						return results;
+					} catch (Exception e) {
+						throw new IllegalStateException(e);
+					}
+				}));
+		assertThat(applied.await(10, TimeUnit.SECONDS)).isTrue();
+
+		// A single update of the same job read it before the batch committed: it waits for the lock instead of
+		// failing the batch, and then loses to the newer version
+		CompletableFuture<Void> single = CompletableFuture.runAsync(() -> {
+			try {
+				jobService.updateJobStatus(job.getId(), "Measured", null, null, null);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		Thread.sleep(300);
+		assertThat(single).isNotDone();
+
+		commit.countDown();
+		assertThat(batch.get(10, TimeUnit.SECONDS)).extracting(JobMutationResult::getResult).containsExactly("OK");
+		assertThatThrownBy(() -> single.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+				.hasRootCauseInstanceOf(StaleStateException.class); // Its versioned update matched no row
+		assertThat(jobRepo.findById(job.getId()).orElseThrow().getStatus()).isEqualTo("Installed");
+	}
+
+	private Job job(String jobNumber) {
+		Job job = new Job();
+		job.setJobNumber(jobNumber + "-" + System.nanoTime());
+		job.setJobName("Kitchen");
+		job.setCabinetMaker(cabinetMaker);
+		job.setInstaller(installer);
+		job.setDueDate(new Date(1_700_000_000_000L));
+		job.setStatus("Pending");
+		job.setOffice("Main");
+		return jobRepo.save(job);
+	}
+
+	private static JobMutationRequest status(Job job, String status, Long expectedVersion) {
+		JobMutationRequest mutation = new JobMutationRequest();
+		mutation.setJobId(job.getId());
+		mutation.setExpectedVersion(expectedVersion);
+		mutation.setType("STATUS");
+		mutation.setStatus(status);
+		return mutation;
+	}
+
+	private static JobMutationRequest image(Job job, String imageUrl, Long expectedVersion) {
+		JobMutationRequest mutation = new JobMutationRequest();
+		mutation.setJobId(job.getId());
+		mutation.setExpectedVersion(expectedVersion);
+		mutation.setType("IMAGE");
+		mutation.setImageUrl(imageUrl);
+		return mutation;
+	}
+
+	private Users user(String name, Role role) {
+		Users user = new Users();
+		user.setFirstName(name);
+		user.setLastName("Test");
+		user.setEmail(name + "@example.com");
+		user.setUsername(name);
+		user.setCell("555-0100");
+		user.setOffice("Main");
+		user.setRole(role);
+		user.setPassword("secret");
+		return user;
+	}
+}
@@ -0,0 +1,104 @@
+package com.kitchensaver.backend.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.kitchensaver.backend.Repo.JobImageRepo;
+import com.kitchensaver.backend.Repo.JobRepo;
+import com.kitchensaver.backend.Repo.UserRepo;
+import com.kitchensaver.backend.model.Job;
+import com.kitchensaver.backend.model.Role;
+import com.kitchensaver.backend.model.Users;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// Checks one pass of the orphan file sweep: a file no job refers to is deleted (with its resized copies) once it
+// is older than the grace period, while a file a job refers to and a freshly uploaded one are kept
+@SpringBootTest
+@ActiveProfiles("test")
+class OrphanFileCollectorTests {
+
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	@Autowired
+	private FileStorageService fileStorageService;
+
+	@Autowired
+	private JobImageRepo jobImageRepo;
+
+	@Autowired
+	private JobRepo jobRepo;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Test
+	void collectDeletesOnlyOldUnreferencedFiles() throws Exception {
+		Instant old = Instant.now().minus(Duration.ofDays(2)); // Past the default grace period of one day
+		Path orphan = storedFile(old);
+		Path orphanThumb = orphan.resolveSibling(orphan.getFileName() + ".thumb.jpg");
+		Files.write(orphanThumb, new byte[] { 1 });
+		Path referenced = storedFile(old);
+		Path fresh = storedFile(Instant.now());
+
+		Users installer = userRepo.save(user("orphaninstaller" + System.nanoTime(), Role.INSTALLER));
+		Job job = new Job();
+		job.setJobNumber("ORPHAN-" + System.nanoTime());
+		job.setJobName("Kitchen");
+		job.setCabinetMaker(installer);
+		job.setInstaller(installer);
+		job.setDueDate(new Date(1_700_000_000_000L));
+		job.setStatus("Pending");
+		job.setOffice("Main");
+		job.setImage(referenced.getFileName().toString());
+		jobRepo.save(job);
+
+		// Built here because the scheduled sweep is off in the test profile
+		OrphanFileCollector collector = new OrphanFileCollector(fileStorageService, jobImageRepo, true, 2, 0, 1,
+				86_400_000);
+		try {
+			collector.collect();
+		} finally {
+			collector.shutdown();
+		}
+
+		assertThat(orphan).doesNotExist();
+		assertThat(orphanThumb).doesNotExist();
+		assertThat(referenced).exists();
+		assertThat(fresh).exists();
+	}
+
+	// Writes a file under a new content-addressed name (without a StoredFile row, so its age decides)
+	private Path storedFile(Instant modified) throws Exception {
+		String name = String.format("%064x", new BigInteger(256, RANDOM)) + ".jpg";
+		Path file = fileStorageService.resolveStoredFile(name);
+		Files.createDirectories(file.getParent());
+		Files.write(file, new byte[] { 1, 2, 3 });
+		Files.setLastModifiedTime(file, FileTime.from(modified));
+		return file;
+	}
+
+	private Users user(String name, Role role) {
+		Users user = new Users();
+		user.setFirstName(name);
+		user.setLastName("Test");
+		user.setEmail(name + "@example.com");
+		user.setUsername(name);
+		user.setCell("555-0100");
+		user.setOffice("Main");
+		user.setRole(role);
+		user.setPassword("secret");
+		return user;
+	}
+}
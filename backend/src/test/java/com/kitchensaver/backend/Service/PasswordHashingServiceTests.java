@@ -0,0 +1,52 @@
+package com.kitchensaver.backend.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.kitchensaver.backend.Exceptions.TooManyRequestsException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+// Checks the BCrypt pool: when every thread is busy and the queue is full, a request is refused at once
+// (429) instead of waiting, and the requests already admitted still complete
+class PasswordHashingServiceTests {
+
+	@Test
+	void saturatedPoolRejectsInsteadOfQueueing() throws Exception {
+		// One thread, room for one waiting hash, cost 13 (several hundred ms per hash)
+		PasswordHashingService service = new PasswordHashingService(13, 0, 1, 1, 30_000);
+		try {
+			CompletableFuture<String> running = hashInBackground(service);
+			CompletableFuture<String> queued = hashInBackground(service);
+			long deadline = System.currentTimeMillis() + 10_000;
+			while ((service.getStats().getActive() < 1 || service.getStats().getQueued() < 1)
+					&& System.currentTimeMillis() < deadline) {
+				Thread.sleep(5);
+			}
+
+			long start = System.nanoTime();
+			assertThatThrownBy(() -> service.encode("third")).isInstanceOf(TooManyRequestsException.class);
+			assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(100);
+
+			// Both admitted hashes finish, and the pool takes work again
+			String hash = running.get(30, TimeUnit.SECONDS);
+			assertThat(queued.get(30, TimeUnit.SECONDS)).startsWith("{bcrypt}$2a$13$");
+			assertThat(service.matches("password", hash)).isTrue();
+		} finally {
+			service.shutdown();
+		}
+	}
+
+	private static CompletableFuture<String> hashInBackground(PasswordHashingService service) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return service.encode("password");
+			} catch (TooManyRequestsException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+}
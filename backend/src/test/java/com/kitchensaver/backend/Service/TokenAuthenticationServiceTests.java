@@ -0,0 +1,137 @@
+package com.kitchensaver.backend.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.kitchensaver.backend.Exceptions.InvalidCredentialsException;
+import com.kitchensaver.backend.Repo.UserRepo;
+import com.kitchensaver.backend.model.Role;
+import com.kitchensaver.backend.model.Users;
+import com.kitchensaver.backend.util.JwtUtil;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// Checks the verified-token cache: a cached token is looked up again after the re-check interval, invalidateUser
+// drops a user's tokens at once, and a lookup that raced with invalidateUser is not cached
+@SpringBootTest
+@ActiveProfiles("test")
+class TokenAuthenticationServiceTests {
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private TokenRevocationService tokenRevocationService;
+
+	@Test
+	void cachedTokenIsCheckedAgainAfterTheRecheckInterval() throws Exception {
+		TokenAuthenticationService service = new TokenAuthenticationService(userRepo, tokenRevocationService, 100, 300);
+		Users user = userRepo.save(user("cacherecheck" + System.nanoTime(), Role.CABINET_MAKER));
+		String token = token(user);
+		assertThat(service.authenticate(token).user().id()).isEqualTo(user.getId());
+
+		// The role changes without an invalidation: the cached identity is trusted until the re-check
+		user.setRole(Role.INSTALLER);
+		userRepo.save(user);
+		assertThat(service.authenticate(token).user().role()).isEqualTo(Role.CABINET_MAKER);
+
+		Thread.sleep(350);
+		assertThatThrownBy(() -> service.authenticate(token)).isInstanceOf(InvalidCredentialsException.class);
+	}
+
+	@Test
+	void invalidateUserDropsOnlyThatUsersTokens() throws Exception {
+		TokenAuthenticationService service = new TokenAuthenticationService(userRepo, tokenRevocationService, 100,
+				300_000);
+		Users changed = userRepo.save(user("cachechanged" + System.nanoTime(), Role.CABINET_MAKER));
+		Users deleted = userRepo.save(user("cachedeleted" + System.nanoTime(), Role.INSTALLER));
+		Users untouched = userRepo.save(user("cacheuntouched" + System.nanoTime(), Role.INSTALLER));
+		String changedToken = token(changed);
+		String deletedToken = token(deleted);
+		String untouchedToken = token(untouched);
+		service.authenticate(changedToken);
+		service.authenticate(deletedToken);
+		service.authenticate(untouchedToken);
+
+		changed.setRole(Role.INSTALLER);
+		userRepo.save(changed);
+		service.invalidateUser(changed.getEmail());
+		assertThatThrownBy(() -> service.authenticate(changedToken)).isInstanceOf(InvalidCredentialsException.class);
+
+		userRepo.delete(deleted);
+		service.invalidateUser(deleted.getId());
+		assertThatThrownBy(() -> service.authenticate(deletedToken)).isInstanceOf(InvalidCredentialsException.class);
+
+		assertThat(service.authenticate(untouchedToken).user().id()).isEqualTo(untouched.getId());
+	}
+
+	@Test
+	void lookupThatRacedWithAnInvalidationIsNotCached() throws Exception {
+		Users user = userRepo.save(user("cacherace" + System.nanoTime(), Role.CABINET_MAKER));
+		String token = token(user);
+
+		// A users repository whose findByEmail reads the row, then waits before returning it
+		CountDownLatch looked = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		UserRepo slowRepo = (UserRepo) Proxy.newProxyInstance(UserRepo.class.getClassLoader(),
+				new Class<?>[] { UserRepo.class }, (proxy, method, args) -> {
+					try {
+						Object result = method.invoke(userRepo, args);
+						if (method.getName().equals("findByEmail") && looked.getCount() > 0) {
+							looked.countDown();
+							proceed.await(10, TimeUnit.SECONDS);
+						}
+						return result;
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				});
+		TokenAuthenticationService service = new TokenAuthenticationService(slowRepo, tokenRevocationService, 100,
+				300_000);
+
+		CompletableFuture<TokenAuthenticationService.VerifiedToken> first = CompletableFuture.supplyAsync(() -> {
+			try {
+				return service.authenticate(token);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		assertThat(looked.await(10, TimeUnit.SECONDS)).isTrue();
+
+		// The role changes while that lookup still holds the old row
+		user.setRole(Role.INSTALLER);
+		userRepo.save(user);
+		service.invalidateUser(user.getEmail());
+		proceed.countDown();
+		assertThat(first.get(10, TimeUnit.SECONDS).user().role()).isEqualTo(Role.CABINET_MAKER);
+
+		// The stale identity was not kept: the next request is looked up again and refused
+		assertThatThrownBy(() -> service.authenticate(token)).isInstanceOf(InvalidCredentialsException.class);
+	}
+
+	private static String token(Users user) {
+		return JwtUtil.generateToken(user.getEmail(), user.getRole().name(), user.getId());
+	}
+
+	private Users user(String name, Role role) {
+		Users user = new Users();
+		user.setFirstName(name);
+		user.setLastName("Test");
+		user.setEmail(name + "@example.com");
+		user.setUsername(name);
+		user.setCell("555-0100");
+		user.setOffice("Main");
+		user.setRole(role);
+		user.setPassword("secret");
+		return user;
+	}
+}
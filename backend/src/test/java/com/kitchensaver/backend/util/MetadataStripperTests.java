@@ -0,0 +1,139 @@
+package com.kitchensaver.backend.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Checks that stripped JPEGs and PNGs lose their metadata (location, comments, appended previews) but keep
+// exactly the same pixels, and that a JPEG keeps its orientation
+class MetadataStripperTests {
+
+	private static final String SECRET = "GPS 51.5074 N 0.1278 W";
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void jpegLosesMetadataButKeepsPixelsAndOrientation() throws Exception {
+		byte[] plain = encode(image(), "jpg");
+		// SOI, then EXIF (orientation 6 and a location), a comment, the image, and a preview appended after EOI
+		ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+		jpeg.write(plain, 0, 2);
+		jpeg.write(exifSegment(6, SECRET));
+		jpeg.write(segment(0xFE, SECRET.getBytes(StandardCharsets.US_ASCII)));
+		jpeg.write(plain, 2, plain.length - 2);
+		jpeg.write(("trailing preview " + SECRET).getBytes(StandardCharsets.US_ASCII));
+		Path source = dir.resolve("photo.jpg");
+		Files.write(source, jpeg.toByteArray());
+		assertThat(ExifOrientation.read(source)).isEqualTo(6);
+
+		Path target = dir.resolve("stripped.jpg");
+		assertThat(MetadataStripper.strip(source, target)).isTrue();
+
+		byte[] stripped = Files.readAllBytes(target);
+		assertThat(new String(stripped, StandardCharsets.ISO_8859_1)).doesNotContain("GPS");
+		assertThat(ExifOrientation.read(target)).isEqualTo(6);
+		assertThat(stripped[stripped.length - 2] & 0xFF).isEqualTo(0xFF);
+		assertThat(stripped[stripped.length - 1] & 0xFF).isEqualTo(0xD9); // Nothing after the end of the image
+		assertSamePixels(source, target);
+	}
+
+	@Test
+	void pngLosesTextChunksButKeepsPixels() throws Exception {
+		byte[] plain = encode(image(), "png");
+		// Text chunk right after IHDR (8-byte signature + 25-byte IHDR chunk)
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		png.write(plain, 0, 33);
+		png.write(pngChunk("tEXt", ("Comment\0" + SECRET).getBytes(StandardCharsets.ISO_8859_1)));
+		png.write(plain, 33, plain.length - 33);
+		Path source = dir.resolve("drawing.png");
+		Files.write(source, png.toByteArray());
+
+		Path target = dir.resolve("stripped.png");
+		assertThat(MetadataStripper.strip(source, target)).isTrue();
+
+		assertThat(new String(Files.readAllBytes(target), StandardCharsets.ISO_8859_1)).doesNotContain("GPS");
+		assertThat(Files.readAllBytes(target)).isEqualTo(plain);
+		assertSamePixels(source, target);
+	}
+
+	@Test
+	void otherFilesAreNotTouched() throws Exception {
+		Path source = dir.resolve("notes.txt");
+		Files.writeString(source, "not an image");
+		assertThat(MetadataStripper.strip(source, dir.resolve("out"))).isFalse();
+	}
+
+	private static BufferedImage image() {
+		BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+		for (int y = 0; y < 48; y++) {
+			for (int x = 0; x < 64; x++) {
+				image.setRGB(x, y, (x * 4) << 16 | (y * 5) << 8 | (x + y));
+			}
+		}
+		return image;
+	}
+
+	private static byte[] encode(BufferedImage image, String format) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, format, out);
+		return out.toByteArray();
+	}
+
+	private static void assertSamePixels(Path expected, Path actual) throws Exception {
+		BufferedImage a = ImageIO.read(expected.toFile());
+		BufferedImage b = ImageIO.read(actual.toFile());
+		assertThat(b.getWidth()).isEqualTo(a.getWidth());
+		assertThat(b.getHeight()).isEqualTo(a.getHeight());
+		assertThat(b.getRGB(0, 0, b.getWidth(), b.getHeight(), null, 0, b.getWidth()))
+				.isEqualTo(a.getRGB(0, 0, a.getWidth(), a.getHeight(), null, 0, a.getWidth()));
+	}
+
+	// APP1 "Exif\0\0", big-endian TIFF, IFD0 with the orientation and an ASCII tag (0x010E) holding the text
+	private static byte[] exifSegment(int orientation, String text) {
+		byte[] ascii = (text + "\0").getBytes(StandardCharsets.US_ASCII);
+		int textOffset = 8 + 2 + 2 * 12 + 4;
+		ByteBuffer tiff = ByteBuffer.allocate(textOffset + ascii.length);
+		tiff.put(new byte[] { 'M', 'M' }).putShort((short) 42).putInt(8);
+		tiff.putShort((short) 2);
+		tiff.putShort((short) 0x010E).putShort((short) 2).putInt(ascii.length).putInt(textOffset);
+		tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+		tiff.putInt(0);
+		tiff.put(ascii);
+		byte[] payload = new byte[6 + tiff.capacity()];
+		System.arraycopy(new byte[] { 'E', 'x', 'i', 'f', 0, 0 }, 0, payload, 0, 6);
+		System.arraycopy(tiff.array(), 0, payload, 6, tiff.capacity());
+		return segment(0xE1, payload);
+	}
+
+	private static byte[] segment(int marker, byte[] payload) {
+		byte[] segment = new byte[4 + payload.length];
+		segment[0] = (byte) 0xFF;
+		segment[1] = (byte) marker;
+		segment[2] = (byte) ((payload.length + 2) >> 8);
+		segment[3] = (byte) (payload.length + 2);
+		System.arraycopy(payload, 0, segment, 4, payload.length);
+		return segment;
+	}
+
+	private static byte[] pngChunk(String type, byte[] data) {
+		ByteBuffer chunk = ByteBuffer.allocate(12 + data.length);
+		byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+		CRC32 crc = new CRC32();
+		crc.update(typeBytes);
+		crc.update(data);
+		chunk.putInt(data.length).put(typeBytes).put(data).putInt((int) crc.getValue());
+		return chunk.array();
+	}
+}
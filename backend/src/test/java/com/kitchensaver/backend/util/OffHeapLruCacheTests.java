@@ -0,0 +1,56 @@
+package com.kitchensaver.backend.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+// Checks the cache admission: a rarely asked for file does not push out a popular one, even when the popular one
+// is the least recently used, while a file asked for more often than the eldest entry does replace it
+class OffHeapLruCacheTests {
+
+	@Test
+	void rejectedCandidateKeepsTheHotEntry() {
+		OffHeapLruCache cache = new OffHeapLruCache(300, 100, 16); // Room for three entries
+		for (int i = 0; i < 5; i++) {
+			cache.get("hot", 1); // Asked for often before it was ever cached
+		}
+		assertThat(cache.put("hot", 1, buffer(100))).isTrue();
+		assertThat(cache.put("a", 1, buffer(100))).isTrue();
+		assertThat(cache.put("b", 1, buffer(100))).isTrue();
+		assertThat(cache.getBytes()).isEqualTo(300);
+
+		// "hot" is now the eldest, and a one-off request is not worth more than it
+		assertThat(cache.get("cold", 1)).isNull();
+		assertThat(cache.wouldAdmit("cold", 100)).isFalse();
+		assertThat(cache.put("cold", 1, buffer(100))).isFalse();
+		assertThat(cache.getRejections()).isEqualTo(2);
+		assertThat(cache.getEvictions()).isZero();
+		assertThat(cache.get("hot", 1)).isNotNull();
+		assertThat(cache.get("cold", 1)).isNull();
+		assertThat(cache.getEntryCount()).isEqualTo(3);
+	}
+
+	@Test
+	void popularCandidateReplacesTheEldest() {
+		OffHeapLruCache cache = new OffHeapLruCache(200, 100, 16);
+		assertThat(cache.put("a", 1, buffer(100))).isTrue();
+		assertThat(cache.put("b", 1, buffer(100))).isTrue();
+		for (int i = 0; i < 3; i++) {
+			cache.get("c", 1);
+		}
+
+		assertThat(cache.wouldAdmit("c", 100)).isTrue();
+		assertThat(cache.put("c", 1, buffer(100))).isTrue();
+		assertThat(cache.getEvictions()).isEqualTo(1);
+		assertThat(cache.get("a", 1)).isNull(); // The eldest went
+		assertThat(cache.get("b", 1)).isNotNull();
+		assertThat(cache.get("c", 1)).isNotNull();
+		assertThat(cache.getBytes()).isEqualTo(200);
+	}
+
+	private static ByteBuffer buffer(int size) {
+		return ByteBuffer.allocateDirect(size);
+	}
+}
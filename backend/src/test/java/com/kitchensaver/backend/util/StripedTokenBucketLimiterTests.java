@@ -0,0 +1,52 @@
+package com.kitchensaver.backend.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+// Checks the token buckets: a key gets its burst, then waits about 1 / rate per attempt, refills over time,
+// and keys do not share a budget
+class StripedTokenBucketLimiterTests {
+
+	@Test
+	void burstThenRefill() throws Exception {
+		StripedTokenBucketLimiter limiter = new StripedTokenBucketLimiter(3, 5, 1000); // One token per 200 ms
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.tryAcquire("a@example.com")).isZero();
+		}
+		long wait = limiter.tryAcquire("a@example.com");
+		assertThat(wait).isBetween(1L, 200L);
+
+		Thread.sleep(wait + 20);
+		assertThat(limiter.tryAcquire("a@example.com")).isZero();
+		assertThat(limiter.tryAcquire("a@example.com")).isPositive(); // Only one token came back
+
+		// A full refill gives the whole burst again
+		Thread.sleep(700);
+		for (int i = 0; i < 3; i++) {
+			assertThat(limiter.tryAcquire("a@example.com")).isZero();
+		}
+	}
+
+	@Test
+	void keysHaveTheirOwnBuckets() {
+		StripedTokenBucketLimiter limiter = new StripedTokenBucketLimiter(1, 0.001, 1000);
+		assertThat(limiter.tryAcquire("a@example.com")).isZero();
+		assertThat(limiter.tryAcquire("a@example.com")).isPositive();
+		for (int i = 0; i < 100; i++) {
+			assertThat(limiter.tryAcquire("user" + i + "@example.com")).isZero();
+		}
+	}
+
+	@Test
+	void idleKeysAreForgottenButBusyOnesAreNot() throws Exception {
+		StripedTokenBucketLimiter limiter = new StripedTokenBucketLimiter(2, 2, 1000); // One token per 500 ms
+		limiter.tryAcquire("idle");
+		limiter.tryAcquire("busy");
+		limiter.tryAcquire("busy");
+		Thread.sleep(700); // "idle" is full again, "busy" has between one and two tokens
+		limiter.evictIdle();
+		assertThat(limiter.tryAcquire("busy")).isZero();
+		assertThat(limiter.tryAcquire("busy")).isPositive(); // Its state was kept
+	}
+}
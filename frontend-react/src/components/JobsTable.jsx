@@ -102,19 +102,23 @@ const deleteJob = async (id) => {
 
   // Function to handle file upload for a job
   const handleFileUpload = async (index, event) => {
-    const file = event.target.files[0]; // Get the selected file
+    const files = Array.from(event.target.files); // Get the selected files
     const allowedTypes = ["image/png", "image/jpeg", "image/svg+xml"]; // Allowed image types
 
-    // Check if the file type is allowed
-    if (!allowedTypes.includes(file.type)) {
+    // Check if the file types are allowed
+    if (files.length === 0 || files.some((file) => !allowedTypes.includes(file.type))) {
       setError("Only png, jpg and svg images are allowed");
       return;
     }
 
     try {
-      const response = await apiService().uploadJobImage(jobs[index].id, file); // Upload the file using the API
+      // One photo goes through the resumable upload, several are sent together in one request
+      const updated = files.length === 1
+        ? await apiService().uploadJobImage(jobs[index].id, files[0])
+        : await apiService().uploadJobImages(jobs[index].id, files);
       const updatedJobs = [...jobs]; // Copy the jobs array
-      updatedJobs[index].image = response.data; // Add the uploaded image URL to the job
+      updatedJobs[index].image = updated.image; // The uploaded image is the new cover (signed URL)
+      updatedJobs[index].imageCount = updated.imageCount; // Earlier photos are kept
       setJobs(updatedJobs); // Update the state with the new job data
     } catch (error) {
       console.error(error);
@@ -235,16 +239,24 @@ const deleteJob = async (id) => {
           <td>
             <input
               type="file"
+              multiple
               className="form-control form-control-sm"
               onChange={(e) => handleFileUpload(index, e)}
             />
             {job.image && (
               <a
-                href={`${process.env.REACT_APP_API_BASE_URL}/api/files/${job.image}`}
+                href={`${process.env.REACT_APP_API_BASE_URL}${job.image}`}
                 target="_blank"
                 rel="noopener noreferrer"
               >
+                <img
+                  src={`${process.env.REACT_APP_API_BASE_URL}${job.image}&size=thumb`}
+                  alt="Job"
+                  loading="lazy"
+                  style={{ maxHeight: "40px", marginRight: "6px" }}
+                />
                 View Photo
+                {job.imageCount > 1 && ` (${job.imageCount} photos)`}
               </a>
             )}
           </td>
@@ -2,6 +2,7 @@ import { Link, Navigate, useNavigate } from "react-router-dom"; // Import necess
 import React, { use, useEffect, useState } from "react"; // Import React hooks for state and side-effects
 
 import { useUser } from "../hooks/useUser"; // Import custom hook to get user data
+import { apiService } from "../services/apiService"; // Import API service to revoke the token on logout
 
 // NavigationHeader component to handle navigation links based on user authentication and role
 export const NavigationHeader = ({ showLogout }) => {
@@ -14,8 +15,9 @@ export const NavigationHeader = ({ showLogout }) => {
   // useNavigate hook for redirecting to different routes
   const navigate = useNavigate();
   
-  // onLogout function to clear the localStorage and redirect to the login page
+  // onLogout function to revoke the token, clear the localStorage and redirect to the login page
   const onLogout = () => {
+    apiService().logout(); // Revoke the token on the server (uses the token before it is cleared)
     localStorage.clear(); // Clear all data in localStorage
     return navigate("/login"); // Redirect to login page
   };
@@ -1,9 +1,11 @@
 import React from "react"; // Import React library to create the component
+import { apiService } from "../services/apiService"; // Import API service to revoke the token on logout
 
 // LogoutButton component to handle the logout action
 export const LogoutButton = () => {
-  // onLogout function to clear all data in localStorage when the button is clicked
+  // onLogout function to revoke the token and clear all data in localStorage when the button is clicked
   const onLogout = () => {
+    apiService().logout(); // Revoke the token on the server (uses the token before it is cleared)
     localStorage.clear(); // Clear all data stored in localStorage
   };
 
@@ -51,6 +51,15 @@ export const apiService = () => {
       }
     },
 
+    // Logout: revokes the current token on the server (local data is cleared by the caller)
+    logout: async () => {
+      try {
+        await authAxios.post("/user/logout");
+      } catch (error) {
+        // The token may already be expired or revoked, the user is logged out locally either way
+      }
+    },
+
     // Delete user by ID
     deleteUser: async (userId) => {
       try {
@@ -147,11 +156,19 @@ export const apiService = () => {
       }
     },
 
-    // Get all jobs
+    // Get all jobs (follows nextCursor until the last page)
     getJobs: async () => {
       try {
-        const response = await authAxios.get("/jobs");
-        return response.data;
+        const jobs = [];
+        let cursor = null;
+        do {
+          const response = await authAxios.get("/jobs", {
+            params: { sort: "dueDate", cursor: cursor || undefined },
+          });
+          jobs.push(...response.data.jobs);
+          cursor = response.data.nextCursor;
+        } while (cursor);
+        return jobs;
       } catch (error) {
         throw new Error(
           error.response?.data?.message || "Failed to fetch jobs"
@@ -171,24 +188,44 @@ export const apiService = () => {
       }
     },
 
+    // Upload a file in chunks so a dropped connection only costs the missing chunks; returns the stored file name
+    uploadFileInChunks: async (file) => {
+      const sha256Hex = async (blob) => {
+        const digest = await crypto.subtle.digest("SHA-256", await blob.arrayBuffer());
+        return Array.from(new Uint8Array(digest), (b) => b.toString(16).padStart(2, "0")).join("");
+      };
+
+      let session = (await authAxios.post(`/uploads`, { fileName: file.name, size: file.size })).data;
+      for (let attempt = 0; attempt < 5 && session.missingChunks.length > 0; attempt++) {
+        for (const index of session.missingChunks) {
+          const chunk = file.slice(index * session.chunkSize, Math.min(file.size, (index + 1) * session.chunkSize));
+          try {
+            await authAxios.put(`/uploads/${session.uploadId}/chunks/${index}`, chunk, {
+              headers: { "Content-Type": "application/octet-stream", "X-Chunk-SHA256": await sha256Hex(chunk) },
+            });
+          } catch (error) {
+            // Left missing, sent again in the next round
+          }
+        }
+        // Ask the server what it actually has, and resend only what is missing
+        session = (await authAxios.get(`/uploads/${session.uploadId}`)).data;
+      }
+
+      const response = await authAxios.post(`/uploads/${session.uploadId}/complete`);
+      return response.data;
+    },
+
     // Upload image for a job
     uploadJobImage: async (jobId, imageFile) => {
       try {
-        const formData = new FormData();
-        formData.append('file', imageFile);
+        const fileName = await apiService().uploadFileInChunks(imageFile);
 
-        const response = await authAxios.post(`/upload`, formData, {
-          headers: {
-            'Content-Type': 'multipart/form-data',
-          },
-        });
-
-        if (response.data) {
-          // Call updateJobImage after uploading
-          await apiService().updateJobImage(jobId, response.data);
+        if (fileName) {
+          // Call updateJobImage after uploading; the updated job carries the signed URL of the new cover and the photo count
+          return await apiService().updateJobImage(jobId, fileName);
         }
 
-        return response.data;
+        return fileName;
       } catch (error) {
         throw new Error(
           error.response?.data?.message || "Failed to upload job image"
@@ -196,6 +233,23 @@ export const apiService = () => {
       }
     },
 
+    // Upload several photos to a job in one request; the updated job carries the new cover and the photo count
+    uploadJobImages: async (jobId, imageFiles) => {
+      try {
+        const formData = new FormData();
+        imageFiles.forEach((file) => formData.append("files", file));
+        const response = await authAxios.post(`/jobs/${jobId}/images`, formData, {
+          headers: { "Content-Type": "multipart/form-data" }, // Not the JSON default, the browser adds the boundary
+        });
+
+        return response.data;
+      } catch (error) {
+        throw new Error(
+          error.response?.data?.message || "Failed to upload job images"
+        );
+      }
+    },
+
     // Update image URL for a job
     updateJobImage: async (jobId, imageUrl) => {
       try {
@@ -209,6 +263,19 @@ export const apiService = () => {
       }
     },
 
+    // Get one page of a job's photos, newest first (pass nextCursor from the previous page for the next one)
+    getJobImages: async (jobId, cursor) => {
+      try {
+        const response = await authAxios.get(`/jobs/${jobId}/images`, { params: { cursor } });
+
+        return response.data;
+      } catch (error) {
+        throw new Error(
+          error.response?.data?.message || "Failed to load job images"
+        );
+      }
+    },
+
     // Return image URL for display (example placeholder)
     getJobImage:  (imageUrl) => {
       try {